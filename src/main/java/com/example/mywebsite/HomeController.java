@@ -1,20 +1,30 @@
 package com.example.mywebsite;
 
+import com.example.mywebsite.dto.ScheduleClash;
+import com.example.mywebsite.dto.ScheduleNow;
+import com.example.mywebsite.dto.ScheduleSlot;
+import com.example.mywebsite.dto.StudentInfo;
 import com.example.mywebsite.entity.User;
 import com.example.mywebsite.service.AuthService;
 import com.example.mywebsite.service.DatabaseService;
+import com.example.mywebsite.service.GradeService;
+import com.example.mywebsite.service.ScheduleLiveService;
 import com.example.mywebsite.service.ScheduleService;
 import com.example.mywebsite.service.UserService;
 
 import jakarta.servlet.http.HttpSession;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -33,31 +43,21 @@ public class HomeController {
     @Autowired
     private ScheduleService scheduleService;
 
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private ScheduleLiveService scheduleLiveService;
+
     @GetMapping("/")
     public String home(Model model, Authentication authentication) {
         if (authentication != null && authentication.isAuthenticated()) {
-            String username = authentication.getName();
-            
-            // Если имя пользователя похоже на ID (только цифры), ищем email в базе
-            if (username.matches("\\d+")) {
-                // Это похоже на Google ID (только цифры) или GitHub ID
-                User user = userService.findByGoogleId(username);
-                if (user == null) {
-                    user = userService.findByGithubId(username);
-                }
-                
-                if (user != null && user.getEmail() != null) {
-                    model.addAttribute("username", user.getEmail());
-                } else {
-                    model.addAttribute("username", username);
-                }
-            } else {
-                model.addAttribute("username", username);
-            }
+            // Вход через OAuth дает числовой ID: email берется из кэша пользователей
+            model.addAttribute("username", userService.resolveEmail(authentication.getName()));
             
             model.addAttribute("isAuthenticated", true);
-            // Добавляем данные для расписания (для всех пользователей)
-            addScheduleDataToModel(model);
+            // Добавляем данные для расписания: группа студента или вся неделя
+            addScheduleDataToModel(model, (String) model.getAttribute("username"));
             return "index";
         } else {
             model.addAttribute("username", "anonymous");
@@ -70,18 +70,25 @@ public class HomeController {
         
     }
     
-    // Метод для добавления данных расписания в модель
-    private void addScheduleDataToModel(Model model) {
+    // Метод для добавления данных расписания в модель. Если у пользователя есть студент
+    // и у его группы есть расписание, показываем только его группу
+    private void addScheduleDataToModel(Model model, String email) {
         try {
-            Map<String, List<Map<String, Object>>> scheduleByDays = scheduleService.getGroupedSchedule();
+            String group = scheduleGroupOf(email);
+            Map<String, List<ScheduleSlot>> scheduleByDays = group != null
+                ? scheduleService.getGroupedSchedule(group)
+                : scheduleService.getGroupedSchedule();
+            List<ScheduleSlot> todaysSchedule = group != null
+                ? scheduleService.getTodaysSchedule(group)
+                : scheduleService.getTodaysSchedule();
             Map<String, Object> weekInfo = scheduleService.getWeekInfo();
-            List<Map<String, Object>> todaysSchedule = scheduleService.getTodaysSchedule();
             Map<String, Object> stats = scheduleService.getScheduleStats();
             
             model.addAttribute("scheduleByDays", scheduleByDays);
             model.addAttribute("weekInfo", weekInfo);
             model.addAttribute("todaysSchedule", todaysSchedule);
             model.addAttribute("stats", stats);
+            model.addAttribute("scheduleGroup", group);
             model.addAttribute("hasSchedule", !scheduleByDays.isEmpty());
             
         } catch (Exception e) {
@@ -91,6 +98,15 @@ public class HomeController {
         }
     }
 
+    private String scheduleGroupOf(String email) {
+        if (email == null || "anonymous".equals(email)) {
+            return null;
+        }
+        StudentInfo student = gradeService.getStudentInfo(email);
+        String group = student != null ? student.groupName() : null;
+        return scheduleService.hasGroup(group) ? group : null;
+    }
+
     @GetMapping("/login")
     public String login(@RequestParam(value = "oauth_link_success", required = false) String oauthSuccess,
                     @RequestParam(value = "oauth_link_error", required = false) String oauthError,
@@ -205,18 +221,8 @@ public class HomeController {
         }
         
         String username = authentication.getName();
-        String email = username;
-        
         // Если username это ID (цифры), ищем email
-        if (username.matches("\\d+")) {
-            User userById = userService.findByGoogleId(username);
-            if (userById == null) {
-                userById = userService.findByGithubId(username);
-            }
-            if (userById != null) {
-                email = userById.getEmail();
-            }
-        }
+        String email = userService.resolveEmail(username);
         
         model.addAttribute("email", email);
         model.addAttribute("username", username);
@@ -612,24 +618,8 @@ public class HomeController {
     public String schedulePage(Model model, Authentication authentication) {
         // Проверка аутентификации
         if (authentication != null && authentication.isAuthenticated()) {
-            String username = authentication.getName();
-            
-            // Если имя пользователя похоже на ID (только цифры), ищем email в базе
-            if (username.matches("\\d+")) {
-                // Это похоже на Google ID (только цифры) или GitHub ID
-                User user = userService.findByGoogleId(username);
-                if (user == null) {
-                    user = userService.findByGithubId(username);
-                }
-                
-                if (user != null && user.getEmail() != null) {
-                    model.addAttribute("username", user.getEmail());
-                } else {
-                    model.addAttribute("username", username);
-                }
-            } else {
-                model.addAttribute("username", username);
-            }
+            // Вход через OAuth дает числовой ID: email берется из кэша пользователей
+            model.addAttribute("username", userService.resolveEmail(authentication.getName()));
             
             model.addAttribute("isAuthenticated", true);
         } else {
@@ -638,20 +628,59 @@ public class HomeController {
         }
         
         // Добавляем данные расписания
-        addScheduleDataToModel(model);
+        addScheduleDataToModel(model, (String) model.getAttribute("username"));
         
         return "schedule"; // если создадите отдельную страницу schedule.html
     }
 
     @GetMapping("/api/schedule/today")
     @ResponseBody
-    public List<Map<String, Object>> getTodayScheduleApi() {
-        return scheduleService.getTodaysSchedule();
+    public List<ScheduleSlot> getTodayScheduleApi(@RequestParam(required = false) String group) {
+        return group != null && !group.isBlank()
+            ? scheduleService.getTodaysSchedule(group)
+            : scheduleService.getTodaysSchedule();
     }
 
+    // Неделя по группе, преподавателю и/или аудитории; без параметров — все занятия
     @GetMapping("/api/schedule/week")
     @ResponseBody
-    public Map<String, List<Map<String, Object>>> getWeekScheduleApi() {
-        return scheduleService.getGroupedSchedule();
+    public Map<String, List<ScheduleSlot>> getWeekScheduleApi(@RequestParam(required = false) String group,
+                                                              @RequestParam(required = false) String teacher,
+                                                              @RequestParam(required = false) String room) {
+        return scheduleService.findWeek(group, teacher, room);
+    }
+
+    // Текущее и следующее занятие группы; без группы — по всем группам
+    @GetMapping("/api/schedule/now")
+    @ResponseBody
+    public ScheduleNow getScheduleNowApi(@RequestParam(required = false) String group) {
+        return scheduleService.getNowAndNext(group, LocalDateTime.now());
+    }
+
+    // То же, что /api/schedule/now, но потоком SSE (событие "schedule"):
+    // новое состояние приходит только при смене занятия или изменении расписания
+    @GetMapping(value = "/api/schedule/live", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> getScheduleLive(@RequestParam(required = false) String group) {
+        if (group != null && !group.isBlank() && !scheduleService.hasGroup(group)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        try {
+            return ResponseEntity.ok(scheduleLiveService.subscribe(group));
+        } catch (IllegalStateException e) {
+            System.err.println(e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/api/schedule/groups")
+    @ResponseBody
+    public List<String> getScheduleGroupsApi() {
+        return scheduleService.getAllGroups();
+    }
+
+    @GetMapping("/api/schedule/clashes")
+    @ResponseBody
+    public List<ScheduleClash> getScheduleClashesApi() {
+        return scheduleService.getClashes();
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.example.mywebsite.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Роли пользователей по email: app.access.admins / app.access.teachers.
+// Остальные вошедшие — ROLE_USER. Роли назначаются при входе,
+// поэтому указывать стоит уже заведенные учетные записи
+@ConfigurationProperties(prefix = "app.access")
+public class AccessProperties {
+
+    // ROLE_ADMIN: выгрузки, расписание, тестовые данные, пересчет статистики
+    private List<String> admins = new ArrayList<>(List.of("admin@example.com"));
+
+    // ROLE_TEACHER: изменение оценок
+    private List<String> teachers = new ArrayList<>();
+
+    public List<String> getAdmins() { return admins; }
+    public void setAdmins(List<String> admins) { this.admins = admins; }
+
+    public List<String> getTeachers() { return teachers; }
+    public void setTeachers(List<String> teachers) { this.teachers = teachers; }
+}
@@ -0,0 +1,91 @@
+package com.example.mywebsite.config;
+
+import com.example.mywebsite.service.GradeCacheLoader;
+import com.example.mywebsite.service.GradeService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    // Отдельный ограниченный пул для фонового обновления кэшей.
+    // При переполнении очереди задача отклоняется, и запись обновится при следующем чтении
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor cacheRefreshExecutor(CacheProperties properties) {
+        CacheProperties.Refresh refresh = properties.getRefresh();
+        return new ThreadPoolExecutor(
+            refresh.getThreads(), refresh.getThreads(),
+            60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(refresh.getQueueCapacity()),
+            new CustomizableThreadFactory("cache-refresh-"),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Периодическая очистка каталога PDF-кэша на диске
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService pdfDiskCleanupScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("pdf-cache-cleanup-"));
+    }
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties,
+                                     @Qualifier("cacheRefreshExecutor") ThreadPoolExecutor cacheRefreshExecutor,
+                                     ObjectProvider<GradeService> gradeService) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Кэши, не описанные в настройках, создаются по умолчанию с ограничением размера
+        cacheManager.setCaffeine(builder(properties.getDefaultSpec()));
+
+        for (Map.Entry<String, CacheProperties.Spec> entry : properties.getSpecs().entrySet()) {
+            String cacheName = entry.getKey();
+            CacheProperties.Spec spec = entry.getValue();
+            Caffeine<Object, Object> builder = builder(spec);
+
+            if (spec.getRefreshAfterWrite() != null && GradeCacheLoader.supports(cacheName)) {
+                // Refresh-ahead: устаревшее значение отдается сразу, а новое загружается
+                // в фоне на cacheRefreshExecutor. Кэш синхронный: промах загружается
+                // в потоке запроса и не зависит от очереди пула обновления
+                builder.refreshAfterWrite(spec.getRefreshAfterWrite())
+                    .executor(cacheRefreshExecutor);
+                cacheManager.registerCustomCache(cacheName,
+                    builder.build(new GradeCacheLoader(cacheName, gradeService)));
+            } else {
+                if (spec.getRefreshAfterWrite() != null) {
+                    System.err.println("Кэш " + cacheName + ": refresh-after-write поддерживается только для кэшей оценок, пропускаем");
+                }
+                cacheManager.registerCustomCache(cacheName, builder.build());
+            }
+
+            System.out.println("Кэш " + cacheName + ": maximumSize=" + spec.getMaximumSize()
+                + ", expireAfterWrite=" + spec.getExpireAfterWrite()
+                + ", refreshAfterWrite=" + spec.getRefreshAfterWrite());
+        }
+
+        return cacheManager;
+    }
+
+    private Caffeine<Object, Object> builder(CacheProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        return builder;
+    }
+}
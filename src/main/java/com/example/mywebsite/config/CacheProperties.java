@@ -0,0 +1,109 @@
+package com.example.mywebsite.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Настройки кэшей: app.cache.specs.<имя>.maximum-size / expire-after-write / refresh-after-write
+// Для кэшей, которых нет в списке, используется app.cache.default-spec.
+// refresh-after-write включает фоновое обновление (refresh-ahead) для кэшей оценок,
+// потоки обновления настраиваются в app.cache.refresh.
+// Готовые PDF кэшируются отдельно по размеру в байтах: app.cache.pdf
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    private Spec defaultSpec = new Spec(1_000L, Duration.ofMinutes(10), null);
+
+    private Map<String, Spec> specs = new LinkedHashMap<>(Map.of(
+        "grades", new Spec(10_000L, Duration.ofMinutes(30), Duration.ofMinutes(5)),
+        "average", new Spec(10_000L, Duration.ofMinutes(30), Duration.ofMinutes(5)),
+        "student", new Spec(10_000L, Duration.ofMinutes(30), Duration.ofMinutes(5)),
+        "dashboard", new Spec(10_000L, Duration.ofMinutes(30), Duration.ofMinutes(5)),
+        "exports", new Spec(2_000L, Duration.ofMinutes(5), null),
+        "users", new Spec(10_000L, Duration.ofMinutes(30), null),
+        "user-ids", new Spec(10_000L, Duration.ofMinutes(30), null)
+    ));
+
+    private Refresh refresh = new Refresh();
+
+    private Pdf pdf = new Pdf();
+
+    public Spec getDefaultSpec() { return defaultSpec; }
+    public void setDefaultSpec(Spec defaultSpec) { this.defaultSpec = defaultSpec; }
+
+    public Map<String, Spec> getSpecs() { return specs; }
+    public void setSpecs(Map<String, Spec> specs) { this.specs = specs; }
+
+    public Refresh getRefresh() { return refresh; }
+    public void setRefresh(Refresh refresh) { this.refresh = refresh; }
+
+    public Pdf getPdf() { return pdf; }
+    public void setPdf(Pdf pdf) { this.pdf = pdf; }
+
+    public static class Pdf {
+        // Суммарный размер PDF в памяти
+        private long maxBytes = 64L * 1024 * 1024;
+        private Duration expireAfterAccess = Duration.ofHours(1);
+        // Каталог второго уровня на диске; пусто — только память
+        private String diskDirectory;
+        // Файлы старше этого удаляются при запуске и при каждой очистке
+        private Duration diskMaxAge = Duration.ofDays(2);
+        // Предел суммарного размера файлов: сверх него удаляются самые старые; 0 — без предела
+        private long diskMaxBytes = 512L * 1024 * 1024;
+        private Duration diskCleanupInterval = Duration.ofHours(1);
+
+        public long getMaxBytes() { return maxBytes; }
+        public void setMaxBytes(long maxBytes) { this.maxBytes = maxBytes; }
+
+        public Duration getExpireAfterAccess() { return expireAfterAccess; }
+        public void setExpireAfterAccess(Duration expireAfterAccess) { this.expireAfterAccess = expireAfterAccess; }
+
+        public String getDiskDirectory() { return diskDirectory; }
+        public void setDiskDirectory(String diskDirectory) { this.diskDirectory = diskDirectory; }
+
+        public Duration getDiskMaxAge() { return diskMaxAge; }
+        public void setDiskMaxAge(Duration diskMaxAge) { this.diskMaxAge = diskMaxAge; }
+
+        public long getDiskMaxBytes() { return diskMaxBytes; }
+        public void setDiskMaxBytes(long diskMaxBytes) { this.diskMaxBytes = diskMaxBytes; }
+
+        public Duration getDiskCleanupInterval() { return diskCleanupInterval; }
+        public void setDiskCleanupInterval(Duration diskCleanupInterval) { this.diskCleanupInterval = diskCleanupInterval; }
+    }
+
+    public static class Refresh {
+        private int threads = 4;
+        private int queueCapacity = 1_000;
+
+        public int getThreads() { return threads; }
+        public void setThreads(int threads) { this.threads = threads; }
+
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+    }
+
+    public static class Spec {
+        private Long maximumSize;
+        private Duration expireAfterWrite;
+        private Duration refreshAfterWrite;
+
+        public Spec() {}
+
+        public Spec(Long maximumSize, Duration expireAfterWrite, Duration refreshAfterWrite) {
+            this.maximumSize = maximumSize;
+            this.expireAfterWrite = expireAfterWrite;
+            this.refreshAfterWrite = refreshAfterWrite;
+        }
+
+        public Long getMaximumSize() { return maximumSize; }
+        public void setMaximumSize(Long maximumSize) { this.maximumSize = maximumSize; }
+
+        public Duration getExpireAfterWrite() { return expireAfterWrite; }
+        public void setExpireAfterWrite(Duration expireAfterWrite) { this.expireAfterWrite = expireAfterWrite; }
+
+        public Duration getRefreshAfterWrite() { return refreshAfterWrite; }
+        public void setRefreshAfterWrite(Duration refreshAfterWrite) { this.refreshAfterWrite = refreshAfterWrite; }
+    }
+}
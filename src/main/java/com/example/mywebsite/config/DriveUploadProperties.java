@@ -0,0 +1,54 @@
+package com.example.mywebsite.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Настройки загрузки на Google Drive: app.drive.*
+@ConfigurationProperties(prefix = "app.drive")
+public class DriveUploadProperties {
+
+    // Drive принимает части, кратные 256 КиБ
+    public static final int CHUNK_GRANULARITY = 256 * 1024;
+
+    // Файлы от этого размера загружаются по частям (uploadType=resumable)
+    private long resumableThreshold = 5L * 1024 * 1024;
+
+    // Размер части; округляется вверх до кратного 256 КиБ
+    private int chunkSize = 8 * 1024 * 1024;
+
+    // Повторы одной части после сетевой ошибки или 5xx
+    private int maxChunkRetries = 5;
+
+    // За сколько до истечения access token обновляется в фоне
+    private Duration tokenRefreshBefore = Duration.ofMinutes(5);
+
+    // Кэш access token в памяти. Google выдает токен на час; запись уходит из кэша
+    // чуть раньше, даже если фоновое обновление не случилось. Срок должен быть больше
+    // 1 ч - token-refresh-before, иначе запись пропадет до фонового обновления
+    private long tokenCacheMaxSize = 10_000;
+    private Duration tokenCacheExpireAfterWrite = Duration.ofMinutes(58);
+
+    public long getResumableThreshold() { return resumableThreshold; }
+    public void setResumableThreshold(long resumableThreshold) { this.resumableThreshold = resumableThreshold; }
+
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+
+    public int getMaxChunkRetries() { return maxChunkRetries; }
+    public void setMaxChunkRetries(int maxChunkRetries) { this.maxChunkRetries = maxChunkRetries; }
+
+    public Duration getTokenRefreshBefore() { return tokenRefreshBefore; }
+    public void setTokenRefreshBefore(Duration tokenRefreshBefore) { this.tokenRefreshBefore = tokenRefreshBefore; }
+
+    public long getTokenCacheMaxSize() { return tokenCacheMaxSize; }
+    public void setTokenCacheMaxSize(long tokenCacheMaxSize) { this.tokenCacheMaxSize = tokenCacheMaxSize; }
+
+    public Duration getTokenCacheExpireAfterWrite() { return tokenCacheExpireAfterWrite; }
+    public void setTokenCacheExpireAfterWrite(Duration tokenCacheExpireAfterWrite) { this.tokenCacheExpireAfterWrite = tokenCacheExpireAfterWrite; }
+
+    public int getAlignedChunkSize() {
+        int chunks = Math.max(1, (chunkSize + CHUNK_GRANULARITY - 1) / CHUNK_GRANULARITY);
+        return chunks * CHUNK_GRANULARITY;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.mywebsite.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties({ExportJobProperties.class, PdfRenderProperties.class})
+public class ExportConfig {
+
+    // Ограниченный пул для задач выгрузки: при переполненной очереди задача
+    // отклоняется, и ExportJobService оставляет ее в статусе QUEUED для повтора
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor exportJobExecutor(ExportJobProperties properties) {
+        return new ThreadPoolExecutor(
+            properties.getThreads(), properties.getThreads(),
+            60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+            new CustomizableThreadFactory("export-job-"),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Отложенные повторы: поток только ставит задачу обратно в exportJobExecutor
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService exportRetryScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("export-retry-"));
+    }
+
+    // Пул отрисовки PDF для массовых выгрузок. Очередь не ограничена: число задач
+    // в ней ограничивает PdfRenderingEngine (app.pdf.render.max-in-flight)
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor pdfRenderExecutor(PdfRenderProperties properties) {
+        return new ThreadPoolExecutor(
+            properties.getThreads(), properties.getThreads(),
+            60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new CustomizableThreadFactory("pdf-render-"));
+    }
+}
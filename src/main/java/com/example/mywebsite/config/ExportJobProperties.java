@@ -0,0 +1,34 @@
+package com.example.mywebsite.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Настройки очереди выгрузок на Google Drive: app.export.jobs.*
+@ConfigurationProperties(prefix = "app.export.jobs")
+public class ExportJobProperties {
+
+    // Потоки, которые создают файл и загружают его на Drive
+    private int threads = 2;
+
+    // Сколько задач может ждать свободного потока
+    private int queueCapacity = 100;
+
+    // Попыток на задачу, включая первую
+    private int maxAttempts = 3;
+
+    // Пауза перед повтором; удваивается с каждой попыткой
+    private Duration initialBackoff = Duration.ofSeconds(5);
+
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+
+    public Duration getInitialBackoff() { return initialBackoff; }
+    public void setInitialBackoff(Duration initialBackoff) { this.initialBackoff = initialBackoff; }
+}
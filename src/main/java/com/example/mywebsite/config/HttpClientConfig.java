@@ -0,0 +1,68 @@
+package com.example.mywebsite.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Configuration
+@EnableConfigurationProperties({HttpClientProperties.class, DriveUploadProperties.class})
+public class HttpClientConfig {
+
+    // Один пул соединений на все запросы к Google (токены и загрузка на Drive)
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient googleHttpClient(HttpClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(properties.getMaxConnections())
+            .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                .build())
+            .build();
+
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(properties.getIdleEviction()))
+            // Ответы 3xx (например, 308 при загрузке по частям) обрабатываем сами
+            .disableRedirectHandling()
+            .build();
+    }
+
+    // RestTemplate из RestTemplateBuilder: Spring Boot подключает к нему метрики
+    // http.client.requests с тегами по шаблону URI, т.е. отдельно по каждому адресу Google.
+    // В тестах бин можно заменить или направить app.http.google-*-url на заглушку
+    @Bean
+    public RestTemplate googleRestTemplate(RestTemplateBuilder builder,
+                                           @Qualifier("googleHttpClient") CloseableHttpClient googleHttpClient) {
+        return builder
+            .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(googleHttpClient))
+            .build();
+    }
+
+    // Фоновое обновление access token до истечения срока
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService driveTokenScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("drive-token-"));
+    }
+}
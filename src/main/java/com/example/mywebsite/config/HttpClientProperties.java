@@ -0,0 +1,52 @@
+package com.example.mywebsite.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Настройки исходящих HTTP-запросов к Google API: app.http.*
+@ConfigurationProperties(prefix = "app.http")
+public class HttpClientProperties {
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    // Ожидание свободного соединения из пула
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+
+    // Ожидание ответа; загрузка файла на Drive может идти долго
+    private Duration readTimeout = Duration.ofSeconds(60);
+
+    private int maxConnections = 50;
+    private int maxConnectionsPerRoute = 20;
+
+    // Простаивающие соединения закрываются, чтобы не упереться в обрыв со стороны сервера
+    private Duration idleEviction = Duration.ofSeconds(30);
+
+    // URL Google API; в тестах можно указать адрес заглушки
+    private String googleTokenUrl = "https://oauth2.googleapis.com/token";
+    private String googleUploadUrl = "https://www.googleapis.com/upload/drive/v3/files";
+
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+
+    public Duration getConnectionRequestTimeout() { return connectionRequestTimeout; }
+    public void setConnectionRequestTimeout(Duration connectionRequestTimeout) { this.connectionRequestTimeout = connectionRequestTimeout; }
+
+    public Duration getReadTimeout() { return readTimeout; }
+    public void setReadTimeout(Duration readTimeout) { this.readTimeout = readTimeout; }
+
+    public int getMaxConnections() { return maxConnections; }
+    public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+
+    public int getMaxConnectionsPerRoute() { return maxConnectionsPerRoute; }
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) { this.maxConnectionsPerRoute = maxConnectionsPerRoute; }
+
+    public Duration getIdleEviction() { return idleEviction; }
+    public void setIdleEviction(Duration idleEviction) { this.idleEviction = idleEviction; }
+
+    public String getGoogleTokenUrl() { return googleTokenUrl; }
+    public void setGoogleTokenUrl(String googleTokenUrl) { this.googleTokenUrl = googleTokenUrl; }
+
+    public String getGoogleUploadUrl() { return googleUploadUrl; }
+    public void setGoogleUploadUrl(String googleUploadUrl) { this.googleUploadUrl = googleUploadUrl; }
+}
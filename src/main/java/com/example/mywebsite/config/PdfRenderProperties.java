@@ -0,0 +1,23 @@
+package com.example.mywebsite.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Настройки пакетной отрисовки PDF: app.pdf.render.*
+@ConfigurationProperties(prefix = "app.pdf.render")
+public class PdfRenderProperties {
+
+    // Потоки отрисовки; iText нагружает процессор, больше ядер смысла нет
+    private int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    // Сколько PDF одновременно отрисовывается или ждет потока отрисовки во всех выгрузках
+    // сразу; при заполнении чтение данных студентов приостанавливается. Это же окно
+    // ограничивает готовые, но еще не отданные PDF одной выгрузки.
+    // 0 — не задано: threads * 2 от итогового числа потоков
+    private int maxInFlight;
+
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = threads; }
+
+    public int getMaxInFlight() { return maxInFlight > 0 ? maxInFlight : threads * 2; }
+    public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+}
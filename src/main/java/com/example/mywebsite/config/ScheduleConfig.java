@@ -0,0 +1,20 @@
+package com.example.mywebsite.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Configuration
+@EnableConfigurationProperties(ScheduleLiveProperties.class)
+public class ScheduleConfig {
+
+    // Один таймер на все подписки живого расписания: просыпается на границах занятий
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService scheduleLiveScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("schedule-live-"));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.mywebsite.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// Настройки живого расписания (/api/schedule/live): app.schedule.live.*
+@ConfigurationProperties(prefix = "app.schedule.live")
+public class ScheduleLiveProperties {
+
+    // Сколько живет одно SSE-соединение; браузерный EventSource переподключается сам
+    private Duration emitterTimeout = Duration.ofMinutes(30);
+
+    // Как часто отправлять пустой комментарий: прокси не закрывают соединение,
+    // а закрытые вкладки отписываются при ошибке записи
+    private Duration heartbeat = Duration.ofMinutes(5);
+
+    // Открытых соединений на весь сервер; сверх лимита — 503
+    private int maxSubscribers = 10_000;
+
+    public Duration getEmitterTimeout() { return emitterTimeout; }
+    public void setEmitterTimeout(Duration emitterTimeout) { this.emitterTimeout = emitterTimeout; }
+
+    public Duration getHeartbeat() { return heartbeat; }
+    public void setHeartbeat(Duration heartbeat) { this.heartbeat = heartbeat; }
+
+    public int getMaxSubscribers() { return maxSubscribers; }
+    public void setMaxSubscribers(int maxSubscribers) { this.maxSubscribers = maxSubscribers; }
+}
@@ -1,24 +1,56 @@
 package com.example.mywebsite.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
 import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
 import org.springframework.security.web.SecurityFilterChain;
 
 import com.example.mywebsite.controller.OAuth2SuccessHandler;
+import com.example.mywebsite.entity.User;
+import com.example.mywebsite.service.UserService;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(AccessProperties.class)
 public class SecurityConfig {
 
+    @Autowired
+    private UserService userService;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/", "/css/**", "/js/**", "/images/**", "/register", "/api/register", "/login").permitAll()
+                // Выгрузки по всем студентам и служебные списки — только администраторам
+                .requestMatchers("/admin/**", "/api/admin/**").hasRole("ADMIN")
+                // Изменение расписания: создание, правка, удаление и перечитывание
+                .requestMatchers("/api/schedule/slots/**").hasRole("ADMIN")
+                // Полный пересчет статистики читает все оценки и держит блокировку индекса
+                .requestMatchers(HttpMethod.POST, "/api/stats/rebuild").hasRole("ADMIN")
+                // Рейтинг группы и место студента содержат ФИО и средние баллы всех студентов группы;
+                // сводка по предмету — только агрегаты и остается доступной всем
+                .requestMatchers("/api/stats/group/**").hasAnyRole("TEACHER", "ADMIN")
+                // Генерация нагрузочных данных (контроллер есть только в профиле load-test)
+                .requestMatchers("/api/seed/**").hasRole("ADMIN")
+                // Оценки меняют только преподаватели и администраторы
+                .requestMatchers(HttpMethod.POST, "/api/grades/**").hasAnyRole("TEACHER", "ADMIN")
+                .requestMatchers(HttpMethod.PUT, "/api/grades/**").hasAnyRole("TEACHER", "ADMIN")
+                .requestMatchers(HttpMethod.DELETE, "/api/grades/**").hasAnyRole("TEACHER", "ADMIN")
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
@@ -30,6 +62,7 @@ public class SecurityConfig {
             )
             .oauth2Login(oauth2 -> oauth2
                 .loginPage("/login")
+                .userInfoEndpoint(userInfo -> userInfo.userAuthoritiesMapper(oauth2AuthoritiesMapper()))
                 .defaultSuccessUrl("/", true)
                 .failureUrl("/login?error=true")
                 .successHandler(oAuth2SuccessHandler())
@@ -46,6 +79,37 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Вход через Google/GitHub: роли берутся у привязанной учетной записи.
+    // Первый вход еще не привязан — только ROLE_USER до следующего входа
+    private GrantedAuthoritiesMapper oauth2AuthoritiesMapper() {
+        return authorities -> {
+            Set<GrantedAuthority> mapped = new HashSet<>(authorities);
+            mapped.add(new SimpleGrantedAuthority("ROLE_USER"));
+            for (GrantedAuthority authority : authorities) {
+                if (authority instanceof OAuth2UserAuthority oauth2Authority) {
+                    User user = linkedUser(oauth2Authority.getAttributes());
+                    if (user != null) {
+                        for (String role : userService.getRoles(user.getEmail())) {
+                            mapped.add(new SimpleGrantedAuthority("ROLE_" + role));
+                        }
+                    }
+                }
+            }
+            return mapped;
+        };
+    }
+
+    // Google отдает ID в "sub", GitHub — в "id"
+    private User linkedUser(Map<String, Object> attributes) {
+        if (attributes.get("sub") != null) {
+            return userService.findByGoogleId(attributes.get("sub").toString());
+        }
+        if (attributes.get("id") != null) {
+            return userService.findByGithubId(attributes.get("id").toString());
+        }
+        return null;
+    }
+
     @Bean
     public OAuth2SuccessHandler oAuth2SuccessHandler() {
         return new OAuth2SuccessHandler();
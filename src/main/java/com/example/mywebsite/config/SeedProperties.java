@@ -0,0 +1,14 @@
+package com.example.mywebsite.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// Настройки генерации тестовых данных: app.seed.batch-size — сколько строк
+// отправляется в БД одним JDBC-пакетом
+@ConfigurationProperties(prefix = "app.seed")
+public class SeedProperties {
+
+    private int batchSize = 1_000;
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+}
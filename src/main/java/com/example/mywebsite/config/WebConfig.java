@@ -0,0 +1,33 @@
+package com.example.mywebsite.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // Потоковые выгрузки (StreamingResponseBody) по всему факультету идут дольше
+    // стандартных 30 секунд асинхронного запроса Tomcat
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(Duration.ofMinutes(30).toMillis());
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+    }
+
+    // Собственные пулы (кэш, выгрузки) отключают автонастроенный applicationTaskExecutor,
+    // поэтому пул для асинхронных ответов MVC задаем явно
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(32);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("mvc-async-");
+        return executor;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.mywebsite.controller;
+
+import com.example.mywebsite.dto.RenderReport;
+import com.example.mywebsite.service.BulkExportService;
+import com.example.mywebsite.service.PdfRenderingEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+// Массовая выгрузка оценок: группа (?group=ИТ-21) или все студенты (без параметра).
+// Ответ пишется потоком по мере чтения курсора
+@RestController
+@RequestMapping("/admin/export")
+public class AdminExportController {
+
+    @Autowired
+    private BulkExportService bulkExportService;
+
+    @Autowired
+    private PdfRenderingEngine renderingEngine;
+
+    // Один CSV со всеми студентами
+    @GetMapping("/csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv(@RequestParam(required = false) String group) {
+        String groupName = normalize(group);
+        return attachment(bulkExportService.fileName(groupName, BulkExportService.Format.CSV),
+            new MediaType("text", "csv", StandardCharsets.UTF_8),
+            out -> bulkExportService.writeCsv(groupName, out));
+    }
+
+    // ZIP с PDF каждого студента
+    @GetMapping("/pdf")
+    public ResponseEntity<StreamingResponseBody> exportPdfZip(@RequestParam(required = false) String group) {
+        return zip(normalize(group), BulkExportService.Format.PDF);
+    }
+
+    // ZIP с PDF каждого студента и общим CSV
+    @GetMapping("/all")
+    public ResponseEntity<StreamingResponseBody> exportAll(@RequestParam(required = false) String group) {
+        return zip(normalize(group), BulkExportService.Format.ALL);
+    }
+
+    // Зачетки всех студентов с подключенным Google Drive ставятся в очередь загрузки на их Drive.
+    // Отрисовка идет вне потока запроса; ответ — отчет о скорости
+    @PostMapping("/drive")
+    public Callable<RenderReport> publishToDrive(@RequestParam(required = false) String group) {
+        String groupName = normalize(group);
+        return () -> bulkExportService.publishToDrive(groupName);
+    }
+
+    // Последние пакетные отрисовки: число PDF, время, PDF/с
+    @GetMapping("/render-stats")
+    public List<RenderReport> renderStats() {
+        return renderingEngine.getRecentReports();
+    }
+
+    private ResponseEntity<StreamingResponseBody> zip(String group, BulkExportService.Format format) {
+        return attachment(bulkExportService.fileName(group, format),
+            MediaType.parseMediaType("application/zip"),
+            out -> bulkExportService.writeZip(group, format, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> attachment(String fileName, MediaType type,
+                                                             StreamingResponseBody body) {
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName, StandardCharsets.UTF_8).build().toString())
+            .contentType(type)
+            .body(body);
+    }
+
+    private String normalize(String group) {
+        return group == null || group.isBlank() ? null : group.trim();
+    }
+}
@@ -4,8 +4,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
 import org.springframework.web.bind.annotation.*;
 import com.example.mywebsite.service.GradeService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -24,9 +26,20 @@ public class CacheController {
         
         cacheManager.getCacheNames().forEach(cacheName -> {
             org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
-            if (cache != null) {
-                Object nativeCache = cache.getNativeCache();
-                stats.put(cacheName, nativeCache.getClass().getSimpleName());
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeineCache) {
+                CacheStats cacheStats = caffeineCache.stats();
+                
+                Map<String, Object> cacheInfo = new LinkedHashMap<>();
+                cacheInfo.put("size", caffeineCache.estimatedSize());
+                cacheInfo.put("hitCount", cacheStats.hitCount());
+                cacheInfo.put("missCount", cacheStats.missCount());
+                cacheInfo.put("hitRate", String.format("%.3f", cacheStats.hitRate()));
+                cacheInfo.put("evictionCount", cacheStats.evictionCount());
+                cacheInfo.put("loadSuccessCount", cacheStats.loadSuccessCount());
+                cacheInfo.put("loadFailureCount", cacheStats.loadFailureCount());
+                cacheInfo.put("averageLoadPenaltyMs", String.format("%.3f", cacheStats.averageLoadPenalty() / 1_000_000.0));
+                cacheInfo.put("totalLoadTimeMs", cacheStats.totalLoadTime() / 1_000_000);
+                stats.put(cacheName, cacheInfo);
             }
         });
         
@@ -1,20 +1,28 @@
 package com.example.mywebsite.controller;
 
+import com.example.mywebsite.dto.ExportJob;
+import com.example.mywebsite.dto.StudentDashboard;
 import com.example.mywebsite.service.CsvExportService;
+import com.example.mywebsite.service.ExportJobService;
 import com.example.mywebsite.service.GoogleDriveService;
+import com.example.mywebsite.service.GradeService;
 import com.example.mywebsite.service.PdfExportService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -30,6 +38,12 @@ public class ExportController {
 
     @Autowired
     private CsvExportService csvExportService;
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private GradeService gradeService;
     
     // Страница управления экспортом
     @GetMapping("/drive")
@@ -60,56 +74,11 @@ public class ExportController {
         }
     }
     
-    // Инициировать выгрузку на Google Drive
+    // Инициировать выгрузку PDF на Google Drive: задача ставится в очередь,
+    // статус страница опрашивает через /export/jobs/{id}
     @PostMapping("/drive/upload")
     public String uploadToDrive(RedirectAttributes redirectAttributes) {
-        try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            String email = auth.getName();
-            
-            // Проверяем доступ к Drive
-            if (!googleDriveService.hasDriveAccess(email)) {
-                redirectAttributes.addFlashAttribute("error", 
-                    "Требуется авторизация в Google Drive. Сначала подключите аккаунт.");
-                return "redirect:/export/drive";
-            }
-            
-            // Создаем PDF
-            byte[] pdfContent = pdfExportService.createGradesPdf(email);
-            if (pdfContent == null || pdfContent.length == 0) {
-                redirectAttributes.addFlashAttribute("error", 
-                    "Ошибка при создании PDF документа");
-                return "redirect:/export/drive";
-            }
-            
-            // Генерируем имя файла
-            String fileName = String.format("Оценки_%s_%s.pdf", 
-                email.replace("@", "_"),
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"))
-            );
-            
-            // Загружаем на Google Drive
-            Map<String, String> result = googleDriveService.uploadToDrive(email, pdfContent, fileName);
-            
-            if (result != null && "true".equals(result.get("success"))) {
-                redirectAttributes.addFlashAttribute("success", 
-                    "Файл успешно загружен на Google Drive!");
-                redirectAttributes.addFlashAttribute("fileUrl", result.get("fileUrl"));
-                redirectAttributes.addFlashAttribute("fileName", result.get("fileName"));
-            } else {
-                String error = result != null ? result.get("error") : "Неизвестная ошибка";
-                redirectAttributes.addFlashAttribute("error", 
-                    "Ошибка при загрузке на Google Drive: " + error);
-            }
-            
-        } catch (Exception e) {
-            System.err.println("Ошибка при выгрузке на Drive: " + e.getMessage());
-            e.printStackTrace();
-            redirectAttributes.addFlashAttribute("error", 
-                "Внутренняя ошибка: " + e.getMessage());
-        }
-        
-        return "redirect:/export/drive";
+        return enqueueUpload(ExportJobService.Format.PDF, redirectAttributes);
     }
     
     // Отозвать доступ к Google Drive
@@ -136,78 +105,93 @@ public class ExportController {
         return "redirect:/export/drive";
     }
     
-    // Скачать PDF локально (для тестирования)
+    // Скачать PDF локально (для тестирования).
+    // ETag — отпечаток данных PDF: если он совпал с If-None-Match, отвечаем 304 без отрисовки
     @GetMapping("/download/pdf")
-    @ResponseBody
-    public byte[] downloadPdf() {
+    public ResponseEntity<byte[]> downloadPdf(WebRequest request) {
         try {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
             String email = auth.getName();
             
-            byte[] pdf = pdfExportService.createGradesPdf(email);
+            StudentDashboard dashboard = gradeService.getStudentDashboard(email);
+            String etag = pdfExportService.fingerprint(dashboard, email);
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            
+            byte[] pdf = pdfExportService.getGradesPdf(dashboard, email, etag);
             if (pdf != null && pdf.length > 0) {
-                return pdf;
+                return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .body(pdf);
             }
-            return "Ошибка при создании PDF".getBytes();
+            return ResponseEntity.internalServerError().body("Ошибка при создании PDF".getBytes(StandardCharsets.UTF_8));
         } catch (Exception e) {
             System.err.println("Ошибка в downloadPdf: " + e.getMessage());
-            return ("Ошибка: " + e.getMessage()).getBytes();
+            return ResponseEntity.internalServerError().body(("Ошибка: " + e.getMessage()).getBytes(StandardCharsets.UTF_8));
         }
     }
 
+    // CSV пишется прямо в ответ по мере формирования
     @GetMapping("/download/csv")
-    @ResponseBody
-    public ResponseEntity<byte[]> downloadCsv() {
+    public ResponseEntity<StreamingResponseBody> downloadCsv() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String email = auth.getName();
         
-        try {
-            byte[] csvContent = csvExportService.createCsvReport(email);
-            String fileName = csvExportService.getCsvFileName(email);
-            
-            return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
-                .header("Content-Type", "text/csv; charset=UTF-8")
-                .body(csvContent);
-                
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(("Error: " + e.getMessage()).getBytes());
-        }
+        String fileName = csvExportService.getCsvFileName(email);
+        StreamingResponseBody body = out -> csvExportService.writeCsvReport(email, out);
+        return csvResponse(fileName, body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> csvResponse(String fileName, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(fileName, StandardCharsets.UTF_8).build().toString())
+            .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .body(body);
     }
     
     // Новый метод для загрузки CSV на Google Drive
     @PostMapping("/drive/upload-csv")
     public String uploadCsvToDrive(RedirectAttributes redirectAttributes) {
+        return enqueueUpload(ExportJobService.Format.CSV, redirectAttributes);
+    }
+
+    // Статус задачи выгрузки (для опроса со страницы)
+    @GetMapping("/jobs/{id}")
+    @ResponseBody
+    public ResponseEntity<?> getJob(@PathVariable int id) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName();
-        
+        ExportJob job = exportJobService.getJob(id, auth.getName());
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    private String enqueueUpload(ExportJobService.Format format, RedirectAttributes redirectAttributes) {
         try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            String email = auth.getName();
+            
             // Проверяем доступ к Drive
             if (!googleDriveService.hasDriveAccess(email)) {
                 redirectAttributes.addFlashAttribute("error", 
-                    "Требуется авторизация в Google Drive");
+                    "Требуется авторизация в Google Drive. Сначала подключите аккаунт.");
                 return "redirect:/export/drive";
             }
             
-            // Создаем CSV
-            byte[] csvContent = csvExportService.createCsvReport(email);
-            String fileName = csvExportService.getCsvFileName(email);
-            
-            // Загружаем на Google Drive
-            Map<String, String> result = googleDriveService.uploadToDrive(email, csvContent, fileName);
-            
-            if ("true".equals(result.get("success"))) {
-                redirectAttributes.addFlashAttribute("success", 
-                    "CSV файл успешно загружен на Google Drive!");
-                redirectAttributes.addFlashAttribute("fileUrl", result.get("fileUrl"));
-                redirectAttributes.addFlashAttribute("fileName", result.get("fileName"));
+            ExportJob job = exportJobService.enqueue(email, format);
+            if (job == null) {
+                redirectAttributes.addFlashAttribute("error", "Пользователь не найден");
             } else {
-                redirectAttributes.addFlashAttribute("error", 
-                    "Ошибка при загрузке CSV: " + result.get("error"));
+                redirectAttributes.addFlashAttribute("success", 
+                    "Файл " + job.fileName() + " поставлен в очередь на загрузку. Статус обновится ниже.");
             }
-            
         } catch (Exception e) {
+            System.err.println("Ошибка при постановке выгрузки в очередь: " + e.getMessage());
             redirectAttributes.addFlashAttribute("error", 
                 "Внутренняя ошибка: " + e.getMessage());
         }
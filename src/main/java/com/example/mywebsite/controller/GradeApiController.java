@@ -0,0 +1,76 @@
+package com.example.mywebsite.controller;
+
+import com.example.mywebsite.dto.GradeRecord;
+import com.example.mywebsite.service.GradeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+// API изменения оценок; кэши студента сбрасываются автоматически по GradeChangedEvent
+@RestController
+@RequestMapping("/api/grades")
+public class GradeApiController {
+
+    @Autowired
+    private GradeService gradeService;
+
+    @PostMapping
+    public ResponseEntity<?> createGrade(@RequestParam int studentId,
+                                         @RequestParam int subjectId,
+                                         @RequestParam int grade,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate examDate) {
+        try {
+            GradeRecord created = gradeService.createGrade(studentId, subjectId, grade, examDate);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("Ошибка при добавлении оценки: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Не удалось добавить оценку"));
+        }
+    }
+
+    // Без examDate дата экзамена не меняется
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateGrade(@PathVariable int id,
+                                         @RequestParam int grade,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate examDate) {
+        try {
+            GradeRecord updated = gradeService.updateGrade(id, grade, examDate);
+            if (updated == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Оценка не найдена: " + id));
+            }
+            return ResponseEntity.ok(updated);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("Ошибка при изменении оценки: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Не удалось изменить оценку"));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteGrade(@PathVariable int id) {
+        try {
+            if (!gradeService.deleteGrade(id)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Оценка не найдена: " + id));
+            }
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            System.err.println("Ошибка при удалении оценки: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Не удалось удалить оценку"));
+        }
+    }
+}
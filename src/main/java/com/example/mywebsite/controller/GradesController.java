@@ -1,13 +1,24 @@
 package com.example.mywebsite.controller;
 
+import com.example.mywebsite.dto.GradeRow;
+import com.example.mywebsite.dto.GradeStats;
+import com.example.mywebsite.dto.StudentDashboard;
+import com.example.mywebsite.dto.StudentInfo;
+import com.example.mywebsite.dto.UserStudentPage;
+import com.example.mywebsite.dto.UserStudentQuery;
+import com.example.mywebsite.dto.UserStudentRow;
+import com.example.mywebsite.service.GradeAggregateIndex;
 import com.example.mywebsite.service.GradeService;
 import com.example.mywebsite.service.DatabaseService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.HtmlUtils;
 
 import java.util.*;
 
@@ -20,6 +31,9 @@ public class GradesController {
     @Autowired
     private DatabaseService databaseService;
 
+    @Autowired
+    private GradeAggregateIndex gradeAggregateIndex;
+
     @GetMapping("/grades")
     public String grades(Model model) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -28,105 +42,113 @@ public class GradesController {
         System.out.println("Запрос оценок для пользователя: " + username);
         long startTime = System.currentTimeMillis();
         
-        // Получаем данные по email пользователя
-        List<Map<String, Object>> grades = gradeService.getStudentGrades(username);
-        Double averageGrade = gradeService.getAverageGrade(username);
-        Map<String, Object> studentInfo = gradeService.getStudentInfo(username);
+        // Получаем все данные одним запросом (или из кэша)
+        StudentDashboard dashboard = gradeService.getStudentDashboard(username);
         
         long endTime = System.currentTimeMillis();
         System.out.println("Время выполнения: " + (endTime - startTime) + "мс");
         System.out.println("=== Конец запроса ===");
 
-        // Подготавливаем данные для диаграммы
-        Map<String, Object> chartData = prepareChartData(grades);
+        // Статистика посчитана при загрузке дашборда и закэширована вместе с ним
+        GradeStats stats = dashboard.stats();
         
         model.addAttribute("username", username);
-        model.addAttribute("grades", grades);
-        model.addAttribute("averageGrade", averageGrade != null ? 
-            String.format("%.2f", averageGrade) : "Нет данных");
-        model.addAttribute("studentInfo", studentInfo);
-        model.addAttribute("gradesCount", grades.size());
-        model.addAttribute("chartData", chartData);
+        model.addAttribute("grades", dashboard.grades());
+        model.addAttribute("averageGrade", stats.mean() != null ? 
+            String.format("%.2f", stats.mean()) : "Нет данных");
+        model.addAttribute("studentInfo", dashboard.studentInfo());
+        model.addAttribute("gradesCount", stats.count());
+        model.addAttribute("chartData", stats);
         
         return "grades";
     }
 
-    private Map<String, Object> prepareChartData(List<Map<String, Object>> grades) {
-        Map<String, Object> chartData = new HashMap<>();
-        
-        int excellent = 0;
-        int good = 0;
-        int satisfactory = 0;
-        int unsatisfactory = 0;
-        
-        for (Map<String, Object> grade : grades) {
-            Integer gradeValue = (Integer) grade.get("grade");
-            if (gradeValue != null) {
-                if (gradeValue >= 90) {
-                    excellent++;
-                } else if (gradeValue >= 75) {
-                    good++;
-                } else if (gradeValue >= 60) {
-                    satisfactory++;
-                } else {
-                    unsatisfactory++;
-                }
-            }
+    // Страница для просмотра пользователей и студентов: по страницам, с сортировкой и фильтрами
+    @GetMapping("/admin/users-students")
+    public String usersStudents(@RequestParam(required = false) String sort,
+                                @RequestParam(required = false) String dir,
+                                @RequestParam(required = false) String group,
+                                @RequestParam(required = false) String email,
+                                @RequestParam(required = false) Integer minGrades,
+                                @RequestParam(required = false) String after,
+                                @RequestParam(required = false) Integer limit,
+                                Model model) {
+        UserStudentQuery query;
+        try {
+            query = UserStudentQuery.of(sort, dir, group, email, minGrades, after, limit);
+        } catch (IllegalArgumentException e) {
+            // Испорченная ссылка: показываем первую страницу без фильтров
+            model.addAttribute("error", e.getMessage());
+            query = UserStudentQuery.of(null, null, null, null, null, null, null);
         }
-        
-        chartData.put("excellent", excellent);
-        chartData.put("good", good);
-        chartData.put("satisfactory", satisfactory);
-        chartData.put("unsatisfactory", unsatisfactory);
-        
-        int total = excellent + good + satisfactory + unsatisfactory;
-        if (total > 0) {
-            chartData.put("percentageExcellent", String.format("%.1f", (excellent * 100.0 / total)));
-            chartData.put("percentageGood", String.format("%.1f", (good * 100.0 / total)));
-            chartData.put("percentageSatisfactory", String.format("%.1f", (satisfactory * 100.0 / total)));
-            chartData.put("percentageUnsatisfactory", String.format("%.1f", (unsatisfactory * 100.0 / total)));
-        } else {
-            chartData.put("percentageExcellent", "0.0");
-            chartData.put("percentageGood", "0.0");
-            chartData.put("percentageSatisfactory", "0.0");
-            chartData.put("percentageUnsatisfactory", "0.0");
+
+        model.addAttribute("query", query);
+        try {
+            model.addAttribute("page", databaseService.getUsersWithStudents(query));
+        } catch (Exception e) {
+            System.err.println("Ошибка при получении пользователей со студентами: " + e.getMessage());
+            model.addAttribute("error", "Не удалось получить список пользователей");
+            model.addAttribute("page", new UserStudentPage(List.of(), null, query.limit()));
         }
-        
-        return chartData;
+        model.addAttribute("summary", databaseService.getUserStudentSummary());
+        return "users-students";
     }
 
-    // Страница для просмотра всех пользователей и студентов
-    @GetMapping("/admin/users-students")
-    public String usersStudents(Model model) {
-        List<Map<String, Object>> usersWithStudents = databaseService.getAllUsersWithStudents();
-        model.addAttribute("users", usersWithStudents);
-        return "users-students";
+    // То же в JSON для админки
+    @GetMapping("/api/admin/users-students")
+    @ResponseBody
+    public ResponseEntity<?> usersStudentsJson(@RequestParam(required = false) String sort,
+                                               @RequestParam(required = false) String dir,
+                                               @RequestParam(required = false) String group,
+                                               @RequestParam(required = false) String email,
+                                               @RequestParam(required = false) Integer minGrades,
+                                               @RequestParam(required = false) String after,
+                                               @RequestParam(required = false) Integer limit) {
+        try {
+            UserStudentQuery query = UserStudentQuery.of(sort, dir, group, email, minGrades, after, limit);
+            return ResponseEntity.ok(databaseService.getUsersWithStudents(query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("Ошибка при получении пользователей со студентами: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Не удалось получить список пользователей"));
+        }
     }
 
-    // API для отладки
+    // API для отладки: список по страницам
     @GetMapping("/debug/users-students")
     @ResponseBody
-    public String debugUsersStudents() {
-        databaseService.debugUserStudentRelations();
-        
+    public String debugUsersStudents(@RequestParam(required = false) String after) {
+        UserStudentPage page;
+        try {
+            page = databaseService.getUsersWithStudents(UserStudentQuery.of(null, null, null, null, null, after, null));
+        } catch (IllegalArgumentException e) {
+            return "<h1>Отладка: Пользователи и студенты</h1><p>" + HtmlUtils.htmlEscape(e.getMessage()) + "</p>";
+        } catch (Exception e) {
+            System.err.println("Ошибка при получении пользователей со студентами: " + e.getMessage());
+            return "<h1>Отладка: Пользователи и студенты</h1><p>Не удалось получить список пользователей</p>";
+        }
+
         StringBuilder result = new StringBuilder();
         result.append("<h1>Отладка: Пользователи и студенты</h1>");
         
-        List<Map<String, Object>> users = databaseService.getAllUsersWithStudents();
-        
         result.append("<table border='1' cellpadding='10'>");
         result.append("<tr><th>Email</th><th>ФИО студента</th><th>Группа</th><th>Оценок</th></tr>");
         
-        for (Map<String, Object> user : users) {
+        for (UserStudentRow user : page.items()) {
             result.append("<tr>");
-            result.append("<td>").append(user.get("email")).append("</td>");
-            result.append("<td>").append(user.get("student_name")).append("</td>");
-            result.append("<td>").append(user.get("student_group")).append("</td>");
-            result.append("<td>").append(user.get("grades_count")).append("</td>");
+            result.append("<td>").append(HtmlUtils.htmlEscape(user.email())).append("</td>");
+            result.append("<td>").append(user.hasStudent() ? HtmlUtils.htmlEscape(user.studentName()) : "Не назначен").append("</td>");
+            result.append("<td>").append(user.studentGroup() != null ? HtmlUtils.htmlEscape(user.studentGroup()) : "Не назначена").append("</td>");
+            result.append("<td>").append(user.gradesCount()).append("</td>");
             result.append("</tr>");
         }
         
         result.append("</table>");
+        if (page.hasMore()) {
+            result.append("<br><a href='/debug/users-students?after=").append(page.nextCursor()).append("'>Следующая страница</a>");
+        }
         result.append("<br><a href='/api/recreate-test-data'>Пересоздать тестовые данные</a><br>");
         result.append("<a href='/grades'>Вернуться к оценкам</a>");
         
@@ -138,6 +160,8 @@ public class GradesController {
     @ResponseBody
     public String recreateTestData() {
         databaseService.recreateTestData();
+        gradeService.clearAllCaches();
+        gradeAggregateIndex.rebuild();
         return "Тестовые данные пересозданы! <a href='/grades'>Посмотреть оценки</a>";
     }
 
@@ -150,8 +174,8 @@ public class GradesController {
         
         Integer userId = databaseService.getUserIdByEmail(email);
         Integer studentId = databaseService.getStudentIdByUserEmail(email);
-        Map<String, Object> studentInfo = gradeService.getStudentInfo(email);
-        List<Map<String, Object>> grades = gradeService.getStudentGrades(email);
+        StudentInfo studentInfo = gradeService.getStudentInfo(email);
+        List<GradeRow> grades = gradeService.getStudentGrades(email);
         Double average = gradeService.getAverageGrade(email);
         
         StringBuilder result = new StringBuilder();
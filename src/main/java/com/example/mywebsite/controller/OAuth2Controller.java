@@ -89,17 +89,8 @@ public class OAuth2Controller {
                                     @RequestParam String providerId,
                                     Authentication authentication) {
         
-        String currentEmail = authentication.getName();
-        // Если currentEmail это ID, ищем реальный email
-        if (currentEmail.matches("\\d+")) {
-            User user = userService.findByGoogleId(currentEmail);
-            if (user == null) {
-                user = userService.findByGithubId(currentEmail);
-            }
-            if (user != null) {
-                currentEmail = user.getEmail();
-            }
-        }
+        // Если имя это ID, ищем реальный email
+        String currentEmail = userService.resolveEmail(authentication.getName());
         
         StringBuilder result = new StringBuilder();
         
@@ -0,0 +1,84 @@
+package com.example.mywebsite.controller;
+
+import com.example.mywebsite.dto.ScheduleSlot;
+import com.example.mywebsite.service.ScheduleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// API изменения расписания; снимок расписания в памяти сбрасывается при каждой записи
+@RestController
+@RequestMapping("/api/schedule/slots")
+public class ScheduleApiController {
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @PostMapping
+    public ResponseEntity<?> createSlot(@RequestParam String day,
+                                        @RequestParam String timeSlot,
+                                        @RequestParam String subjectName,
+                                        @RequestParam(required = false) String room,
+                                        @RequestParam(required = false) String teacher,
+                                        @RequestParam(required = false) String groupName) {
+        try {
+            ScheduleSlot created = scheduleService.createSlot(day, timeSlot, subjectName, room, teacher, groupName);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("Ошибка при добавлении занятия: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Не удалось добавить занятие"));
+        }
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateSlot(@PathVariable int id,
+                                        @RequestParam String day,
+                                        @RequestParam String timeSlot,
+                                        @RequestParam String subjectName,
+                                        @RequestParam(required = false) String room,
+                                        @RequestParam(required = false) String teacher,
+                                        @RequestParam(required = false) String groupName) {
+        try {
+            ScheduleSlot updated = scheduleService.updateSlot(id, day, timeSlot, subjectName, room, teacher, groupName);
+            if (updated == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Занятие не найдено: " + id));
+            }
+            return ResponseEntity.ok(updated);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            System.err.println("Ошибка при изменении занятия: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Не удалось изменить занятие"));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteSlot(@PathVariable int id) {
+        try {
+            if (!scheduleService.deleteSlot(id)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Занятие не найдено: " + id));
+            }
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            System.err.println("Ошибка при удалении занятия: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Не удалось удалить занятие"));
+        }
+    }
+
+    // Перечитать расписание, если таблицу меняли напрямую в БД
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh() {
+        scheduleService.invalidate();
+        return ResponseEntity.ok(scheduleService.getScheduleStats());
+    }
+}
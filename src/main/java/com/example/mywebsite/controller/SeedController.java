@@ -0,0 +1,50 @@
+package com.example.mywebsite.controller;
+
+import com.example.mywebsite.service.BulkSeedService;
+import com.example.mywebsite.service.GradeAggregateIndex;
+import com.example.mywebsite.service.GradeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// Генерация данных для нагрузочных тестов (пакетная вставка, размер пакета — app.seed.batch-size).
+// Создает рабочие учетные записи loadN@seed.local с общим паролем, поэтому
+// контроллер есть только в профиле load-test и доступен только администратору
+@RestController
+@Profile("load-test")
+@RequestMapping("/api/seed")
+public class SeedController {
+
+    @Autowired
+    private BulkSeedService bulkSeedService;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private GradeAggregateIndex gradeAggregateIndex;
+
+    @PostMapping("/load")
+    public ResponseEntity<?> seedLoadTestData(@RequestParam(defaultValue = "1000") int students,
+                                              @RequestParam(defaultValue = "10") int subjects) {
+        if (students < 0 || subjects < 1) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "students должен быть >= 0, subjects >= 1"));
+        }
+        try {
+            Map<String, Object> result = bulkSeedService.seedLoadTestData(students, subjects);
+            gradeService.clearAllCaches();
+            // Пакетная вставка идет мимо GradeChangedEvent
+            gradeAggregateIndex.rebuild();
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            System.err.println("Ошибка при генерации тестовых данных: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Не удалось сгенерировать данные"));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.mywebsite.controller;
+
+import com.example.mywebsite.service.StartupOrchestrator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+// Время шагов инициализации при последнем запуске
+@RestController
+@RequestMapping("/api/startup")
+public class StartupController {
+
+    @Autowired
+    private StartupOrchestrator startupOrchestrator;
+
+    @GetMapping("/timings")
+    public Map<String, Object> getTimings() {
+        return startupOrchestrator.getReport();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.mywebsite.controller;
+
+import com.example.mywebsite.dto.GroupStats;
+import com.example.mywebsite.dto.StudentRank;
+import com.example.mywebsite.dto.SubjectStats;
+import com.example.mywebsite.service.GradeAggregateIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// Сводки по группам и предметам из GradeAggregateIndex, без запросов к БД.
+// Сводки по группам (с рейтингом студентов) — только преподавателям и администраторам, см. SecurityConfig
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    @Autowired
+    private GradeAggregateIndex gradeAggregateIndex;
+
+    // top — сколько первых мест рейтинга вернуть (по умолчанию весь рейтинг)
+    @GetMapping("/group/{name}")
+    public ResponseEntity<?> groupStats(@PathVariable String name,
+                                        @RequestParam(required = false) Integer top) {
+        if (!gradeAggregateIndex.isReady()) {
+            return notReady();
+        }
+        GroupStats stats = gradeAggregateIndex.getGroup(name);
+        if (stats == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Группа не найдена: " + name));
+        }
+        if (top != null && top >= 0 && top < stats.leaderboard().size()) {
+            stats = new GroupStats(stats.group(), stats.students(), stats.stats(),
+                stats.leaderboard().subList(0, top));
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/group/{name}/students/{studentId}")
+    public ResponseEntity<?> studentRank(@PathVariable String name, @PathVariable int studentId) {
+        if (!gradeAggregateIndex.isReady()) {
+            return notReady();
+        }
+        StudentRank rank = gradeAggregateIndex.getStudentRank(name, studentId);
+        if (rank == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Студент " + studentId + " не найден в группе " + name));
+        }
+        return ResponseEntity.ok(rank);
+    }
+
+    @GetMapping("/subject/{id}")
+    public ResponseEntity<?> subjectStats(@PathVariable int id) {
+        if (!gradeAggregateIndex.isReady()) {
+            return notReady();
+        }
+        SubjectStats stats = gradeAggregateIndex.getSubject(id);
+        if (stats == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Предмет не найден: " + id));
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    // Полное перестроение сводок, если данные менялись напрямую в БД
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        try {
+            return ResponseEntity.ok(gradeAggregateIndex.rebuild());
+        } catch (Exception e) {
+            System.err.println("Ошибка при перестроении сводок: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Не удалось перестроить сводки"));
+        }
+    }
+
+    private ResponseEntity<?> notReady() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .body(Map.of("error", "Сводки еще строятся"));
+    }
+}
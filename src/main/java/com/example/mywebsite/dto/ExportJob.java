@@ -0,0 +1,28 @@
+package com.example.mywebsite.dto;
+
+import java.time.LocalDateTime;
+
+// Задача выгрузки на Google Drive (строка export_history).
+// Статусы: QUEUED -> RUNNING -> SUCCESS | ERROR; при временной ошибке снова QUEUED
+public record ExportJob(
+        int id,
+        int userId,
+        String email,
+        String format,
+        String fileName,
+        String status,
+        int attempts,
+        String fileUrl,
+        String errorMessage,
+        LocalDateTime exportDate,
+        LocalDateTime updatedDate) {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String SUCCESS = "SUCCESS";
+    public static final String ERROR = "ERROR";
+
+    public boolean isFinished() {
+        return SUCCESS.equals(status) || ERROR.equals(status);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.mywebsite.dto;
+
+import java.time.LocalDate;
+
+// Оценка вместе с владельцем (студент, пользователь, группа) для операций записи
+public record GradeRecord(
+        int id,
+        int studentId,
+        int subjectId,
+        int grade,
+        LocalDate examDate,
+        Integer userId,
+        String userEmail,
+        String groupName) {
+}
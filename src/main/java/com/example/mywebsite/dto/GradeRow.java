@@ -0,0 +1,11 @@
+package com.example.mywebsite.dto;
+
+import java.time.LocalDate;
+
+// Одна оценка студента (строка таблицы на странице /grades и в экспорте)
+public record GradeRow(
+        String subjectName,
+        String description,
+        int grade,
+        LocalDate examDate) {
+}
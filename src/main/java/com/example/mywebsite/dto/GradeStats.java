@@ -0,0 +1,46 @@
+package com.example.mywebsite.dto;
+
+import java.util.List;
+
+// Статистика по набору оценок (студент, группа или предмет): считается один раз
+// в GradeStatistics и используется страницей оценок, PDF и CSV.
+// mean/median/stddev/min/max равны null, если оценок нет
+public record GradeStats(
+        int count,
+        Double mean,
+        Double median,
+        Double stddev,
+        Integer min,
+        Integer max,
+        int excellent,
+        int good,
+        int satisfactory,
+        int unsatisfactory,
+        List<SubjectTrend> subjects) {
+
+    public static final GradeStats EMPTY =
+        new GradeStats(0, null, null, null, null, null, 0, 0, 0, 0, List.of());
+
+    // Доля категории в процентах, строкой с одним знаком после запятой
+    public String percentage(int bucketCount) {
+        return String.format("%.1f", count > 0 ? bucketCount * 100.0 / count : 0.0);
+    }
+
+    public String percentageExcellent() { return percentage(excellent); }
+    public String percentageGood() { return percentage(good); }
+    public String percentageSatisfactory() { return percentage(satisfactory); }
+    public String percentageUnsatisfactory() { return percentage(unsatisfactory); }
+
+    // Динамика по предмету: первая и последняя по дате экзамена оценки
+    public record SubjectTrend(
+            String subject,
+            int count,
+            double mean,
+            int first,
+            int latest) {
+
+        public int change() {
+            return latest - first;
+        }
+    }
+}
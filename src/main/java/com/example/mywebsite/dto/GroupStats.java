@@ -0,0 +1,11 @@
+package com.example.mywebsite.dto;
+
+import java.util.List;
+
+// Сводка по группе: распределение всех оценок и рейтинг студентов по среднему баллу
+public record GroupStats(
+        String group,
+        int students,
+        GradeStats stats,
+        List<StudentRank> leaderboard) {
+}
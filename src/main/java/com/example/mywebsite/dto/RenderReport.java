@@ -0,0 +1,17 @@
+package com.example.mywebsite.dto;
+
+import java.time.LocalDateTime;
+
+// Итог пакетной отрисовки PDF: сколько документов, за какое время и с какой скоростью.
+// renderMs — суммарное время отрисовки во всех потоках; renderMs / elapsedMs
+// показывает, насколько пул был загружен
+public record RenderReport(
+        String name,
+        int documents,
+        int failed,
+        long bytes,
+        long elapsedMs,
+        long renderMs,
+        double documentsPerSecond,
+        LocalDateTime finishedAt) {
+}
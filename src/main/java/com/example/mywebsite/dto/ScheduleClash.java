@@ -0,0 +1,13 @@
+package com.example.mywebsite.dto;
+
+// Пересечение занятий по времени: одна аудитория (ROOM) или один преподаватель (TEACHER)
+// в один день. key — номер аудитории или имя преподавателя
+public record ScheduleClash(
+        Type type,
+        String day,
+        String key,
+        ScheduleSlot first,
+        ScheduleSlot second) {
+
+    public enum Type { ROOM, TEACHER }
+}
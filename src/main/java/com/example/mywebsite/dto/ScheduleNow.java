@@ -0,0 +1,13 @@
+package com.example.mywebsite.dto;
+
+// Что идет сейчас и что дальше. group = null — по всем группам.
+// next может быть в другой день (nextDay); minutesUntilNext считается с учетом дней
+public record ScheduleNow(
+        String group,
+        String day,
+        String time,
+        ScheduleSlot current,
+        ScheduleSlot next,
+        String nextDay,
+        Integer minutesUntilNext) {
+}
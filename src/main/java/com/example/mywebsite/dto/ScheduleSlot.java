@@ -0,0 +1,74 @@
+package com.example.mywebsite.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.DayOfWeek;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Одно занятие из расписания; в JSON сохраняем прежние имена колонок.
+// isoDay (1 — понедельник) и минуты начала и конца — разобранные day_of_week и time_slot,
+// по ним идут сортировка и поиск текущего занятия. 0 и -1 — строку разобрать не удалось
+public record ScheduleSlot(
+        int id,
+        @JsonProperty("day_of_week") String dayOfWeek,
+        @JsonProperty("time_slot") String timeSlot,
+        @JsonProperty("subject_name") String subjectName,
+        String room,
+        String teacher,
+        @JsonProperty("group_name") String groupName,
+        @JsonProperty("iso_day") int isoDay,
+        @JsonProperty("start_minute") int startMinute,
+        @JsonProperty("end_minute") int endMinute) {
+
+    // Названия дней в колонке day_of_week
+    private static final Map<DayOfWeek, String> DAY_NAMES = new EnumMap<>(Map.of(
+        DayOfWeek.MONDAY, "Понедельник",
+        DayOfWeek.TUESDAY, "Вторник",
+        DayOfWeek.WEDNESDAY, "Среда",
+        DayOfWeek.THURSDAY, "Четверг",
+        DayOfWeek.FRIDAY, "Пятница",
+        DayOfWeek.SATURDAY, "Суббота",
+        DayOfWeek.SUNDAY, "Воскресенье"
+    ));
+
+    private static final Map<String, DayOfWeek> DAYS_BY_NAME = new HashMap<>();
+
+    static {
+        DAY_NAMES.forEach((day, name) -> DAYS_BY_NAME.put(name.toLowerCase(Locale.ROOT), day));
+        for (DayOfWeek day : DayOfWeek.values()) {
+            DAYS_BY_NAME.put(day.name().toLowerCase(Locale.ROOT), day);
+        }
+    }
+
+    // Занятие из строк day_of_week и time_slot, например при записи
+    public static ScheduleSlot of(int id, String dayOfWeek, String timeSlot, String subjectName,
+                                  String room, String teacher, String groupName) {
+        DayOfWeek day = parseDay(dayOfWeek);
+        TimeSlot time = TimeSlot.tryParse(timeSlot);
+        return new ScheduleSlot(id, dayOfWeek, timeSlot, subjectName, room, teacher, groupName,
+            day != null ? day.getValue() : 0,
+            time != null ? time.startMinute() : -1,
+            time != null ? time.endMinute() : -1);
+    }
+
+    // null — день не разобран
+    public DayOfWeek day() {
+        return isoDay >= 1 && isoDay <= 7 ? DayOfWeek.of(isoDay) : null;
+    }
+
+    public boolean hasTime() {
+        return startMinute >= 0 && endMinute > startMinute;
+    }
+
+    // Русское название дня или имя константы DayOfWeek; null — не день недели
+    public static DayOfWeek parseDay(String name) {
+        return name != null ? DAYS_BY_NAME.get(name.trim().toLowerCase(Locale.ROOT)) : null;
+    }
+
+    public static String dayName(DayOfWeek day) {
+        return DAY_NAMES.get(day);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.mywebsite.dto;
+
+// Шаг инициализации при запуске: смещение старта от начала запуска, длительность и итог
+public record StartupStep(
+        String name,
+        long startOffsetMs,
+        long durationMs,
+        String status,
+        String thread) {
+}
@@ -0,0 +1,22 @@
+package com.example.mywebsite.dto;
+
+import com.example.mywebsite.service.GradeStatistics;
+
+import java.util.List;
+
+// Все данные страницы оценок одним объектом: загружаются одним запросом
+// и кэшируются одной записью вместе со статистикой (страница /grades, PDF и CSV используют его же)
+public record StudentDashboard(
+        StudentInfo studentInfo,
+        List<GradeRow> grades,
+        GradeStats stats) {
+
+    // Статистика считается один раз при загрузке
+    public static StudentDashboard of(StudentInfo studentInfo, List<GradeRow> grades) {
+        return new StudentDashboard(studentInfo, List.copyOf(grades), GradeStatistics.compute(grades));
+    }
+
+    public static StudentDashboard empty() {
+        return new StudentDashboard(null, List.of(), GradeStats.EMPTY);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.mywebsite.dto;
+
+// Краткая информация о студенте, привязанном к пользователю
+public record StudentInfo(
+        String fullName,
+        String groupName,
+        String email,
+        int gradesCount) {
+}
@@ -0,0 +1,12 @@
+package com.example.mywebsite.dto;
+
+// Место студента в группе по среднему баллу. rank = null, если оценок нет;
+// при равенстве средних место общее (1, 2, 2, 4)
+public record StudentRank(
+        Integer rank,
+        int studentId,
+        String fullName,
+        Double average,
+        int gradesCount,
+        int groupSize) {
+}
@@ -0,0 +1,11 @@
+package com.example.mywebsite.dto;
+
+import java.util.List;
+
+// Сводка по предмету: статистика оценок и распределение по интервалам в 10 баллов
+public record SubjectStats(
+        int subjectId,
+        String name,
+        GradeStats stats,
+        List<Integer> distribution) {
+}
@@ -0,0 +1,67 @@
+package com.example.mywebsite.dto;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Интервал занятия в минутах от полуночи, конец не включается.
+// Разбирает строки вида "9:00-10:30", "09.00 – 10.30"; без конца — стандартная пара
+public record TimeSlot(int startMinute, int endMinute) {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int DEFAULT_LESSON_MINUTES = 90;
+
+    private static final Pattern FORMAT = Pattern.compile(
+        "\\s*(\\d{1,2})[:.](\\d{2})\\s*(?:[-–—]\\s*(\\d{1,2})[:.](\\d{2})\\s*)?");
+
+    public TimeSlot {
+        if (startMinute < 0 || startMinute >= MINUTES_PER_DAY || endMinute <= startMinute || endMinute > MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Некорректный интервал: " + startMinute + "-" + endMinute);
+        }
+    }
+
+    public static TimeSlot parse(String value) {
+        Matcher matcher = value != null ? FORMAT.matcher(value) : null;
+        if (matcher == null || !matcher.matches()) {
+            throw new IllegalArgumentException("Некорректное время занятия: " + value + " (ожидается 9:00-10:30)");
+        }
+        int start = minutes(matcher.group(1), matcher.group(2), value);
+        int end = matcher.group(3) != null
+            ? minutes(matcher.group(3), matcher.group(4), value)
+            : Math.min(start + DEFAULT_LESSON_MINUTES, MINUTES_PER_DAY);
+        if (end <= start) {
+            throw new IllegalArgumentException("Конец занятия раньше начала: " + value);
+        }
+        return new TimeSlot(start, end);
+    }
+
+    // null, если строку не удалось разобрать
+    public static TimeSlot tryParse(String value) {
+        try {
+            return parse(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public boolean contains(int minute) {
+        return minute >= startMinute && minute < endMinute;
+    }
+
+    // Каноническая запись для колонки time_slot: "9:00-10:30"
+    public String format() {
+        return format(startMinute) + "-" + format(endMinute);
+    }
+
+    public static String format(int minute) {
+        return minute / 60 + ":" + String.format("%02d", minute % 60);
+    }
+
+    private static int minutes(String hours, String minutes, String value) {
+        int h = Integer.parseInt(hours);
+        int m = Integer.parseInt(minutes);
+        if (h > 24 || m > 59 || (h == 24 && m > 0)) {
+            throw new IllegalArgumentException("Некорректное время занятия: " + value);
+        }
+        return h * 60 + m;
+    }
+}
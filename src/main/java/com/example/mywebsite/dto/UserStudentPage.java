@@ -0,0 +1,15 @@
+package com.example.mywebsite.dto;
+
+import java.util.List;
+
+// Страница списка пользователей. nextCursor передается в after для следующей страницы;
+// null — страница последняя
+public record UserStudentPage(
+        List<UserStudentRow> items,
+        String nextCursor,
+        int limit) {
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
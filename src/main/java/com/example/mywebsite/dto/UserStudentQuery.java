@@ -0,0 +1,87 @@
+package com.example.mywebsite.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Параметры страницы списка пользователей: сортировка, фильтры и курсор.
+// Курсор — ключ последней строки предыдущей страницы (значение сортировки, user_id, student_id),
+// поэтому следующая страница читается с места остановки, без OFFSET
+public record UserStudentQuery(
+        Sort sort,
+        boolean descending,
+        String group,
+        String emailPrefix,
+        Integer minGrades,
+        Cursor after,
+        int limit) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    public enum Sort { ID, EMAIL, GRADES }
+
+    public UserStudentQuery {
+        sort = sort != null ? sort : Sort.ID;
+        group = blankToNull(group);
+        emailPrefix = blankToNull(emailPrefix);
+        limit = limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        if (after != null && (after.sort() != sort || after.descending() != descending)) {
+            throw new IllegalArgumentException("Курсор относится к другой сортировке");
+        }
+    }
+
+    // Разбор параметров запроса; неизвестная сортировка или испорченный курсор — IllegalArgumentException
+    public static UserStudentQuery of(String sort, String direction, String group, String emailPrefix,
+                                      Integer minGrades, String after, Integer limit) {
+        Sort parsedSort = sort == null || sort.isBlank() ? Sort.ID : parseSort(sort);
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        String cursor = blankToNull(after);
+        return new UserStudentQuery(parsedSort, descending, group, emailPrefix, minGrades,
+            cursor != null ? Cursor.decode(cursor) : null, limit != null ? limit : DEFAULT_LIMIT);
+    }
+
+    public UserStudentQuery withAfter(Cursor cursor) {
+        return new UserStudentQuery(sort, descending, group, emailPrefix, minGrades, cursor, limit);
+    }
+
+    public String direction() {
+        return descending ? "desc" : "asc";
+    }
+
+    private static Sort parseSort(String sort) {
+        try {
+            return Sort.valueOf(sort.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестная сортировка: " + sort);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // studentKey = 0 у пользователя без студента. value — email или число оценок, для Sort.ID не нужен
+    public record Cursor(Sort sort, boolean descending, int userId, int studentKey, String value) {
+
+        public String encode() {
+            String raw = sort + "\n" + (descending ? "desc" : "asc") + "\n" + userId + "\n" + studentKey + "\n" +
+                (value != null ? value : "");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String encoded) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\n", 5);
+                if (parts.length != 5) {
+                    throw new IllegalArgumentException("Некорректный курсор");
+                }
+                return new Cursor(Sort.valueOf(parts[0]), "desc".equals(parts[1]),
+                    Integer.parseInt(parts[2]), Integer.parseInt(parts[3]), parts[4]);
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException и ошибки Base64 — тоже IllegalArgumentException
+                throw new IllegalArgumentException("Некорректный курсор", e);
+            }
+        }
+    }
+}
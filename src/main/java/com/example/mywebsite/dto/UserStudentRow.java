@@ -0,0 +1,18 @@
+package com.example.mywebsite.dto;
+
+import java.time.LocalDateTime;
+
+// Строка списка пользователей для администратора. studentId = null — студент не назначен
+public record UserStudentRow(
+        int userId,
+        String email,
+        LocalDateTime userCreated,
+        Integer studentId,
+        String studentName,
+        String studentGroup,
+        int gradesCount) {
+
+    public boolean hasStudent() {
+        return studentId != null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.mywebsite.dto;
+
+import java.util.List;
+
+// Общие цифры для страницы пользователей: считаются агрегатами, без выборки строк
+public record UserStudentSummary(
+        int users,
+        int withStudents,
+        int withGrades,
+        List<String> groups) {
+}
@@ -1,6 +1,7 @@
 package com.example.mywebsite.entity;
 
 public class User {
+    private Integer id;
     private String password;
     private String email;
     private String googleId;
@@ -14,6 +15,9 @@ public class User {
     }
     
     // Геттеры и сеттеры
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
     public String getGoogleId() { return googleId; }
     public void setGoogleId(String googleId) { this.googleId = googleId; }
 
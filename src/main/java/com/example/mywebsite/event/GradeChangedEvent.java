@@ -0,0 +1,21 @@
+package com.example.mywebsite.event;
+
+// Событие изменения оценки: публикуется после записи в БД,
+// по нему сбрасываются кэши конкретного студента
+public record GradeChangedEvent(
+        Type type,
+        int gradeId,
+        int studentId,
+        int subjectId,
+        Integer oldGrade,
+        Integer newGrade,
+        Integer userId,
+        String userEmail,
+        String groupName) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
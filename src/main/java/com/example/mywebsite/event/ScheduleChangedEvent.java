@@ -0,0 +1,15 @@
+package com.example.mywebsite.event;
+
+// Событие изменения расписания: публикуется после записи в БД и сброса снимка.
+// slotId = null — расписание перечитано целиком
+public record ScheduleChangedEvent(
+        Type type,
+        Integer slotId) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        RELOADED
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.mywebsite.mapper;
+
+import com.example.mywebsite.dto.ExportJob;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+// Ожидает колонки id, user_id, email, format, file_name, status, attempts,
+// file_url, error_message, export_date, updated_date
+public class ExportJobMapper implements RowMapper<ExportJob> {
+
+    @Override
+    public ExportJob mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp exportDate = rs.getTimestamp("export_date");
+        Timestamp updatedDate = rs.getTimestamp("updated_date");
+        return new ExportJob(
+            rs.getInt("id"),
+            rs.getInt("user_id"),
+            rs.getString("email"),
+            rs.getString("format"),
+            rs.getString("file_name"),
+            rs.getString("status"),
+            rs.getInt("attempts"),
+            rs.getString("file_url"),
+            rs.getString("error_message"),
+            exportDate != null ? exportDate.toLocalDateTime() : null,
+            updatedDate != null ? updatedDate.toLocalDateTime() : null
+        );
+    }
+}
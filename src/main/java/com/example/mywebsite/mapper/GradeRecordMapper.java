@@ -0,0 +1,29 @@
+package com.example.mywebsite.mapper;
+
+import com.example.mywebsite.dto.GradeRecord;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Ожидает колонки id, student_id, subject_id, grade, exam_date, user_id, email, group_name
+public class GradeRecordMapper implements RowMapper<GradeRecord> {
+
+    @Override
+    public GradeRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Date examDate = rs.getDate("exam_date");
+        int userId = rs.getInt("user_id");
+        boolean noUser = rs.wasNull();
+        return new GradeRecord(
+            rs.getInt("id"),
+            rs.getInt("student_id"),
+            rs.getInt("subject_id"),
+            rs.getInt("grade"),
+            examDate != null ? examDate.toLocalDate() : null,
+            noUser ? null : userId,
+            rs.getString("email"),
+            rs.getString("group_name")
+        );
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.mywebsite.mapper;
+
+import com.example.mywebsite.dto.GradeRow;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Ожидает колонки subject_name, description, grade, exam_date
+public class GradeRowMapper implements RowMapper<GradeRow> {
+
+    @Override
+    public GradeRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Date examDate = rs.getDate("exam_date");
+        return new GradeRow(
+            rs.getString("subject_name"),
+            rs.getString("description"),
+            rs.getInt("grade"),
+            examDate != null ? examDate.toLocalDate() : null
+        );
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.mywebsite.mapper;
+
+import com.example.mywebsite.dto.ScheduleSlot;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Ожидает колонки таблицы schedule. Если iso_day или минуты не заполнены,
+// они разбираются из day_of_week и time_slot
+public class ScheduleSlotMapper implements RowMapper<ScheduleSlot> {
+
+    @Override
+    public ScheduleSlot mapRow(ResultSet rs, int rowNum) throws SQLException {
+        int id = rs.getInt("id");
+        String dayOfWeek = rs.getString("day_of_week");
+        String timeSlot = rs.getString("time_slot");
+        String subjectName = rs.getString("subject_name");
+        String room = rs.getString("room");
+        String teacher = rs.getString("teacher");
+        String groupName = rs.getString("group_name");
+
+        int isoDay = rs.getInt("iso_day");
+        boolean hasDay = !rs.wasNull();
+        int startMinute = rs.getInt("start_minute");
+        boolean hasStart = !rs.wasNull();
+        int endMinute = rs.getInt("end_minute");
+        boolean hasEnd = !rs.wasNull();
+
+        if (!hasDay || !hasStart || !hasEnd) {
+            return ScheduleSlot.of(id, dayOfWeek, timeSlot, subjectName, room, teacher, groupName);
+        }
+        return new ScheduleSlot(id, dayOfWeek, timeSlot, subjectName, room, teacher, groupName,
+            isoDay, startMinute, endMinute);
+    }
+}
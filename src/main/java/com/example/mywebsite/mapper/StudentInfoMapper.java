@@ -0,0 +1,21 @@
+package com.example.mywebsite.mapper;
+
+import com.example.mywebsite.dto.StudentInfo;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Ожидает колонки full_name, group_name, email, grades_count
+public class StudentInfoMapper implements RowMapper<StudentInfo> {
+
+    @Override
+    public StudentInfo mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new StudentInfo(
+            rs.getString("full_name"),
+            rs.getString("group_name"),
+            rs.getString("email"),
+            rs.getInt("grades_count")
+        );
+    }
+}
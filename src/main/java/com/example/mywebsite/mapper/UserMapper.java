@@ -0,0 +1,20 @@
+package com.example.mywebsite.mapper;
+
+import com.example.mywebsite.entity.User;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Ожидает колонки id, email, password, google_id, github_id
+public class UserMapper implements RowMapper<User> {
+
+    @Override
+    public User mapRow(ResultSet rs, int rowNum) throws SQLException {
+        User user = new User(rs.getString("password"), rs.getString("email"));
+        user.setId(rs.getInt("id"));
+        user.setGoogleId(rs.getString("google_id"));
+        user.setGithubId(rs.getString("github_id"));
+        return user;
+    }
+}
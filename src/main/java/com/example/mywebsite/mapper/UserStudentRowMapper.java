@@ -0,0 +1,29 @@
+package com.example.mywebsite.mapper;
+
+import com.example.mywebsite.dto.UserStudentRow;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+// Ожидает колонки user_id, email, user_created, student_id, student_name,
+// student_group, grades_count
+public class UserStudentRowMapper implements RowMapper<UserStudentRow> {
+
+    @Override
+    public UserStudentRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp created = rs.getTimestamp("user_created");
+        int studentId = rs.getInt("student_id");
+        boolean hasStudent = !rs.wasNull();
+        return new UserStudentRow(
+            rs.getInt("user_id"),
+            rs.getString("email"),
+            created != null ? created.toLocalDateTime() : null,
+            hasStudent ? studentId : null,
+            rs.getString("student_name"),
+            rs.getString("student_group"),
+            rs.getInt("grades_count")
+        );
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.mywebsite.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Одна версия схемы: SQL-выражения и, при необходимости, Java-шаг
+// (например, заполнение новой колонки), который выполняется после них
+public record Migration(
+        int version,
+        String description,
+        List<String> statements,
+        Consumer<JdbcTemplate> callback) {
+
+    public static Migration sql(int version, String description, String... statements) {
+        return new Migration(version, description, List.of(statements), null);
+    }
+
+    public Migration then(Consumer<JdbcTemplate> callback) {
+        return new Migration(version, description, statements, callback);
+    }
+}
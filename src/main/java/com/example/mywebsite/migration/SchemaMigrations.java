@@ -0,0 +1,246 @@
+package com.example.mywebsite.migration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Все версии схемы по порядку. Уже примененную миграцию не меняем —
+// любое изменение схемы добавляется новой версией в конец списка.
+// Выражения идемпотентны (IF NOT EXISTS), чтобы базы, созданные до появления
+// миграций, проходили их без ошибок
+public final class SchemaMigrations {
+
+    public static final String USERS_TABLE = """
+        IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='users' AND xtype='U')
+        CREATE TABLE users (
+            id INT IDENTITY(1,1) PRIMARY KEY,
+            password NVARCHAR(100) NOT NULL,
+            email NVARCHAR(100) NOT NULL UNIQUE,
+            google_id NVARCHAR(100),
+            github_id NVARCHAR(100),
+            created_date DATETIME DEFAULT GETDATE()
+        )
+    """;
+
+    public static final String SIMPLE_MESSAGES_TABLE = """
+        IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='simple_messages' AND xtype='U')
+        CREATE TABLE simple_messages (
+            id INT IDENTITY(1,1) PRIMARY KEY,
+            text NVARCHAR(255),
+            created_date DATETIME DEFAULT GETDATE()
+        )
+    """;
+
+    private static final String SUBJECTS_TABLE = """
+        IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='subjects' AND xtype='U')
+        CREATE TABLE subjects (
+            id INT IDENTITY(1,1) PRIMARY KEY,
+            name NVARCHAR(100) NOT NULL,
+            description NVARCHAR(255)
+        )
+    """;
+
+    private static final String STUDENTS_TABLE = """
+        IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='students' AND xtype='U')
+        CREATE TABLE students (
+            id INT IDENTITY(1,1) PRIMARY KEY,
+            user_id INT,
+            full_name NVARCHAR(100) NOT NULL,
+            group_name NVARCHAR(50),
+            FOREIGN KEY (user_id) REFERENCES users(id)
+        )
+    """;
+
+    private static final String GRADES_TABLE = """
+        IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='grades' AND xtype='U')
+        CREATE TABLE grades (
+            id INT IDENTITY(1,1) PRIMARY KEY,
+            student_id INT NOT NULL,
+            subject_id INT NOT NULL,
+            grade INT NOT NULL,
+            exam_date DATE,
+            created_date DATETIME DEFAULT GETDATE(),
+            FOREIGN KEY (student_id) REFERENCES students(id),
+            FOREIGN KEY (subject_id) REFERENCES subjects(id)
+        )
+    """;
+
+    private static final String SCHEDULE_TABLE = """
+        IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='schedule' AND xtype='U')
+        CREATE TABLE schedule (
+            id INT IDENTITY(1,1) PRIMARY KEY,
+            day_of_week NVARCHAR(20) NOT NULL,
+            time_slot NVARCHAR(20) NOT NULL,
+            subject_name NVARCHAR(100) NOT NULL,
+            room NVARCHAR(20),
+            teacher NVARCHAR(100),
+            group_name NVARCHAR(50),
+            created_date DATETIME DEFAULT GETDATE()
+        )
+    """;
+
+    private static final String USER_GOOGLE_TOKENS_TABLE = """
+        IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='user_google_tokens' AND xtype='U')
+        CREATE TABLE user_google_tokens (
+            id INT IDENTITY(1,1) PRIMARY KEY,
+            user_id INT NOT NULL,
+            access_token NVARCHAR(2000),
+            refresh_token NVARCHAR(1000),
+            expires_at DATETIME,
+            scope NVARCHAR(500),
+            created_date DATETIME DEFAULT GETDATE(),
+            updated_date DATETIME DEFAULT GETDATE(),
+            FOREIGN KEY (user_id) REFERENCES users(id),
+            UNIQUE (user_id)
+        )
+    """;
+
+    private static final String EXPORT_HISTORY_TABLE = """
+        IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='export_history' AND xtype='U')
+        CREATE TABLE export_history (
+            id INT IDENTITY(1,1) PRIMARY KEY,
+            user_id INT NOT NULL,
+            file_id NVARCHAR(255),
+            file_name NVARCHAR(500),
+            file_url NVARCHAR(1000),
+            export_date DATETIME DEFAULT GETDATE(),
+            status NVARCHAR(50),
+            error_message NVARCHAR(2000),
+            FOREIGN KEY (user_id) REFERENCES users(id)
+        )
+    """;
+
+    // Поиск по OAuth-идентификаторам; у большинства пользователей они пустые,
+    // поэтому индексы фильтрованные. Нужны и при пересоздании users (UserService.recreateTable)
+    public static final String USERS_GOOGLE_ID_INDEX = createIndex("users", "IX_users_google_id",
+        "CREATE INDEX IX_users_google_id ON users (google_id) WHERE google_id IS NOT NULL");
+
+    public static final String USERS_GITHUB_ID_INDEX = createIndex("users", "IX_users_github_id",
+        "CREATE INDEX IX_users_github_id ON users (github_id) WHERE github_id IS NOT NULL");
+
+    private static final List<Migration> ALL = List.of(
+        Migration.sql(1, "Базовая схема",
+            USERS_TABLE,
+            SIMPLE_MESSAGES_TABLE,
+            SUBJECTS_TABLE,
+            STUDENTS_TABLE,
+            GRADES_TABLE,
+            SCHEDULE_TABLE,
+            USER_GOOGLE_TOKENS_TABLE,
+            EXPORT_HISTORY_TABLE),
+
+        Migration.sql(2, "Индексы для поиска оценок, студентов, OAuth и истории выгрузок",
+            // Оценки студента: страница оценок, экспорт, средний балл
+            createIndex("grades", "IX_grades_student_id",
+                "CREATE INDEX IX_grades_student_id ON grades (student_id) INCLUDE (subject_id, grade, exam_date)"),
+            // Студент по пользователю: каждый запрос по email проходит через students.user_id
+            createIndex("students", "IX_students_user_id",
+                "CREATE INDEX IX_students_user_id ON students (user_id) INCLUDE (full_name, group_name)"),
+            USERS_GOOGLE_ID_INDEX,
+            USERS_GITHUB_ID_INDEX,
+            // История выгрузок пользователя, новые сверху
+            createIndex("export_history", "IX_export_history_user_date",
+                "CREATE INDEX IX_export_history_user_date ON export_history (user_id, export_date DESC)")),
+
+        Migration.sql(3, "Очередь выгрузок: формат, число попыток и время изменения в export_history",
+            addColumn("export_history", "format", "NVARCHAR(10)"),
+            addColumn("export_history", "attempts", "INT NOT NULL DEFAULT 0"),
+            addColumn("export_history", "updated_date", "DATETIME"),
+            // Незавершенные задачи поднимаются при запуске приложения
+            createIndex("export_history", "IX_export_history_pending",
+                "CREATE INDEX IX_export_history_pending ON export_history (id) WHERE status IN ('QUEUED', 'RUNNING')")),
+
+        Migration.sql(4, "Индекс студентов по группе для списка пользователей с фильтром",
+            createIndex("students", "IX_students_group_name",
+                "CREATE INDEX IX_students_group_name ON students (group_name) INCLUDE (user_id, full_name)")),
+
+        Migration.sql(5, "Расписание: день недели по ISO и время занятия в минутах от полуночи",
+            addColumn("schedule", "iso_day", "TINYINT"),
+            addColumn("schedule", "start_minute", "SMALLINT"),
+            addColumn("schedule", "end_minute", "SMALLINT"))
+            // Индекс не нужен: снимок расписания читает всю таблицу и сортирует дни в Java
+            .then(SchemaMigrations::backfillScheduleTimes)
+    );
+
+    // Правила разбора на момент V5. Скопированы, а не взяты из ScheduleSlot и TimeSlot:
+    // их будущие изменения не должны менять то, что V5 делает на новой базе
+    private static final Map<String, Integer> V5_DAYS = Map.ofEntries(
+        Map.entry("понедельник", 1), Map.entry("вторник", 2), Map.entry("среда", 3),
+        Map.entry("четверг", 4), Map.entry("пятница", 5), Map.entry("суббота", 6),
+        Map.entry("воскресенье", 7),
+        Map.entry("monday", 1), Map.entry("tuesday", 2), Map.entry("wednesday", 3),
+        Map.entry("thursday", 4), Map.entry("friday", 5), Map.entry("saturday", 6),
+        Map.entry("sunday", 7));
+
+    private static final Pattern V5_TIME = Pattern.compile(
+        "\\s*(\\d{1,2})[:.](\\d{2})\\s*(?:[-–—]\\s*(\\d{1,2})[:.](\\d{2})\\s*)?");
+
+    private SchemaMigrations() {
+    }
+
+    public static List<Migration> all() {
+        return ALL;
+    }
+
+    private static String addColumn(String table, String column, String definition) {
+        return "IF COL_LENGTH('" + table + "', '" + column + "') IS NULL " +
+            "ALTER TABLE " + table + " ADD " + column + " " + definition;
+    }
+
+    // Разбор day_of_week и time_slot существующих занятий в Java по правилам V5.
+    // Строки, которые не разобрать, остаются с NULL и попадают в лог
+    private static void backfillScheduleTimes(JdbcTemplate jdbcTemplate) {
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, day_of_week, time_slot FROM schedule", rs -> {
+            int id = rs.getInt("id");
+            String dayOfWeek = rs.getString("day_of_week");
+            Integer day = dayOfWeek != null ? V5_DAYS.get(dayOfWeek.trim().toLowerCase(Locale.ROOT)) : null;
+            int[] time = parseV5Time(rs.getString("time_slot"));
+            if (day == null || time == null) {
+                System.err.println("Занятие " + id + ": не удалось разобрать день \"" + dayOfWeek +
+                    "\" или время \"" + rs.getString("time_slot") + "\"");
+                return;
+            }
+            updates.add(new Object[]{day, time[0], time[1], id});
+        });
+        jdbcTemplate.batchUpdate(
+            "UPDATE schedule SET iso_day = ?, start_minute = ?, end_minute = ? WHERE id = ?", updates);
+        System.out.println("Заполнено время для занятий: " + updates.size());
+    }
+
+    // {начало, конец} в минутах от полуночи; null — строку не разобрать.
+    // "9:00-10:30", "09.00 – 10.30"; без конца — пара 90 минут
+    static int[] parseV5Time(String value) {
+        Matcher matcher = value != null ? V5_TIME.matcher(value) : null;
+        if (matcher == null || !matcher.matches()) {
+            return null;
+        }
+        int start = v5Minutes(matcher.group(1), matcher.group(2));
+        int end = matcher.group(3) != null
+            ? v5Minutes(matcher.group(3), matcher.group(4))
+            : Math.min(start + 90, 24 * 60);
+        if (start < 0 || end < 0 || start >= 24 * 60 || end <= start) {
+            return null;
+        }
+        return new int[]{start, end};
+    }
+
+    private static int v5Minutes(String hours, String minutes) {
+        int h = Integer.parseInt(hours);
+        int m = Integer.parseInt(minutes);
+        if (h > 24 || m > 59 || (h == 24 && m > 0)) {
+            return -1;
+        }
+        return h * 60 + m;
+    }
+
+    private static String createIndex(String table, String index, String ddl) {
+        return "IF NOT EXISTS (SELECT * FROM sys.indexes WHERE name = '" + index +
+            "' AND object_id = OBJECT_ID('" + table + "')) " + ddl;
+    }
+}
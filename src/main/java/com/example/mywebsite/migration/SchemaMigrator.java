@@ -0,0 +1,83 @@
+package com.example.mywebsite.migration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Применяет версии из SchemaMigrations, которых еще нет в schema_version.
+// Каждая версия выполняется в своей транзакции вместе с записью о ней,
+// так что при ошибке версия откатывается целиком и повторится при следующем запуске
+@Service
+public class SchemaMigrator {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public List<Integer> migrate() {
+        createVersionTable();
+
+        Set<Integer> applied = new HashSet<>(
+            jdbcTemplate.queryForList("SELECT version FROM schema_version", Integer.class));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Integer> appliedNow = new ArrayList<>();
+
+        for (Migration migration : SchemaMigrations.all()) {
+            if (applied.contains(migration.version())) {
+                continue;
+            }
+
+            long start = System.currentTimeMillis();
+            transaction.executeWithoutResult(status -> {
+                migration.statements().forEach(jdbcTemplate::execute);
+                if (migration.callback() != null) {
+                    migration.callback().accept(jdbcTemplate);
+                }
+                jdbcTemplate.update("INSERT INTO schema_version (version, description) VALUES (?, ?)",
+                    migration.version(), migration.description());
+            });
+            appliedNow.add(migration.version());
+
+            System.out.println("Миграция V" + migration.version() + " (" + migration.description() +
+                ") применена за " + (System.currentTimeMillis() - start) + " мс");
+        }
+
+        if (appliedNow.isEmpty()) {
+            System.out.println("Схема БД актуальна, миграции не требуются");
+        }
+        return appliedNow;
+    }
+
+    public boolean isApplied(int version) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM schema_version WHERE version = ?", Integer.class, version);
+        return count != null && count > 0;
+    }
+
+    public void markApplied(int version, String description) {
+        jdbcTemplate.update("""
+            IF NOT EXISTS (SELECT 1 FROM schema_version WHERE version = ?)
+            INSERT INTO schema_version (version, description) VALUES (?, ?)
+        """, version, version, description);
+    }
+
+    private void createVersionTable() {
+        jdbcTemplate.execute("""
+            IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='schema_version' AND xtype='U')
+            CREATE TABLE schema_version (
+                version INT PRIMARY KEY,
+                description NVARCHAR(255),
+                applied_date DATETIME DEFAULT GETDATE()
+            )
+        """);
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.dto.GradeRow;
+import com.example.mywebsite.dto.RenderReport;
+import com.example.mywebsite.dto.StudentDashboard;
+import com.example.mywebsite.dto.StudentInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Массовая выгрузка оценок группы или всех студентов.
+// Данные читаются одним курсором (строки упорядочены по студенту), строки CSV
+// пишутся сразу, а PDF студента отдается PdfRenderingEngine, как только его строки закончились.
+// Число PDF в работе ограничивает движок, при его заполнении чтение курсора ждет
+@Service
+public class BulkExportService {
+
+    public enum Format { CSV, PDF, ALL }
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String[] CSV_HEADER = {"Group", "Student", "Email", "Subject", "Grade", "Date"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PdfRenderingEngine renderingEngine;
+
+    @Autowired
+    private ExportJobService exportJobService;
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    // Один CSV на всех студентов; group == null — все студенты
+    public void writeCsv(String group, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out);
+        csv.writeRow((Object[]) CSV_HEADER);
+        // Заголовок уходит клиенту сразу, до выполнения запроса
+        csv.flush();
+
+        readStudents(group, new StudentSink() {
+            @Override
+            public void row(StudentInfo student, GradeRow grade) throws IOException {
+                writeCsvRow(csv, student, grade);
+            }
+        });
+        csv.flush();
+    }
+
+    // ZIP с PDF каждого студента; для Format.ALL в архив добавляется и общий CSV
+    public void writeZip(String group, Format format, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        boolean withCsv = format == Format.ALL;
+
+        // Записи ZIP пишутся последовательно, поэтому CSV копится во временном файле
+        // и добавляется в архив последним
+        Path csvFile = withCsv ? Files.createTempFile("bulk-export-", ".csv") : null;
+        try (OutputStream csvOut = withCsv ? Files.newOutputStream(csvFile) : OutputStream.nullOutputStream()) {
+            CsvWriter csv = new CsvWriter(csvOut);
+            if (withCsv) {
+                csv.writeRow((Object[]) CSV_HEADER);
+            }
+
+            // PDF пишутся в архив в порядке студентов
+            try (PdfRenderingEngine.Batch batch = renderingEngine.newBatch(
+                    "zip " + scope(group), false, pdf -> writeEntry(zip, pdf))) {
+                readStudents(group, new StudentSink() {
+                    @Override
+                    public void row(StudentInfo student, GradeRow grade) throws IOException {
+                        if (withCsv) {
+                            writeCsvRow(csv, student, grade);
+                        }
+                    }
+
+                    @Override
+                    public void studentDone(StudentInfo student, List<GradeRow> grades) throws IOException {
+                        batch.submit(pdfFileName(student), StudentDashboard.of(student, grades), student.email());
+                    }
+                });
+                batch.finish();
+            }
+            csv.flush();
+        }
+
+        try {
+            if (withCsv) {
+                zip.putNextEntry(new ZipEntry(group != null ? "grades_" + safeName(group) + ".csv" : "grades_all.csv"));
+                try (InputStream in = Files.newInputStream(csvFile)) {
+                    in.transferTo(zip);
+                }
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            if (csvFile != null) {
+                Files.deleteIfExists(csvFile);
+            }
+        }
+    }
+
+    // Зачетки студентов, подключивших Google Drive, отрисовываются пакетом и ставятся
+    // в очередь загрузки на их Drive. Задача выгрузки берет PDF из кэша, куда его положил пакет
+    public RenderReport publishToDrive(String group) throws IOException {
+        Set<String> withDrive = databaseService.getEmailsWithDriveAccess();
+        try (PdfRenderingEngine.Batch batch = renderingEngine.newBatch("drive " + scope(group), true,
+                pdf -> exportJobService.enqueue(pdf.email(), ExportJobService.Format.PDF))) {
+            readStudents(group, new StudentSink() {
+                @Override
+                public void row(StudentInfo student, GradeRow grade) {
+                }
+
+                @Override
+                public void studentDone(StudentInfo student, List<GradeRow> grades) throws IOException {
+                    if (withDrive.contains(student.email())) {
+                        batch.submit(pdfFileName(student), StudentDashboard.of(student, grades), student.email());
+                    }
+                }
+            });
+            return batch.finish();
+        }
+    }
+
+    public String fileName(String group, Format format) {
+        return "grades_" + scope(group) + "_" + LocalDate.now() + (format == Format.CSV ? ".csv" : ".zip");
+    }
+
+    private String scope(String group) {
+        return group != null ? "group_" + safeName(group) : "all";
+    }
+
+    // Обход курсора: строки одного студента идут подряд благодаря ORDER BY st.id
+    private void readStudents(String group, StudentSink sink) throws IOException {
+        String sql = """
+            SELECT st.id AS student_id, st.full_name, st.group_name, u.email,
+                s.name AS subject_name, s.description, g.grade, g.exam_date
+            FROM students st
+            JOIN users u ON st.user_id = u.id
+            LEFT JOIN grades g ON g.student_id = st.id
+            LEFT JOIN subjects s ON g.subject_id = s.id
+        """ + (group != null ? " WHERE st.group_name = ?" : "") + """
+             ORDER BY st.id, g.exam_date DESC
+        """;
+
+        StudentCursor cursor = new StudentCursor(sink);
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setFetchSize(FETCH_SIZE);
+                if (group != null) {
+                    ps.setString(1, group);
+                }
+                return ps;
+            }, cursor::processRow);
+            cursor.finish();
+        } catch (UncheckedIOException e) {
+            // Клиент оборвал соединение или не удалось записать архив
+            throw e.getCause();
+        }
+    }
+
+    private void writeCsvRow(CsvWriter csv, StudentInfo student, GradeRow grade) throws IOException {
+        csv.writeRow(student.groupName(), student.fullName(), student.email(),
+            grade.subjectName(), grade.grade(), grade.examDate());
+    }
+
+    private void writeEntry(ZipOutputStream zip, PdfRenderingEngine.RenderedPdf pdf) throws IOException {
+        zip.putNextEntry(new ZipEntry(pdf.fileName()));
+        zip.write(pdf.content());
+        zip.closeEntry();
+    }
+
+    private String pdfFileName(StudentInfo student) {
+        String group = student.groupName() != null ? safeName(student.groupName()) + "/" : "";
+        return group + safeName(student.fullName()) + "_" + safeName(student.email()) + ".pdf";
+    }
+
+    private static String safeName(String value) {
+        return value == null ? "" : value.replaceAll("[^\\p{L}\\p{N}_.-]", "_");
+    }
+
+    // Получатель данных курсора: строка оценки и окончание строк студента
+    private interface StudentSink {
+        void row(StudentInfo student, GradeRow grade) throws IOException;
+
+        default void studentDone(StudentInfo student, List<GradeRow> grades) throws IOException {
+        }
+    }
+
+    // Собирает строки текущего студента и отдает их получателю при смене student_id
+    private static class StudentCursor {
+        private final StudentSink sink;
+        private int studentId = -1;
+        private StudentInfo student;
+        private List<GradeRow> grades = new ArrayList<>();
+
+        StudentCursor(StudentSink sink) {
+            this.sink = sink;
+        }
+
+        void processRow(ResultSet rs) throws SQLException {
+            try {
+                int id = rs.getInt("student_id");
+                if (id != studentId) {
+                    finish();
+                    studentId = id;
+                    student = new StudentInfo(rs.getString("full_name"), rs.getString("group_name"),
+                        rs.getString("email"), 0);
+                }
+                // Студент без оценок: LEFT JOIN дает одну строку с пустой оценкой
+                if (rs.getObject("grade") == null) {
+                    return;
+                }
+                Date examDate = rs.getDate("exam_date");
+                GradeRow grade = new GradeRow(rs.getString("subject_name"), rs.getString("description"),
+                    rs.getInt("grade"), examDate != null ? examDate.toLocalDate() : null);
+                grades.add(grade);
+                sink.row(student, grade);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            if (studentId < 0) {
+                return;
+            }
+            List<GradeRow> done = grades;
+            grades = new ArrayList<>();
+            studentId = -1;
+            sink.studentDone(new StudentInfo(student.fullName(), student.groupName(), student.email(), done.size()), done);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.config.SeedProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Пакетная генерация тестовых данных: строки копятся в буфере и уходят
+// в БД через batchUpdate по app.seed.batch-size штук.
+// Проверки "уже есть" делаются одним запросом на всю таблицу, а не на каждую строку
+@Service
+public class BulkSeedService {
+
+    private static final String INSERT_USER = "INSERT INTO users (password, email) VALUES (?, ?)";
+    private static final String INSERT_STUDENT = "INSERT INTO students (user_id, full_name, group_name) VALUES (?, ?, ?)";
+    private static final String INSERT_GRADE = "INSERT INTO grades (student_id, subject_id, grade, exam_date) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_SUBJECT = "INSERT INTO subjects (name, description) VALUES (?, ?)";
+
+    private static final String[] FIRST_NAMES = {"Иван", "Алексей", "Дмитрий", "Сергей", "Андрей",
+                                                 "Мария", "Анна", "Екатерина", "Ольга", "Наталья"};
+    private static final String[] LAST_NAMES = {"Иванов", "Петров", "Сидоров", "Кузнецов", "Смирнов",
+                                                "Попов", "Васильев", "Михайлов", "Фёдоров", "Морозов"};
+    private static final String[] MIDDLE_NAMES = {"Александрович", "Сергеевич", "Дмитриевич", "Андреевич",
+                                                  "Владимирович", "Алексеевич", "Игоревич", "Юрьевич",
+                                                  "Олегович", "Николаевич"};
+    private static final String[] GROUPS = {"ИТ-21", "ИТ-22", "ИТ-23", "КБ-21", "КБ-22",
+                                            "ПИ-21", "ПИ-22", "СА-21", "СА-22", "РП-21"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SeedProperties seedProperties;
+
+    @Autowired
+    private UserService userService;
+
+    // Создаем пользователей с заданными email, пропуская уже существующих
+    public int createUsers(List<String> emails, String password) {
+        Set<String> existingEmails = new HashSet<>(
+            jdbcTemplate.queryForList("SELECT email FROM users", String.class));
+
+        BatchBuffer batch = new BatchBuffer(INSERT_USER);
+        for (String email : emails) {
+            if (!existingEmails.contains(email)) {
+                batch.add(password, email);
+            }
+        }
+        int created = batch.finish();
+        if (created > 0) {
+            // Новые email могли быть закэшированы как отсутствующие
+            userService.evictAllUsers();
+        }
+        return created;
+    }
+
+    // Создаем студента (случайные ФИО и группа) для каждого пользователя без студента
+    public int createStudentsForUsersWithoutStudents() {
+        List<Integer> userIds = jdbcTemplate.queryForList("""
+            SELECT u.id
+            FROM users u
+            WHERE NOT EXISTS (SELECT 1 FROM students s WHERE s.user_id = u.id)
+            ORDER BY u.id
+        """, Integer.class);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BatchBuffer batch = new BatchBuffer(INSERT_STUDENT);
+        for (Integer userId : userIds) {
+            String fullName = pick(LAST_NAMES, random) + " " + pick(FIRST_NAMES, random) + " " + pick(MIDDLE_NAMES, random);
+            batch.add(userId, fullName, pick(GROUPS, random));
+        }
+        return batch.finish();
+    }
+
+    // Создаем оценки по всем предметам для каждого студента без оценок
+    public int createGradesForStudentsWithoutGrades() {
+        List<Integer> subjectIds = jdbcTemplate.queryForList("SELECT id FROM subjects ORDER BY id", Integer.class);
+        if (subjectIds.isEmpty()) {
+            System.out.println("Нет предметов для создания оценок!");
+            return 0;
+        }
+
+        List<Integer> studentIds = jdbcTemplate.queryForList("""
+            SELECT s.id
+            FROM students s
+            WHERE NOT EXISTS (SELECT 1 FROM grades g WHERE g.student_id = s.id)
+            ORDER BY s.id
+        """, Integer.class);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BatchBuffer batch = new BatchBuffer(INSERT_GRADE);
+        for (Integer studentId : studentIds) {
+            for (Integer subjectId : subjectIds) {
+                // Оценка 60-100, дата экзамена сентябрь-декабрь 2024
+                int grade = 60 + random.nextInt(41);
+                LocalDate examDate = LocalDate.of(2024, 9 + random.nextInt(4), 1 + random.nextInt(28));
+                batch.add(studentId, subjectId, grade, Date.valueOf(examDate));
+            }
+        }
+        return batch.finish();
+    }
+
+    // Данные для нагрузочных тестов: studentsCount пользователей loadN@seed.local
+    // со студентами и оценками минимум по subjectsCount предметам
+    public Map<String, Object> seedLoadTestData(int studentsCount, int subjectsCount) {
+        long started = System.currentTimeMillis();
+
+        int subjectsCreated = ensureSubjects(subjectsCount);
+
+        List<String> emails = new ArrayList<>(studentsCount);
+        for (int i = 1; i <= studentsCount; i++) {
+            emails.add("load" + i + "@seed.local");
+        }
+        int usersCreated = createUsers(emails, "password123");
+        int studentsCreated = createStudentsForUsersWithoutStudents();
+        int gradesCreated = createGradesForStudentsWithoutGrades();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("subjectsCreated", subjectsCreated);
+        result.put("usersCreated", usersCreated);
+        result.put("studentsCreated", studentsCreated);
+        result.put("gradesCreated", gradesCreated);
+        result.put("batchSize", batchSize());
+        result.put("elapsedMs", System.currentTimeMillis() - started);
+        System.out.println("Сгенерированы данные для нагрузочного теста: " + result);
+        return result;
+    }
+
+    // Добиваем таблицу предметов до нужного количества
+    private int ensureSubjects(int subjectsCount) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM subjects", Integer.class);
+        int current = existing != null ? existing : 0;
+
+        BatchBuffer batch = new BatchBuffer(INSERT_SUBJECT);
+        for (int i = current + 1; i <= subjectsCount; i++) {
+            batch.add("Предмет " + i, "Сгенерирован для нагрузочного теста");
+        }
+        return batch.finish();
+    }
+
+    private int batchSize() {
+        return Math.max(1, seedProperties.getBatchSize());
+    }
+
+    private static String pick(String[] values, ThreadLocalRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // Буфер строк одного INSERT: отправляет пакет, как только набралось batchSize строк,
+    // так что в памяти не держится вся выборка
+    private class BatchBuffer {
+        private final String sql;
+        private final int size = batchSize();
+        private final List<Object[]> rows = new ArrayList<>(size);
+        private int written;
+
+        BatchBuffer(String sql) {
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= size) {
+                flush();
+            }
+        }
+
+        int finish() {
+            flush();
+            return written;
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(sql, rows);
+            written += rows.size();
+            rows.clear();
+        }
+    }
+}
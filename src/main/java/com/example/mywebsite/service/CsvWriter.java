@@ -0,0 +1,75 @@
+package com.example.mywebsite.service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+// Построчная запись CSV по RFC 4180: строки разделяются CRLF, поля с запятой,
+// кавычкой или переводом строки берутся в кавычки, кавычки внутри удваиваются.
+// Пишет сразу в поток, ничего не накапливая
+public class CsvWriter implements Flushable, Closeable {
+
+    private static final String CRLF = "\r\n";
+
+    private final Writer writer;
+
+    public CsvWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public CsvWriter writeRow(Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(fields[i]);
+        }
+        writer.write(CRLF);
+        return this;
+    }
+
+    public CsvWriter writeEmptyRow() throws IOException {
+        writer.write(CRLF);
+        return this;
+    }
+
+    private void writeField(Object field) throws IOException {
+        if (field == null) {
+            return;
+        }
+        String value = field.toString();
+        if (!needsQuoting(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    // Закрывает и поток ответа; для StreamingResponseBody достаточно flush()
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -37,7 +37,7 @@ public class CustomUserDetailsService implements UserDetailsService {
             return org.springframework.security.core.userdetails.User.builder()
                 .username(user.getEmail())  // Всегда используем email как username
                 .password(user.getPassword() != null ? user.getPassword() : "")
-                .roles("USER")
+                .roles(userService.getRoles(user.getEmail()).toArray(String[]::new))
                 .build();
         }
         
@@ -1,14 +1,37 @@
 package com.example.mywebsite.service;
 
+import com.example.mywebsite.dto.ExportJob;
+import com.example.mywebsite.dto.GradeRecord;
+import com.example.mywebsite.dto.GradeRow;
+import com.example.mywebsite.dto.StudentDashboard;
+import com.example.mywebsite.dto.StudentInfo;
+import com.example.mywebsite.dto.UserStudentPage;
+import com.example.mywebsite.dto.UserStudentQuery;
+import com.example.mywebsite.dto.UserStudentRow;
+import com.example.mywebsite.dto.UserStudentSummary;
+import com.example.mywebsite.mapper.ExportJobMapper;
+import com.example.mywebsite.mapper.GradeRecordMapper;
+import com.example.mywebsite.mapper.GradeRowMapper;
+import com.example.mywebsite.mapper.StudentInfoMapper;
+import com.example.mywebsite.mapper.UserStudentRowMapper;
+import com.example.mywebsite.migration.SchemaMigrations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
-import jakarta.annotation.PostConstruct;
 
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.Set;
 
 @Service
 public class DatabaseService {
@@ -17,31 +40,30 @@ public class DatabaseService {
     private JdbcTemplate jdbcTemplate;
 
     @Autowired
-    private ScheduleService scheduleService;
+    private BulkSeedService bulkSeedService;
 
-    // Этот метод выполнится автоматически при запуске приложения
-    @PostConstruct
-    public void init() {
-        initTable();
-        initAcademicTables();
-        initTestUsersAndStudents();
-        initExportTables();
-        scheduleService.initScheduleTable();
-    }
+    @Autowired
+    private UserService userService;
+
+    private final GradeRowMapper gradeRowMapper = new GradeRowMapper();
+    private final StudentInfoMapper studentInfoMapper = new StudentInfoMapper();
+    private final GradeRecordMapper gradeRecordMapper = new GradeRecordMapper();
+    private final ExportJobMapper exportJobMapper = new ExportJobMapper();
+    private final UserStudentRowMapper userStudentRowMapper = new UserStudentRowMapper();
+
+    private static final String EXPORT_JOB_SELECT = """
+        SELECT h.id, h.user_id, u.email, h.format, h.file_name, h.status, h.attempts,
+            h.file_url, h.error_message, h.export_date, h.updated_date
+        FROM export_history h
+        JOIN users u ON h.user_id = u.id
+        """;
 
     // Создаем простую таблицу для сообщений
     public void initTable() {
         try {
             System.out.println("Пытаемся создать таблицу...");
             
-            jdbcTemplate.execute("""
-                IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='simple_messages' AND xtype='U')
-                CREATE TABLE simple_messages (
-                    id INT IDENTITY(1,1) PRIMARY KEY,
-                    text NVARCHAR(255),
-                    created_date DATETIME DEFAULT GETDATE()
-                )
-            """);
+            jdbcTemplate.execute(SchemaMigrations.SIMPLE_MESSAGES_TABLE);
             
             System.out.println("Таблица simple_messages создана или уже существует");
             
@@ -96,56 +118,8 @@ public class DatabaseService {
         }
     }
 
-    public void initAcademicTables() {
-        try {
-            // Таблица предметов
-            jdbcTemplate.execute("""
-                IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='subjects' AND xtype='U')
-                CREATE TABLE subjects (
-                    id INT IDENTITY(1,1) PRIMARY KEY,
-                    name NVARCHAR(100) NOT NULL,
-                    description NVARCHAR(255)
-                )
-            """);
-            
-            // Таблица студентов
-            jdbcTemplate.execute("""
-                IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='students' AND xtype='U')
-                CREATE TABLE students (
-                    id INT IDENTITY(1,1) PRIMARY KEY,
-                    user_id INT,
-                    full_name NVARCHAR(100) NOT NULL,
-                    group_name NVARCHAR(50),
-                    FOREIGN KEY (user_id) REFERENCES users(id)
-                )
-            """);
-            
-            // Таблица оценок
-            jdbcTemplate.execute("""
-                IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='grades' AND xtype='U')
-                CREATE TABLE grades (
-                    id INT IDENTITY(1,1) PRIMARY KEY,
-                    student_id INT NOT NULL,
-                    subject_id INT NOT NULL,
-                    grade INT NOT NULL,
-                    exam_date DATE,
-                    created_date DATETIME DEFAULT GETDATE(),
-                    FOREIGN KEY (student_id) REFERENCES students(id),
-                    FOREIGN KEY (subject_id) REFERENCES subjects(id)
-                )
-            """);
-            
-            // Добавляем тестовые данные
-            addTestAcademicData();
-            
-            System.out.println("Академические таблицы созданы или уже существуют");
-        } catch (Exception e) {
-            System.err.println("Ошибка при создании академических таблиц: " + e.getMessage());
-        }
-    }
-
-    // Метод для добавления тестовых данных
-    private void addTestAcademicData() {
+    // Метод для добавления тестовых данных; false — ошибка (уже залогирована)
+    public boolean addTestAcademicData() {
         try {
             // Добавляем предметы
             Integer subjectsCount = jdbcTemplate.queryForObject(
@@ -244,8 +218,10 @@ public class DatabaseService {
                     System.out.println("Добавлены тестовые оценки");
                 }
             }
+            return true;
         } catch (Exception e) {
             System.err.println("Ошибка при добавлении тестовых данных: " + e.getMessage());
+            return false;
         }
     }
 
@@ -322,6 +298,7 @@ public class DatabaseService {
     public void clearGoogleId(Integer userId) {
         try {
             jdbcTemplate.update("UPDATE users SET google_id = NULL WHERE id = ?", userId);
+            userService.evictAllUsers();
             System.out.println("Очищен Google ID у пользователя с ID: " + userId);
         } catch (Exception e) {
             System.err.println("Ошибка при очистке Google ID: " + e.getMessage());
@@ -331,6 +308,7 @@ public class DatabaseService {
     public void clearGithubId(Integer userId) {
         try {
             jdbcTemplate.update("UPDATE users SET github_id = NULL WHERE id = ?", userId);
+            userService.evictAllUsers();
             System.out.println("Очищен GitHub ID у пользователя с ID: " + userId);
         } catch (Exception e) {
             System.err.println("Ошибка при очистке GitHub ID: " + e.getMessage());
@@ -375,162 +353,32 @@ public class DatabaseService {
         }
     }
 
-    public void initTestUsersAndStudents() {
+    // false — ошибка (уже залогирована)
+    public boolean initTestUsersAndStudents() {
         try {
             System.out.println("=== Инициализация тестовых пользователей и студентов ===");
             
             // Создаем 10 тестовых пользователей если их нет
+            List<String> emails = new ArrayList<>();
             for (int i = 1; i <= 10; i++) {
-                String email = String.format("student%d@university.edu", i);
-                
-                // Проверяем существование пользователя
-                Integer userExists = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, email);
-                
-                if (userExists == null || userExists == 0) {
-                    // Создаем пользователя
-                    jdbcTemplate.update(
-                        "INSERT INTO users (password, email) VALUES (?, ?)",
-                        "password123", email
-                    );
-                    System.out.println("Создан пользователь: " + email);
-                }
+                emails.add(String.format("student%d@university.edu", i));
             }
+            int usersCreated = bulkSeedService.createUsers(emails, "password123");
             
-            // Создаем студентов для всех пользователей
-            initStudentsForAllUsers();
+            // Создаем студентов для всех пользователей без студента
+            int studentsCreated = bulkSeedService.createStudentsForUsersWithoutStudents();
             
-            // Создаем уникальные оценки для каждого студента
-            initGradesForAllStudents();
+            // Создаем уникальные оценки для каждого студента без оценок
+            int gradesCreated = bulkSeedService.createGradesForStudentsWithoutGrades();
             
-            System.out.println("=== Завершена инициализация тестовых данных ===");
+            System.out.println("=== Завершена инициализация тестовых данных: пользователей " + usersCreated +
+                ", студентов " + studentsCreated + ", оценок " + gradesCreated + " ===");
+            return true;
             
         } catch (Exception e) {
             System.err.println("Ошибка при создании тестовых пользователей: " + e.getMessage());
             e.printStackTrace();
-        }
-    }
-
-    private void initStudentsForAllUsers() {
-        try {
-            System.out.println("=== Создание студентов для пользователей ===");
-            
-            // Получаем всех пользователей
-            List<Map<String, Object>> users = jdbcTemplate.queryForList(
-                "SELECT id, email FROM users ORDER BY id");
-            
-            // Список возможных ФИО и групп
-            String[] firstNames = {"Иван", "Алексей", "Дмитрий", "Сергей", "Андрей", 
-                                  "Мария", "Анна", "Екатерина", "Ольга", "Наталья"};
-            String[] lastNames = {"Иванов", "Петров", "Сидоров", "Кузнецов", "Смирнов", 
-                                 "Попов", "Васильев", "Михайлов", "Фёдоров", "Морозов"};
-            String[] middleNames = {"Александрович", "Сергеевич", "Дмитриевич", "Андреевич", 
-                                   "Владимирович", "Алексеевич", "Игоревич", "Юрьевич", 
-                                   "Олегович", "Николаевич"};
-            String[] groups = {"ИТ-21", "ИТ-22", "ИТ-23", "КБ-21", "КБ-22", 
-                              "ПИ-21", "ПИ-22", "СА-21", "СА-22", "РП-21"};
-            
-            Random random = new Random();
-            
-            for (Map<String, Object> user : users) {
-                Integer userId = (Integer) user.get("id");
-                String email = (String) user.get("email");
-                
-                // Проверяем, есть ли уже студент у этого пользователя
-                Integer studentExists = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM students WHERE user_id = ?", Integer.class, userId);
-                
-                if (studentExists == null || studentExists == 0) {
-                    // Генерируем уникальное ФИО и группу
-                    String firstName = firstNames[random.nextInt(firstNames.length)];
-                    String lastName = lastNames[random.nextInt(lastNames.length)];
-                    String middleName = middleNames[random.nextInt(middleNames.length)];
-                    String group = groups[random.nextInt(groups.length)];
-                    
-                    String fullName = lastName + " " + firstName + " " + middleName;
-                    
-                    // Создаем студента
-                    jdbcTemplate.update(
-                        "INSERT INTO students (user_id, full_name, group_name) VALUES (?, ?, ?)",
-                        userId, fullName, group
-                    );
-                    
-                    System.out.println("Создан студент: " + fullName + " (" + group + 
-                                     ") для пользователя " + email);
-                } else {
-                    System.out.println("Студент уже существует для пользователя " + email);
-                }
-            }
-            
-        } catch (Exception e) {
-            System.err.println("Ошибка при создании студентов: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    private void initGradesForAllStudents() {
-        try {
-            System.out.println("=== Создание оценок для студентов ===");
-            
-            // Получаем всех студентов
-            List<Map<String, Object>> students = jdbcTemplate.queryForList(
-                "SELECT s.id as student_id, s.full_name, u.email " +
-                "FROM students s " +
-                "JOIN users u ON s.user_id = u.id " +
-                "ORDER BY s.id");
-            
-            // Получаем все предметы
-            List<Map<String, Object>> subjects = jdbcTemplate.queryForList(
-                "SELECT id, name FROM subjects ORDER BY id");
-            
-            if (subjects.isEmpty()) {
-                System.out.println("Нет предметов для создания оценок!");
-                return;
-            }
-            
-            Random random = new Random();
-            
-            for (Map<String, Object> student : students) {
-                Integer studentId = (Integer) student.get("student_id");
-                String studentName = (String) student.get("full_name");
-                
-                // Проверяем, есть ли уже оценки у этого студента
-                Integer gradesExist = jdbcTemplate.queryForObject(
-                    "SELECT COUNT(*) FROM grades WHERE student_id = ?", Integer.class, studentId);
-                
-                if (gradesExist == null || gradesExist == 0) {
-                    // Создаем оценки по каждому предмету
-                    for (Map<String, Object> subject : subjects) {
-                        Integer subjectId = (Integer) subject.get("id");
-                        String subjectName = (String) subject.get("name");
-                        
-                        // Генерируем случайную оценку (60-100)
-                        int grade = 60 + random.nextInt(41);
-                        
-                        // Генерируем случайную дату в пределах учебного года
-                        int month = 9 + random.nextInt(4); // сентябрь-декабрь
-                        int day = 1 + random.nextInt(28);
-                        int year = 2024;
-                        String examDate = String.format("%d-%02d-%02d", year, month, day);
-                        
-                        // Создаем оценку
-                        jdbcTemplate.update(
-                            "INSERT INTO grades (student_id, subject_id, grade, exam_date) " +
-                            "VALUES (?, ?, ?, ?)",
-                            studentId, subjectId, grade, examDate
-                        );
-                        
-                        System.out.println("Создана оценка: " + studentName + 
-                                         " - " + subjectName + ": " + grade);
-                    }
-                } else {
-                    System.out.println("Оценки уже существуют для студента " + studentName);
-                }
-            }
-            
-        } catch (Exception e) {
-            System.err.println("Ошибка при создании оценок: " + e.getMessage());
-            e.printStackTrace();
+            return false;
         }
     }
 
@@ -571,85 +419,271 @@ public class DatabaseService {
     }
 
     // Метод для получения информации о студенте по email пользователя
-    public Map<String, Object> getStudentInfoByUserEmail(String email) {
+    public StudentInfo getStudentInfoByUserEmail(String email) {
         try {
             String sql = """
-                SELECT s.full_name, s.group_name, u.email
+                SELECT s.full_name, s.group_name, u.email,
+                    (SELECT COUNT(*) FROM grades g WHERE g.student_id = s.id) as grades_count
                 FROM students s 
                 JOIN users u ON s.user_id = u.id 
                 WHERE u.email = ?
             """;
             
-            List<Map<String, Object>> results = jdbcTemplate.queryForList(sql, email);
-            if (!results.isEmpty()) {
-                Map<String, Object> studentInfo = results.get(0);
-                
-                // Добавляем информацию о количестве оценок
-                Integer studentId = getStudentIdByUserEmail(email);
-                if (studentId != null) {
-                    Integer gradesCount = jdbcTemplate.queryForObject(
-                        "SELECT COUNT(*) FROM grades WHERE student_id = ?", 
-                        Integer.class, studentId);
-                    studentInfo.put("grades_count", gradesCount != null ? gradesCount : 0);
-                }
-                
-                return studentInfo;
-            }
-            return null;
+            List<StudentInfo> results = jdbcTemplate.query(sql, studentInfoMapper, email);
+            return results.isEmpty() ? null : results.get(0);
         } catch (Exception e) {
             System.err.println("Ошибка при получении информации о студенте: " + e.getMessage());
             return null;
         }
     }
 
-    // Метод для получения всех пользователей и их студентов
-    public List<Map<String, Object>> getAllUsersWithStudents() {
+    // Загружаем студента, его оценки, средний балл и распределение одним запросом
+    public StudentDashboard getStudentDashboardByUserEmail(String email) {
         try {
             String sql = """
-                SELECT 
-                    u.id as user_id,
+                SELECT
+                    st.id as student_id,
+                    st.full_name,
+                    st.group_name,
                     u.email,
-                    u.created_date as user_created,
-                    COALESCE(s.full_name, 'Не назначен') as student_name,
-                    COALESCE(s.group_name, 'Не назначена') as student_group,
-                    COALESCE(s.id, 0) as student_id,
-                    (SELECT COUNT(*) FROM grades g WHERE g.student_id = s.id) as grades_count
+                    s.name as subject_name,
+                    s.description,
+                    g.grade,
+                    g.exam_date
                 FROM users u
-                LEFT JOIN students s ON u.id = s.user_id
-                ORDER BY u.id
+                JOIN students st ON st.user_id = u.id
+                LEFT JOIN grades g ON g.student_id = st.id
+                LEFT JOIN subjects s ON g.subject_id = s.id
+                WHERE u.email = ?
+                ORDER BY st.id, g.exam_date DESC
             """;
-            
-            return jdbcTemplate.queryForList(sql);
+
+            return jdbcTemplate.query(sql, rs -> {
+                if (!rs.next()) {
+                    return StudentDashboard.empty();
+                }
+
+                // Берем первого студента пользователя (как getStudentIdByUserEmail)
+                int studentId = rs.getInt("student_id");
+                String fullName = rs.getString("full_name");
+                String groupName = rs.getString("group_name");
+                String userEmail = rs.getString("email");
+
+                List<GradeRow> grades = new ArrayList<>();
+                do {
+                    if (rs.getInt("student_id") != studentId) {
+                        break;
+                    }
+                    // Студент без оценок: LEFT JOIN дает одну строку с пустой оценкой
+                    if (rs.getObject("grade") == null) {
+                        continue;
+                    }
+                    grades.add(gradeRowMapper.mapRow(rs, grades.size()));
+                } while (rs.next());
+
+                StudentInfo studentInfo = new StudentInfo(fullName, groupName, userEmail, grades.size());
+                return StudentDashboard.of(studentInfo, grades);
+            }, email);
         } catch (Exception e) {
-            System.err.println("Ошибка при получении пользователей со студентами: " + e.getMessage());
-            return List.of();
+            System.err.println("Ошибка при загрузке данных студента: " + e.getMessage());
+            return StudentDashboard.empty();
         }
     }
 
-    // Метод для отладки: показывает связь пользователей и студентов
+    // Получаем оценку вместе с владельцем (студент, пользователь, группа)
+    public GradeRecord findGradeById(int gradeId) {
+        try {
+            List<GradeRecord> results = jdbcTemplate.query("""
+                SELECT g.id, g.student_id, g.subject_id, g.grade, g.exam_date,
+                    st.user_id, u.email, st.group_name
+                FROM grades g
+                JOIN students st ON g.student_id = st.id
+                LEFT JOIN users u ON st.user_id = u.id
+                WHERE g.id = ?
+                """, gradeRecordMapper, gradeId);
+            return results.isEmpty() ? null : results.get(0);
+        } catch (Exception e) {
+            System.err.println("Ошибка при получении оценки: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Добавляем оценку и возвращаем ее id
+    public Integer insertGrade(int studentId, int subjectId, int grade, LocalDate examDate) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO grades (student_id, subject_id, grade, exam_date) VALUES (?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS);
+            ps.setInt(1, studentId);
+            ps.setInt(2, subjectId);
+            ps.setInt(3, grade);
+            ps.setDate(4, examDate != null ? java.sql.Date.valueOf(examDate) : null);
+            return ps;
+        }, keyHolder);
+        Number key = keyHolder.getKey();
+        return key != null ? key.intValue() : null;
+    }
+
+    // examDate = null — дата экзамена остается прежней
+    public boolean updateGrade(int gradeId, int grade, LocalDate examDate) {
+        int updated = jdbcTemplate.update(
+            "UPDATE grades SET grade = ?, exam_date = COALESCE(?, exam_date) WHERE id = ?",
+            grade, new SqlParameterValue(Types.DATE, examDate != null ? java.sql.Date.valueOf(examDate) : null), gradeId);
+        return updated > 0;
+    }
+
+    public boolean deleteGrade(int gradeId) {
+        return jdbcTemplate.update("DELETE FROM grades WHERE id = ?", gradeId) > 0;
+    }
+
+    // Колонки строки списка пользователей. Число оценок считается один раз на студента
+    // в производной таблице и присоединяется, а не подзапросом на каждую строку
+    private static final String USER_STUDENT_ROWS = """
+        WITH rows AS (
+            SELECT
+                u.id AS user_id,
+                u.email,
+                u.created_date AS user_created,
+                s.id AS student_id,
+                COALESCE(s.id, 0) AS student_key,
+                s.full_name AS student_name,
+                s.group_name AS student_group,
+                COALESCE(gc.grades_count, 0) AS grades_count
+            FROM users u
+            LEFT JOIN students s ON s.user_id = u.id
+            LEFT JOIN (
+                SELECT student_id, COUNT(*) AS grades_count
+                FROM grades
+                GROUP BY student_id
+            ) gc ON gc.student_id = s.id
+        )
+        """;
+
+    // Страница пользователей со студентами и числом оценок. Пагинация по ключу:
+    // строки после курсора в порядке (значение сортировки, user_id, student_key),
+    // поэтому стоимость страницы не растет с ее номером
+    public UserStudentPage getUsersWithStudents(UserStudentQuery query) {
+        String op = query.descending() ? "<" : ">";
+        String dir = query.descending() ? " DESC" : "";
+        StringBuilder sql = new StringBuilder(USER_STUDENT_ROWS)
+            .append("SELECT TOP (?) user_id, email, user_created, student_id, student_key, ")
+            .append("student_name, student_group, grades_count FROM rows WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        args.add(query.limit() + 1);
+
+        if (query.group() != null) {
+            sql.append(" AND student_group = ?");
+            args.add(query.group());
+        }
+        if (query.emailPrefix() != null) {
+            sql.append(" AND email LIKE ? ESCAPE '\\'");
+            args.add(query.emailPrefix().replaceAll("([\\\\%_\\[])", "\\\\$1") + "%");
+        }
+        if (query.minGrades() != null) {
+            sql.append(" AND grades_count >= ?");
+            args.add(query.minGrades());
+        }
+
+        UserStudentQuery.Cursor after = query.after();
+        String order = switch (query.sort()) {
+            case ID -> {
+                if (after != null) {
+                    sql.append(" AND (user_id ").append(op).append(" ? OR (user_id = ? AND student_key ")
+                        .append(op).append(" ?))");
+                    args.addAll(List.of(after.userId(), after.userId(), after.studentKey()));
+                }
+                yield "user_id" + dir + ", student_key" + dir;
+            }
+            case EMAIL -> {
+                // email уникален, поэтому при равенстве email различаются только студенты
+                if (after != null) {
+                    sql.append(" AND (email ").append(op).append(" ? OR (email = ? AND student_key ")
+                        .append(op).append(" ?))");
+                    args.addAll(List.of(after.value(), after.value(), after.studentKey()));
+                }
+                yield "email" + dir + ", student_key" + dir;
+            }
+            case GRADES -> {
+                if (after != null) {
+                    int grades = Integer.parseInt(after.value());
+                    sql.append(" AND (grades_count ").append(op).append(" ? OR (grades_count = ? AND (user_id ")
+                        .append(op).append(" ? OR (user_id = ? AND student_key ").append(op).append(" ?))))");
+                    args.addAll(List.of(grades, grades, after.userId(), after.userId(), after.studentKey()));
+                }
+                yield "grades_count" + dir + ", user_id" + dir + ", student_key" + dir;
+            }
+        };
+        sql.append(" ORDER BY ").append(order);
+
+        List<UserStudentRow> rows = jdbcTemplate.query(sql.toString(), userStudentRowMapper, args.toArray());
+        if (rows.size() <= query.limit()) {
+            return new UserStudentPage(rows, null, query.limit());
+        }
+
+        List<UserStudentRow> items = rows.subList(0, query.limit());
+        UserStudentRow last = items.get(items.size() - 1);
+        String value = switch (query.sort()) {
+            case ID -> null;
+            case EMAIL -> last.email();
+            case GRADES -> String.valueOf(last.gradesCount());
+        };
+        UserStudentQuery.Cursor next = new UserStudentQuery.Cursor(query.sort(), query.descending(),
+            last.userId(), last.studentId() != null ? last.studentId() : 0, value);
+        return new UserStudentPage(List.copyOf(items), next.encode(), query.limit());
+    }
+
+    // Итоги для страницы пользователей и список групп для фильтра
+    public UserStudentSummary getUserStudentSummary() {
+        try {
+            Map<String, Object> counts = jdbcTemplate.queryForMap("""
+                SELECT
+                    (SELECT COUNT(*) FROM users) AS users,
+                    (SELECT COUNT(DISTINCT user_id) FROM students) AS with_students,
+                    (SELECT COUNT(DISTINCT s.user_id) FROM students s
+                        WHERE EXISTS (SELECT 1 FROM grades g WHERE g.student_id = s.id)) AS with_grades
+                """);
+            List<String> groups = jdbcTemplate.queryForList(
+                "SELECT DISTINCT group_name FROM students WHERE group_name IS NOT NULL ORDER BY group_name",
+                String.class);
+            return new UserStudentSummary(
+                ((Number) counts.get("users")).intValue(),
+                ((Number) counts.get("with_students")).intValue(),
+                ((Number) counts.get("with_grades")).intValue(),
+                groups);
+        } catch (Exception e) {
+            System.err.println("Ошибка при подсчете пользователей: " + e.getMessage());
+            return new UserStudentSummary(0, 0, 0, List.of());
+        }
+    }
+
+    // Метод для отладки: общие цифры и первая страница связи пользователей и студентов.
+    // Весь список в консоль не выводится: на десятках тысяч пользователей это долго,
+    // остальные страницы — на /debug/users-students и /admin/users-students
     public void debugUserStudentRelations() {
         try {
+            UserStudentSummary summary = getUserStudentSummary();
             System.out.println("=== DEBUG: Пользователи и студенты ===");
-            
-            List<Map<String, Object>> relations = getAllUsersWithStudents();
-            
-            System.out.println("Всего пользователей: " + relations.size());
+            System.out.println("Пользователей: " + summary.users() + ", со студентом: " + summary.withStudents() +
+                ", с оценками: " + summary.withGrades() + ", групп: " + summary.groups().size());
             System.out.println("--------------------------------------------------");
             System.out.printf("%-30s | %-25s | %-10s | %s%n", 
                 "Email", "ФИО студента", "Группа", "Оценок");
             System.out.println("--------------------------------------------------");
-            
-            for (Map<String, Object> relation : relations) {
-                String email = (String) relation.get("email");
-                String studentName = (String) relation.get("student_name");
-                String group = (String) relation.get("student_group");
-                Integer gradesCount = (Integer) relation.get("grades_count");
-                
-                System.out.printf("%-30s | %-25s | %-10s | %d%n", 
-                    email, studentName, group, gradesCount != null ? gradesCount : 0);
+
+            UserStudentPage page = getUsersWithStudents(UserStudentQuery.of(null, null, null, null, null, null, null));
+            for (UserStudentRow row : page.items()) {
+                System.out.printf("%-30s | %-25s | %-10s | %d%n",
+                    row.email(),
+                    row.hasStudent() ? row.studentName() : "Не назначен",
+                    row.studentGroup() != null ? row.studentGroup() : "Не назначена",
+                    row.gradesCount());
             }
-            
+
             System.out.println("--------------------------------------------------");
+            if (page.hasMore()) {
+                System.out.println("Показаны первые " + page.items().size() + " строк");
+            }
             
         } catch (Exception e) {
             System.err.println("Ошибка при отладке связей: " + e.getMessage());
@@ -665,6 +699,7 @@ public class DatabaseService {
             jdbcTemplate.execute("DELETE FROM grades");
             jdbcTemplate.execute("DELETE FROM students");
             jdbcTemplate.execute("DELETE FROM users WHERE email != 'admin@example.com'");
+            userService.evictAllUsers();
             
             System.out.println("Старые тестовые данные удалены");
             
@@ -682,48 +717,6 @@ public class DatabaseService {
         }
     }
 
-    public void initExportTables() {
-        try {
-            // Таблица для хранения Google OAuth2 токенов
-            jdbcTemplate.execute("""
-                IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='user_google_tokens' AND xtype='U')
-                CREATE TABLE user_google_tokens (
-                    id INT IDENTITY(1,1) PRIMARY KEY,
-                    user_id INT NOT NULL,
-                    access_token NVARCHAR(2000),
-                    refresh_token NVARCHAR(1000),
-                    expires_at DATETIME,
-                    scope NVARCHAR(500),
-                    created_date DATETIME DEFAULT GETDATE(),
-                    updated_date DATETIME DEFAULT GETDATE(),
-                    FOREIGN KEY (user_id) REFERENCES users(id),
-                    UNIQUE (user_id)
-                )
-            """);
-            
-            // Таблица истории выгрузок
-            jdbcTemplate.execute("""
-                IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='export_history' AND xtype='U')
-                CREATE TABLE export_history (
-                    id INT IDENTITY(1,1) PRIMARY KEY,
-                    user_id INT NOT NULL,
-                    file_id NVARCHAR(255),
-                    file_name NVARCHAR(500),
-                    file_url NVARCHAR(1000),
-                    export_date DATETIME DEFAULT GETDATE(),
-                    status NVARCHAR(50),
-                    error_message NVARCHAR(2000),
-                    FOREIGN KEY (user_id) REFERENCES users(id)
-                )
-            """);
-            
-            System.out.println("Таблицы для экспорта созданы или уже существуют");
-        } catch (Exception e) {
-            System.err.println("Ошибка при создании таблиц для экспорта: " + e.getMessage());
-        }
-    }
-
-    // Методы для работы с Google токенами
     public void saveGoogleToken(Integer userId, String accessToken, String refreshToken, 
                           LocalDateTime expiresAt, String scope) {
         try {
@@ -797,25 +790,10 @@ public class DatabaseService {
         }
     }
 
-    public void saveExportHistory(Integer userId, String fileId, String fileName, 
-                                String fileUrl, String status, String errorMessage) {
-        try {
-            jdbcTemplate.update("""
-                INSERT INTO export_history 
-                (user_id, file_id, file_name, file_url, status, error_message)
-                VALUES (?, ?, ?, ?, ?, ?)
-                """, 
-                userId, fileId, fileName, fileUrl, status, errorMessage);
-            System.out.println("История экспорта сохранена для user_id: " + userId);
-        } catch (Exception e) {
-            System.err.println("Ошибка при сохранении истории экспорта: " + e.getMessage());
-        }
-    }
-
     public List<Map<String, Object>> getExportHistory(Integer userId) {
         try {
             return jdbcTemplate.queryForList("""
-                SELECT file_name, file_url, export_date, status
+                SELECT id, file_name, file_url, export_date, status, attempts, error_message
                 FROM export_history 
                 WHERE user_id = ?
                 ORDER BY export_date DESC
@@ -826,6 +804,51 @@ public class DatabaseService {
         }
     }
 
+    // Ставим задачу выгрузки в очередь; возвращает id задачи
+    public Integer insertExportJob(Integer userId, String fileName, String format) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                INSERT INTO export_history (user_id, file_name, format, status, attempts, updated_date)
+                VALUES (?, ?, ?, 'QUEUED', 0, GETDATE())
+                """, Statement.RETURN_GENERATED_KEYS);
+            ps.setInt(1, userId);
+            ps.setString(2, fileName);
+            ps.setString(3, format);
+            return ps;
+        }, keyHolder);
+        Number key = keyHolder.getKey();
+        return key != null ? key.intValue() : null;
+    }
+
+    public ExportJob findExportJob(int jobId) {
+        List<ExportJob> results = jdbcTemplate.query(EXPORT_JOB_SELECT + " WHERE h.id = ?", exportJobMapper, jobId);
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    // Незавершенные задачи (для восстановления очереди после перезапуска)
+    public List<ExportJob> findPendingExportJobs() {
+        return jdbcTemplate.query(EXPORT_JOB_SELECT + " WHERE h.status IN ('QUEUED', 'RUNNING') ORDER BY h.id",
+            exportJobMapper);
+    }
+
+    // Берем задачу в работу: только из QUEUED, чтобы одну задачу не выполнили дважды
+    public boolean startExportJob(int jobId) {
+        return jdbcTemplate.update("""
+            UPDATE export_history
+            SET status = 'RUNNING', attempts = attempts + 1, updated_date = GETDATE()
+            WHERE id = ? AND status = 'QUEUED'
+            """, jobId) > 0;
+    }
+
+    public void finishExportJob(int jobId, String status, String fileId, String fileUrl, String errorMessage) {
+        jdbcTemplate.update("""
+            UPDATE export_history
+            SET status = ?, file_id = ?, file_url = ?, error_message = ?, updated_date = GETDATE()
+            WHERE id = ?
+            """, status, fileId, fileUrl, errorMessage, jobId);
+    }
+
     // Проверяем, есть ли у пользователя токен Google Drive
     public boolean hasGoogleDriveToken(Integer userId) {
         try {
@@ -839,6 +862,21 @@ public class DatabaseService {
         }
     }
 
+    // Email всех пользователей, подключивших Google Drive (для массовой выгрузки)
+    public Set<String> getEmailsWithDriveAccess() {
+        try {
+            return new HashSet<>(jdbcTemplate.queryForList("""
+                SELECT u.email
+                FROM user_google_tokens t
+                JOIN users u ON u.id = t.user_id
+                WHERE t.access_token IS NOT NULL
+                """, String.class));
+        } catch (Exception e) {
+            System.err.println("Ошибка при получении пользователей с Google Drive: " + e.getMessage());
+            return Set.of();
+        }
+    }
+
     // Получаем токен для обновления
     public String getRefreshToken(Integer userId) {
         try {
@@ -0,0 +1,179 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.config.DriveUploadProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+// Загрузка на Google Drive по частям (uploadType=resumable).
+// Файл читается из потока частями chunkSize (кратно 256 КиБ), в памяти только текущая часть.
+// Следующая часть читается лишь после того, как сервер подтвердил текущую,
+// поэтому после обрыва загрузка продолжается с последнего подтвержденного байта:
+// позиция запрашивается через Content-Range: bytes */total и ответ 308 с заголовком Range.
+// Адрес сессии живет только в пределах одного вызова upload: повтор задачи выгрузки
+// открывает новую сессию и загружает файл с начала
+@Component
+public class DriveResumableUploader {
+
+    private static final int RESUME_INCOMPLETE = 308;
+
+    private final RestTemplate restTemplate;
+    private final DriveUploadProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public DriveResumableUploader(@Qualifier("googleRestTemplate") RestTemplate restTemplate,
+                                  DriveUploadProperties properties,
+                                  ObjectMapper objectMapper) {
+        this.restTemplate = restTemplate;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    // Загружает файл и возвращает его id на Drive. size — полный размер или -1, если неизвестен
+    public String upload(String uploadUrl, String accessToken, String fileName, String mimeType,
+                         InputStream content, long size) throws IOException {
+        URI session = startSession(uploadUrl, accessToken, fileName, mimeType, size);
+
+        int chunkSize = properties.getAlignedChunkSize();
+        byte[] buffer = new byte[chunkSize];
+        long chunkStart = 0;
+
+        while (true) {
+            int length = content.readNBytes(buffer, 0, chunkSize);
+            boolean last = length < chunkSize || (size >= 0 && chunkStart + length >= size);
+            long total = last ? chunkStart + length : size;
+
+            // Отправляем часть; если сервер принял не всё, досылаем остаток из буфера
+            long acknowledged = chunkStart;
+            int retries = 0;
+            while (true) {
+                ChunkResponse response;
+                try {
+                    int offset = (int) (acknowledged - chunkStart);
+                    response = putChunk(session, accessToken, buffer, offset, length - offset, acknowledged, total);
+                } catch (HttpServerErrorException | ResourceAccessException e) {
+                    if (++retries > properties.getMaxChunkRetries()) {
+                        throw new IOException("Загрузка прервана после " + retries + " попыток: " + e.getMessage(), e);
+                    }
+                    sleepBeforeRetry(retries);
+                    response = queryStatus(session, accessToken, total);
+                } catch (HttpClientErrorException e) {
+                    if (e.getStatusCode().value() != HttpStatus.TOO_MANY_REQUESTS.value()
+                            || ++retries > properties.getMaxChunkRetries()) {
+                        // 404/410 — сессия загрузки истекла, начинать нужно заново
+                        throw e;
+                    }
+                    sleepBeforeRetry(retries);
+                    response = queryStatus(session, accessToken, total);
+                }
+
+                if (response.fileId() != null) {
+                    return response.fileId();
+                }
+                acknowledged = response.acknowledged();
+                if (acknowledged < chunkStart || acknowledged > chunkStart + length) {
+                    throw new IOException("Сервер подтвердил неожиданную позицию " + acknowledged +
+                        " для части " + chunkStart + "-" + (chunkStart + length));
+                }
+                if (acknowledged == chunkStart + length) {
+                    break;
+                }
+            }
+
+            if (last) {
+                throw new IOException("Сервер не завершил загрузку после последней части");
+            }
+            chunkStart += length;
+        }
+    }
+
+    private URI startSession(String uploadUrl, String accessToken, String fileName,
+                             String mimeType, long size) throws IOException {
+        byte[] metadata = objectMapper.writeValueAsBytes(Map.of("name", fileName, "mimeType", mimeType));
+
+        URI location = restTemplate.execute(uploadUrl + "?uploadType=resumable", HttpMethod.POST, request -> {
+            HttpHeaders headers = request.getHeaders();
+            headers.setBearerAuth(accessToken);
+            headers.setContentType(new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8));
+            headers.set("X-Upload-Content-Type", mimeType);
+            if (size >= 0) {
+                headers.set("X-Upload-Content-Length", String.valueOf(size));
+            }
+            request.getBody().write(metadata);
+        }, response -> response.getHeaders().getLocation());
+
+        if (location == null) {
+            throw new IOException("Drive не вернул адрес сессии загрузки");
+        }
+        return location;
+    }
+
+    private ChunkResponse putChunk(URI session, String accessToken, byte[] buffer, int offset, int length,
+                                   long start, long total) {
+        String range = length == 0
+            ? "bytes */" + totalOrStar(total)
+            : "bytes " + start + "-" + (start + length - 1) + "/" + totalOrStar(total);
+        return restTemplate.execute(session, HttpMethod.PUT, request -> {
+            request.getHeaders().setBearerAuth(accessToken);
+            request.getHeaders().set(HttpHeaders.CONTENT_RANGE, range);
+            request.getHeaders().setContentLength(length);
+            request.getBody().write(buffer, offset, length);
+        }, response -> readResponse(response.getStatusCode().value(), response.getHeaders(), response.getBody()));
+    }
+
+    // Узнаем, сколько байт сервер уже получил
+    private ChunkResponse queryStatus(URI session, String accessToken, long total) {
+        return putChunk(session, accessToken, new byte[0], 0, 0, 0, total);
+    }
+
+    private ChunkResponse readResponse(int status, HttpHeaders headers, InputStream body) throws IOException {
+        if (status == RESUME_INCOMPLETE) {
+            // Range: bytes=0-N — получены байты с 0 по N; без заголовка — ничего
+            String range = headers.getFirst(HttpHeaders.RANGE);
+            long acknowledged = 0;
+            if (range != null && range.contains("-")) {
+                acknowledged = Long.parseLong(range.substring(range.lastIndexOf('-') + 1).trim()) + 1;
+            }
+            return new ChunkResponse(acknowledged, null);
+        }
+        if (status == HttpStatus.OK.value() || status == HttpStatus.CREATED.value()) {
+            Map<?, ?> file = objectMapper.readValue(body, Map.class);
+            Object id = file.get("id");
+            if (id == null) {
+                throw new IOException("Drive не вернул id загруженного файла");
+            }
+            return new ChunkResponse(-1, id.toString());
+        }
+        throw new IOException("Неожиданный ответ Drive: " + status);
+    }
+
+    private void sleepBeforeRetry(int attempt) throws IOException {
+        try {
+            Thread.sleep(Math.min(500L << (attempt - 1), 16_000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Загрузка прервана", e);
+        }
+    }
+
+    private static String totalOrStar(long total) {
+        return total >= 0 ? String.valueOf(total) : "*";
+    }
+
+    private record ChunkResponse(long acknowledged, String fileId) {
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.config.ExportJobProperties;
+import com.example.mywebsite.dto.ExportJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Очередь выгрузок на Google Drive. Запрос только создает задачу (строка export_history
+// со статусом QUEUED) и сразу возвращает ее id; файл создается и загружается
+// в ограниченном пуле. Временные ошибки повторяются с удваивающейся паузой.
+// Состояние хранится в БД, поэтому незавершенные задачи переживают перезапуск
+@Service
+public class ExportJobService {
+
+    public enum Format { PDF, CSV }
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private PdfExportService pdfExportService;
+
+    @Autowired
+    private CsvExportService csvExportService;
+
+    @Autowired
+    private GoogleDriveService googleDriveService;
+
+    @Autowired
+    private ExportJobProperties properties;
+
+    @Autowired
+    @Qualifier("exportJobExecutor")
+    private ThreadPoolExecutor executor;
+
+    @Autowired
+    @Qualifier("exportRetryScheduler")
+    private ScheduledExecutorService retryScheduler;
+
+    // Создаем задачу и ставим ее в очередь; null если пользователь не найден
+    public ExportJob enqueue(String email, Format format) {
+        Integer userId = databaseService.getUserIdByEmail(email);
+        if (userId == null) {
+            return null;
+        }
+
+        Integer jobId = databaseService.insertExportJob(userId, fileName(email, format), format.name());
+        if (jobId == null) {
+            throw new IllegalStateException("Не удалось создать задачу выгрузки");
+        }
+        googleDriveService.clearExportHistoryCache(email);
+        submit(jobId);
+        return databaseService.findExportJob(jobId);
+    }
+
+    // Задача пользователя; чужие задачи не отдаем
+    public ExportJob getJob(int jobId, String email) {
+        ExportJob job = databaseService.findExportJob(jobId);
+        return job != null && email.equals(job.email()) ? job : null;
+    }
+
+    // После перезапуска возвращаем в очередь всё, что не успело завершиться
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingJobs() {
+        try {
+            List<ExportJob> pending = databaseService.findPendingExportJobs();
+            for (ExportJob job : pending) {
+                if (ExportJob.RUNNING.equals(job.status())) {
+                    // Выполнение прервано остановкой приложения
+                    databaseService.finishExportJob(job.id(), ExportJob.QUEUED, null, null, "Прервано перезапуском");
+                }
+                submit(job.id());
+            }
+            if (!pending.isEmpty()) {
+                System.out.println("Восстановлено задач выгрузки: " + pending.size());
+            }
+        } catch (Exception e) {
+            System.err.println("Ошибка при восстановлении очереди выгрузок: " + e.getMessage());
+        }
+    }
+
+    private void submit(int jobId) {
+        try {
+            executor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException e) {
+            // Очередь заполнена: задача остается QUEUED и пробуется позже
+            System.err.println("Очередь выгрузок заполнена, задача " + jobId + " отложена");
+            scheduleRetry(jobId, properties.getInitialBackoff().toMillis());
+        }
+    }
+
+    private void run(int jobId) {
+        if (!databaseService.startExportJob(jobId)) {
+            // Задачу уже взял другой поток или она завершена
+            return;
+        }
+        ExportJob job = databaseService.findExportJob(jobId);
+        if (job == null) {
+            return;
+        }
+
+        try {
+            byte[] content = Format.CSV.name().equals(job.format())
+                ? csvExportService.createCsvReport(job.email())
+                : pdfExportService.createGradesPdf(job.email());
+            if (content == null || content.length == 0) {
+                fail(job, "Ошибка при создании файла", true);
+                return;
+            }
+
+            Map<String, String> result = googleDriveService.uploadToDrive(job.email(), content, job.fileName());
+            if ("true".equals(result.get("success"))) {
+                databaseService.finishExportJob(jobId, ExportJob.SUCCESS,
+                    result.get("fileId"), result.get("fileUrl"), null);
+                googleDriveService.clearExportHistoryCache(job.email());
+                System.out.println("Задача выгрузки " + jobId + " выполнена: " + job.fileName());
+            } else {
+                String error = result.get("error") != null ? result.get("error") : "Неизвестная ошибка";
+                fail(job, error, "true".equals(result.get("retryable")));
+            }
+        } catch (Exception e) {
+            fail(job, e.getMessage(), true);
+        }
+    }
+
+    private void fail(ExportJob job, String error, boolean retryable) {
+        // job.attempts() уже учитывает текущую попытку
+        if (retryable && job.attempts() < properties.getMaxAttempts()) {
+            long delay = properties.getInitialBackoff().toMillis() << (job.attempts() - 1);
+            databaseService.finishExportJob(job.id(), ExportJob.QUEUED, null, null, error);
+            System.err.println("Задача выгрузки " + job.id() + ": " + error +
+                ". Повтор через " + delay + " мс (попытка " + job.attempts() + " из " + properties.getMaxAttempts() + ")");
+            scheduleRetry(job.id(), delay);
+        } else {
+            databaseService.finishExportJob(job.id(), ExportJob.ERROR, null, null, error);
+            System.err.println("Задача выгрузки " + job.id() + " завершилась ошибкой: " + error);
+        }
+        googleDriveService.clearExportHistoryCache(job.email());
+    }
+
+    private void scheduleRetry(int jobId, long delayMs) {
+        retryScheduler.schedule(() -> submit(jobId), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private String fileName(String email, Format format) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        return format == Format.CSV
+            ? csvExportService.getCsvFileName(email)
+            : String.format("Оценки_%s_%s.pdf", email.replace("@", "_"), timestamp);
+    }
+}
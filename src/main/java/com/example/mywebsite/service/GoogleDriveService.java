@@ -1,25 +1,48 @@
 // GoogleDriveService.java - новый файл
 package com.example.mywebsite.service;
 
+import com.example.mywebsite.config.DriveUploadProperties;
+import com.example.mywebsite.config.HttpClientProperties;
+import com.example.mywebsite.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import jakarta.annotation.PostConstruct;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class GoogleDriveService {
 
     @Autowired
     private DatabaseService databaseService;
+
+    // id пользователя по email — из кэша профилей UserService, который сбрасывается
+    // при каждой записи в users (evictUser / evictAllUsers)
+    @Autowired
+    private UserService userService;
     
     @Value("${spring.security.oauth2.client.registration.google.client-id:}")
     private String clientId;
@@ -27,12 +50,61 @@ public class GoogleDriveService {
     @Value("${spring.security.oauth2.client.registration.google.client-secret:}")
     private String clientSecret;
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    @Qualifier("googleRestTemplate")
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private HttpClientProperties httpProperties;
+
+    @Autowired
+    private DriveUploadProperties uploadProperties;
+
+    @Autowired
+    private DriveResumableUploader resumableUploader;
+
+    @Autowired
+    @Qualifier("driveTokenScheduler")
+    private ScheduledExecutorService tokenScheduler;
+
+    // Актуальные access token по id пользователя: при загрузке токен не читается из базы.
+    // Ограничен по размеру и сроку (app.drive.token-cache-*), создается в init()
+    private Cache<Integer, CachedToken> tokens;
+
+    // Идущие обновления токена: параллельные загрузки одного пользователя ждут один запрос к Google
+    private final Map<Integer, CompletableFuture<CachedToken>> refreshes = new ConcurrentHashMap<>();
+
+    private static final class CachedToken {
+        final String accessToken;
+        final LocalDateTime expiresAt;
+        // Токен использовали с момента получения: только такие обновляем в фоне
+        final AtomicBoolean used = new AtomicBoolean();
+        volatile ScheduledFuture<?> scheduledRefresh;
+
+        CachedToken(String accessToken, LocalDateTime expiresAt) {
+            this.accessToken = accessToken;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        tokens = Caffeine.newBuilder()
+            .maximumSize(uploadProperties.getTokenCacheMaxSize())
+            .expireAfterWrite(uploadProperties.getTokenCacheExpireAfterWrite())
+            // Вытесненному токену фоновое обновление уже не нужно
+            .evictionListener((Integer userId, CachedToken token, RemovalCause cause) -> {
+                if (token != null && token.scheduledRefresh != null) {
+                    token.scheduledRefresh.cancel(false);
+                }
+            })
+            .build();
+    }
     
     // Получаем URL для авторизации Google Drive
     public String getGoogleDriveAuthUrl(String email) {
         try {
-            Integer userId = databaseService.getUserIdByEmail(email);
+            Integer userId = getUserId(email);
             if (userId == null) return null;
             
             String redirectUri = "http://localhost:8080/drive/callback";
@@ -73,7 +145,7 @@ public class GoogleDriveService {
             HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(params, headers);
             
             ResponseEntity<Map> response = restTemplate.postForEntity(
-                "https://oauth2.googleapis.com/token",
+                httpProperties.getGoogleTokenUrl(),
                 request,
                 Map.class
             );
@@ -88,6 +160,7 @@ public class GoogleDriveService {
                 String scope = "https://www.googleapis.com/auth/drive.file";
                 
                 databaseService.saveGoogleToken(userId, accessToken, refreshToken, expiresAt, scope);
+                cacheToken(userId, new CachedToken(accessToken, expiresAt));
                 return true;
             }
         } catch (Exception e) {
@@ -96,12 +169,37 @@ public class GoogleDriveService {
         return false;
     }
     
-    // Обновляем токен
+    // Обновляем токен. Если обновление для пользователя уже идет, ждем его результат
     public boolean refreshToken(Integer userId) {
+        return refreshOnce(userId) != null;
+    }
+
+    private CachedToken refreshOnce(Integer userId) {
+        CompletableFuture<CachedToken> refresh = new CompletableFuture<>();
+        CompletableFuture<CachedToken> inFlight = refreshes.putIfAbsent(userId, refresh);
+        if (inFlight != null) {
+            return inFlight.join();
+        }
+        try {
+            CachedToken token = requestNewToken(userId);
+            if (token != null) {
+                cacheToken(userId, token);
+            }
+            refresh.complete(token);
+            return token;
+        } catch (RuntimeException e) {
+            refresh.completeExceptionally(e);
+            throw e;
+        } finally {
+            refreshes.remove(userId, refresh);
+        }
+    }
+
+    private CachedToken requestNewToken(Integer userId) {
         try {
             String refreshToken = databaseService.getRefreshToken(userId);
             if (refreshToken == null || refreshToken.isEmpty()) {
-                return false;
+                return null;
             }
             
             MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
@@ -116,7 +214,7 @@ public class GoogleDriveService {
             HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(params, headers);
             
             ResponseEntity<Map> response = restTemplate.postForEntity(
-                "https://oauth2.googleapis.com/token",
+                httpProperties.getGoogleTokenUrl(),
                 request,
                 Map.class
             );
@@ -128,143 +226,240 @@ public class GoogleDriveService {
                 
                 LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(expiresIn);
                 databaseService.updateAccessToken(userId, accessToken, expiresAt);
-                return true;
+                return new CachedToken(accessToken, expiresAt);
             }
         } catch (Exception e) {
             System.err.println("Ошибка при обновлении токена: " + e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    // Актуальный access token: из кэша, при первом обращении из базы, при истечении — обновляем
+    private String getAccessToken(Integer userId) {
+        CachedToken token = tokens.getIfPresent(userId);
+        if (token == null) {
+            token = loadToken(userId);
+            if (token == null) {
+                return null;
+            }
+        }
+        if (!isFresh(token)) {
+            System.out.println("Токен истёк или скоро истечёт. Обновляем...");
+            token = refreshOnce(userId);
+            if (token == null) {
+                return null;
+            }
+        }
+        token.used.set(true);
+        return token.accessToken;
+    }
+
+    private CachedToken loadToken(Integer userId) {
+        Map<String, Object> tokenData = databaseService.getGoogleToken(userId);
+        if (tokenData == null) {
+            return null;
+        }
+        CachedToken token = new CachedToken(
+            (String) tokenData.get("access_token"), (LocalDateTime) tokenData.get("expires_at"));
+        if (isFresh(token)) {
+            cacheToken(userId, token);
+        }
+        return token;
+    }
+
+    // Токен годен, если до истечения больше tokenRefreshBefore
+    private boolean isFresh(CachedToken token) {
+        return token.accessToken != null && token.expiresAt != null
+            && token.expiresAt.isAfter(LocalDateTime.now().plus(uploadProperties.getTokenRefreshBefore()));
+    }
+
+    // Кладем токен в кэш и планируем его обновление до истечения срока
+    private void cacheToken(Integer userId, CachedToken token) {
+        CachedToken previous = tokens.asMap().put(userId, token);
+        if (previous != null && previous.scheduledRefresh != null) {
+            previous.scheduledRefresh.cancel(false);
+        }
+        if (token.expiresAt == null) {
+            return;
+        }
+        long delayMs = Duration.between(LocalDateTime.now(),
+            token.expiresAt.minus(uploadProperties.getTokenRefreshBefore())).toMillis();
+        token.scheduledRefresh = tokenScheduler.schedule(
+            () -> refreshInBackground(userId, token), Math.max(delayMs, 0), TimeUnit.MILLISECONDS);
+    }
+
+    private void refreshInBackground(Integer userId, CachedToken token) {
+        if (tokens.getIfPresent(userId) != token) {
+            return;
+        }
+        // Токеном никто не пользовался: просто убираем его, при следующей загрузке прочитаем из базы
+        if (!token.used.get()) {
+            tokens.asMap().remove(userId, token);
+            return;
+        }
+        try {
+            if (refreshOnce(userId) == null) {
+                tokens.asMap().remove(userId, token);
+            }
+        } catch (Exception e) {
+            System.err.println("Ошибка при фоновом обновлении токена: " + e.getMessage());
+            tokens.asMap().remove(userId, token);
+        }
+    }
+
+    private void forgetToken(Integer userId) {
+        CachedToken token = tokens.asMap().remove(userId);
+        if (token != null && token.scheduledRefresh != null) {
+            token.scheduledRefresh.cancel(false);
+        }
+    }
+
+    private Integer getUserId(String email) {
+        User user = userService.findByEmail(email);
+        return user != null ? user.getId() : null;
     }
     
-    // Загружаем файл на Google Drive
+    // Загружаем файл на Google Drive. История выгрузок здесь не пишется:
+    // статус задачи ведет ExportJobService
     public Map<String, String> uploadToDrive(String email, byte[] fileContent, String fileName) {
+        if (fileContent.length >= uploadProperties.getResumableThreshold()) {
+            return uploadToDrive(email, new ByteArrayInputStream(fileContent), fileContent.length, fileName);
+        }
+        return upload(email, fileName, (accessToken, mimeType) -> uploadMultipart(accessToken, fileContent, fileName, mimeType));
+    }
+
+    // Загрузка из потока по частям (uploadType=resumable); size = -1, если размер неизвестен
+    public Map<String, String> uploadToDrive(String email, InputStream content, long size, String fileName) {
+        return upload(email, fileName, (accessToken, mimeType) -> resumableUploader.upload(
+            httpProperties.getGoogleUploadUrl(), accessToken, fileName, mimeType, content, size));
+    }
+
+    @FunctionalInterface
+    private interface DriveUpload {
+        String upload(String accessToken, String mimeType) throws Exception;
+    }
+
+    private Map<String, String> upload(String email, String fileName, DriveUpload upload) {
         Map<String, String> result = new HashMap<>();
         
         try {
-            Integer userId = databaseService.getUserIdByEmail(email);
+            Integer userId = getUserId(email);
             if (userId == null) {
                 result.put("error", "Пользователь не найден");
                 return result;
             }
             
-            // 1. ПОЛУЧАЕМ ТОКЕН ИЗ БАЗЫ
-            Map<String, Object> tokenData = databaseService.getGoogleToken(userId);
-            if (tokenData == null) {
-                result.put("error", "Требуется авторизация в Google Drive");
+            // Токен берется из кэша; база и Google — только при первом обращении и при истечении
+            String accessToken = getAccessToken(userId);
+            if (accessToken == null) {
+                result.put("error", databaseService.hasGoogleDriveToken(userId)
+                    ? "Не удалось обновить токен. Требуется повторная авторизация"
+                    : "Требуется авторизация в Google Drive");
                 return result;
             }
             
-            String accessToken = (String) tokenData.get("access_token");
-            LocalDateTime expiresAt = (LocalDateTime) tokenData.get("expires_at");
-            
-            // 2. ВАЖНО: ПРОВЕРЯЕМ И ОБНОВЛЯЕМ ТОКЕН ПЕРЕД ИСПОЛЬЗОВАНИЕМ
-            if (expiresAt == null || expiresAt.isBefore(LocalDateTime.now().minusMinutes(5))) {
-                System.out.println("Токен истёк или скоро истечёт. Обновляем...");
-                if (!refreshToken(userId)) {
-                    result.put("error", "Не удалось обновить токен. Требуется повторная авторизация");
-                    return result;
-                }
-                // Получаем обновлённый токен
-                tokenData = databaseService.getGoogleToken(userId);
-                if (tokenData == null) {
-                    result.put("error", "Токен не найден после обновления");
-                    return result;
-                }
-                accessToken = (String) tokenData.get("access_token");
-            }
-            
-            // 3. ТЕПЕРЬ ЗАГРУЖАЕМ ФАЙЛ С АКТУАЛЬНЫМ ТОКЕНОМ
-            // Создаем метаданные файла
-            String mimeType;
-            if (fileName.toLowerCase().endsWith(".csv")) {
-                mimeType = "text/csv";
-            } else if (fileName.toLowerCase().endsWith(".pdf")) {
-                mimeType = "application/pdf";
-            } else {
-                mimeType = "text/plain";
+            String fileId;
+            try {
+                fileId = upload.upload(accessToken, mimeTypeOf(fileName));
+            } catch (HttpClientErrorException.Unauthorized e) {
+                // Токен отозван раньше срока: при повторе задачи он будет получен заново
+                forgetToken(userId);
+                throw e;
             }
-            
-            // Создаем метаданные файла
-            String fileMetadata = String.format("""
-                {
-                    "name": "%s",
-                    "mimeType": "%s"
-                }
-                """, fileName, mimeType);
-            
-            // Подготавливаем multipart запрос
-            String boundary = "boundary_" + System.currentTimeMillis();
-            
-            StringBuilder requestBody = new StringBuilder();
-            requestBody.append("--").append(boundary).append("\r\n");
-            requestBody.append("Content-Type: application/json; charset=UTF-8\r\n\r\n");
-            requestBody.append(fileMetadata).append("\r\n");
-            
-            requestBody.append("--").append(boundary).append("\r\n");
-            requestBody.append("Content-Type: application/pdf\r\n\r\n");
-            
-            // Собираем все части
-            byte[] metadataPart = requestBody.toString().getBytes("UTF-8");
-            byte[] filePart = fileContent;
-            byte[] boundaryEnd = ("\r\n--" + boundary + "--\r\n").getBytes("UTF-8");
-            
-            byte[] fullBody = new byte[metadataPart.length + filePart.length + boundaryEnd.length];
-            System.arraycopy(metadataPart, 0, fullBody, 0, metadataPart.length);
-            System.arraycopy(filePart, 0, fullBody, metadataPart.length, filePart.length);
-            System.arraycopy(boundaryEnd, 0, fullBody, metadataPart.length + filePart.length, boundaryEnd.length);
-            
-            // Отправляем запрос
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + accessToken);
-            headers.setContentType(MediaType.parseMediaType("multipart/related; boundary=" + boundary));
-            
-            HttpEntity<byte[]> request = new HttpEntity<>(fullBody, headers);
-            
-            ResponseEntity<Map> response = restTemplate.exchange(
-                "https://www.googleapis.com/upload/drive/v3/files?uploadType=multipart",
-                HttpMethod.POST,
-                request,
-                Map.class
-            );
-            
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-                String fileId = (String) responseBody.get("id");
+            if (fileId != null) {
                 String fileUrl = "https://drive.google.com/file/d/" + fileId + "/view";
                 
-                // Сохраняем в историю
-                databaseService.saveExportHistory(userId, fileId, fileName, fileUrl, 
-                    "SUCCESS", null);
-                
                 result.put("fileId", fileId);
                 result.put("fileUrl", fileUrl);
                 result.put("fileName", fileName);
                 result.put("success", "true");
-                
-                return result;
             }
+            return result;
             
         } catch (Exception e) {
-            System.err.println("Ошибка при загрузке на Google Drive: " + e.getMessage());
-            e.printStackTrace();
-            
-            Integer userId = databaseService.getUserIdByEmail(email);
-            if (userId != null) {
-                databaseService.saveExportHistory(userId, null, fileName, null, 
-                    "ERROR", e.getMessage());
-            }
-            
-            result.put("error", "Ошибка при загрузке файла: " + e.getMessage());
+            return uploadError(e);
         }
+    }
+
+    private Map<String, String> uploadError(Exception e) {
+        System.err.println("Ошибка при загрузке на Google Drive: " + e.getMessage());
         
+        Map<String, String> result = new HashMap<>();
+        result.put("error", "Ошибка при загрузке файла: " + e.getMessage());
+        // Сетевые ошибки, 5xx, 429 и 401 (токен будет получен заново) можно повторить;
+        // прочие 4xx и ошибки авторизации выше — нет
+        boolean retryable = !(e instanceof HttpClientErrorException clientError)
+            || clientError.getStatusCode().value() == 429
+            || clientError.getStatusCode().value() == 401;
+        result.put("retryable", String.valueOf(retryable));
         return result;
     }
+
+    private String mimeTypeOf(String fileName) {
+        if (fileName.toLowerCase().endsWith(".csv")) {
+            return "text/csv";
+        } else if (fileName.toLowerCase().endsWith(".pdf")) {
+            return "application/pdf";
+        }
+        return "text/plain";
+    }
+
+    // Небольшие файлы уходят одним запросом (uploadType=multipart)
+    private String uploadMultipart(String accessToken, byte[] fileContent, String fileName, String mimeType) throws Exception {
+        // Создаем метаданные файла
+        String fileMetadata = String.format("""
+            {
+                "name": "%s",
+                "mimeType": "%s"
+            }
+            """, fileName, mimeType);
+        
+        // Подготавливаем multipart запрос
+        String boundary = "boundary_" + System.currentTimeMillis();
+        
+        StringBuilder requestBody = new StringBuilder();
+        requestBody.append("--").append(boundary).append("\r\n");
+        requestBody.append("Content-Type: application/json; charset=UTF-8\r\n\r\n");
+        requestBody.append(fileMetadata).append("\r\n");
+        
+        requestBody.append("--").append(boundary).append("\r\n");
+        requestBody.append("Content-Type: ").append(mimeType).append("\r\n\r\n");
+        
+        // Собираем все части
+        byte[] metadataPart = requestBody.toString().getBytes("UTF-8");
+        byte[] filePart = fileContent;
+        byte[] boundaryEnd = ("\r\n--" + boundary + "--\r\n").getBytes("UTF-8");
+        
+        byte[] fullBody = new byte[metadataPart.length + filePart.length + boundaryEnd.length];
+        System.arraycopy(metadataPart, 0, fullBody, 0, metadataPart.length);
+        System.arraycopy(filePart, 0, fullBody, metadataPart.length, filePart.length);
+        System.arraycopy(boundaryEnd, 0, fullBody, metadataPart.length + filePart.length, boundaryEnd.length);
+        
+        // Отправляем запрос
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + accessToken);
+        headers.setContentType(MediaType.parseMediaType("multipart/related; boundary=" + boundary));
+        
+        HttpEntity<byte[]> request = new HttpEntity<>(fullBody, headers);
+        
+        ResponseEntity<Map> response = restTemplate.exchange(
+            httpProperties.getGoogleUploadUrl() + "?uploadType=multipart",
+            HttpMethod.POST,
+            request,
+            Map.class
+        );
+        
+        if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+            return (String) response.getBody().get("id");
+        }
+        return null;
+    }
     
     // Получаем историю выгрузок
     @Cacheable(value = "exports", key = "#email")
     public List<Map<String, Object>> getExportHistory(String email) {
         try {
-            Integer userId = databaseService.getUserIdByEmail(email);
+            Integer userId = getUserId(email);
             if (userId != null) {
                 return databaseService.getExportHistory(userId);
             }
@@ -282,8 +477,8 @@ public class GoogleDriveService {
     // Проверяем авторизацию в Google Drive
     public boolean hasDriveAccess(String email) {
         try {
-            Integer userId = databaseService.getUserIdByEmail(email);
-            return userId != null && databaseService.hasGoogleDriveToken(userId);
+            Integer userId = getUserId(email);
+            return userId != null && (tokens.getIfPresent(userId) != null || databaseService.hasGoogleDriveToken(userId));
         } catch (Exception e) {
             System.err.println("Ошибка при проверке доступа к Drive: " + e.getMessage());
             return false;
@@ -293,9 +488,10 @@ public class GoogleDriveService {
     // Удаляем связь с Google Drive
     public boolean revokeDriveAccess(String email) {
         try {
-            Integer userId = databaseService.getUserIdByEmail(email);
+            Integer userId = getUserId(email);
             if (userId != null) {
                 databaseService.deleteGoogleToken(userId);
+                forgetToken(userId);
                 return true;
             }
         } catch (Exception e) {
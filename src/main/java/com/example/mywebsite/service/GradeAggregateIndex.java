@@ -0,0 +1,298 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.dto.GroupStats;
+import com.example.mywebsite.dto.StudentRank;
+import com.example.mywebsite.dto.SubjectStats;
+import com.example.mywebsite.event.GradeChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Сводки по группам и предметам в памяти: распределение оценок, средние и рейтинг студентов.
+// Строится одним проходом по таблицам при запуске и обновляется по GradeChangedEvent
+// только для затронутых группы и предмета. Чтение — поиск готового снимка в HashMap,
+// без запросов к БД. Изменения применяются под общей блокировкой; значения оценок
+// хранятся по id, поэтому повторное или запоздавшее событие не исказит суммы
+@Service
+public class GradeAggregateIndex {
+
+    private static final int FETCH_SIZE = 1_000;
+    private static final int DISTRIBUTION_WIDTH = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Index index = new Index();
+    private volatile boolean ready;
+
+    // Набор сводок; при перестроении заменяется целиком
+    private static final class Index {
+        final Map<String, GroupState> groups = new HashMap<>();
+        final Map<Integer, SubjectState> subjects = new HashMap<>();
+        final Map<Integer, StudentEntry> students = new HashMap<>();
+        // id оценки -> (студент, предмет, значение)
+        final Map<Integer, int[]> grades = new HashMap<>();
+        // Снимки для чтения без блокировки
+        volatile Map<String, GroupSnapshot> groupSnapshots = Map.of();
+        volatile Map<Integer, SubjectStats> subjectSnapshots = Map.of();
+    }
+
+    private static final class StudentEntry {
+        final int id;
+        final String fullName;
+        final String group;
+        long sum;
+        int count;
+
+        StudentEntry(int id, String fullName, String group) {
+            this.id = id;
+            this.fullName = fullName;
+            this.group = group;
+        }
+
+        Double average() {
+            return count > 0 ? (double) sum / count : null;
+        }
+    }
+
+    private static final class GroupState {
+        final String name;
+        final GradeStatistics.Accumulator grades = new GradeStatistics.Accumulator();
+        final Map<Integer, StudentEntry> students = new LinkedHashMap<>();
+
+        GroupState(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class SubjectState {
+        final int id;
+        final String name;
+        final GradeStatistics.Accumulator grades = new GradeStatistics.Accumulator();
+
+        SubjectState(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    private record GroupSnapshot(GroupStats stats, Map<Integer, StudentRank> byStudent) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("Ошибка при построении сводок по группам и предметам: " + e.getMessage());
+        }
+    }
+
+    // Полное перестроение: при запуске и после массовой загрузки данных в обход GradeService
+    public synchronized Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        Index built = new Index();
+
+        jdbcTemplate.query("SELECT id, name FROM subjects", rs -> {
+            int id = rs.getInt("id");
+            built.subjects.put(id, new SubjectState(id, rs.getString("name")));
+        });
+        jdbcTemplate.query("SELECT id, full_name, group_name FROM students", rs -> {
+            register(built, new StudentEntry(rs.getInt("id"), rs.getString("full_name"), rs.getString("group_name")));
+        });
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id, student_id, subject_id, grade FROM grades");
+            ps.setFetchSize(FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            add(built, rs.getInt("id"), rs.getInt("student_id"), rs.getInt("subject_id"), rs.getInt("grade"));
+        });
+
+        Map<String, GroupSnapshot> groupSnapshots = new HashMap<>();
+        built.groups.values().forEach(group -> groupSnapshots.put(group.name, snapshot(group)));
+        Map<Integer, SubjectStats> subjectSnapshots = new HashMap<>();
+        built.subjects.values().forEach(subject -> subjectSnapshots.put(subject.id, snapshot(subject)));
+        built.groupSnapshots = groupSnapshots;
+        built.subjectSnapshots = subjectSnapshots;
+
+        index = built;
+        ready = true;
+
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("Сводки построены за " + elapsed + " мс: групп " + built.groups.size() +
+            ", предметов " + built.subjects.size() + ", оценок " + built.grades.size());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("groups", built.groups.size());
+        result.put("subjects", built.subjects.size());
+        result.put("students", built.students.size());
+        result.put("grades", built.grades.size());
+        result.put("elapsedMs", elapsed);
+        return result;
+    }
+
+    @EventListener
+    public synchronized void onGradeChanged(GradeChangedEvent event) {
+        if (!ready) {
+            // Сводки еще не построены: оценка попадет в них при построении
+            return;
+        }
+        Index current = index;
+        int[] before = current.grades.get(event.gradeId());
+
+        try {
+            if (before != null) {
+                remove(current, event.gradeId());
+            }
+            if (event.type() != GradeChangedEvent.Type.DELETED && event.newGrade() != null) {
+                ensureStudent(current, event.studentId());
+                ensureSubject(current, event.subjectId());
+                add(current, event.gradeId(), event.studentId(), event.subjectId(), event.newGrade());
+            }
+        } catch (Exception e) {
+            System.err.println("Ошибка при обновлении сводок по оценке " + event.gradeId() + ": " + e.getMessage());
+        }
+
+        // Пересчитываем снимки только затронутых группы и предмета
+        Map<String, GroupSnapshot> groupSnapshots = new HashMap<>(current.groupSnapshots);
+        Map<Integer, SubjectStats> subjectSnapshots = new HashMap<>(current.subjectSnapshots);
+        for (int[] grade : new int[][]{before, current.grades.get(event.gradeId())}) {
+            if (grade == null) {
+                continue;
+            }
+            StudentEntry student = current.students.get(grade[0]);
+            if (student != null && student.group != null) {
+                groupSnapshots.put(student.group, snapshot(current.groups.get(student.group)));
+            }
+            SubjectState subject = current.subjects.get(grade[1]);
+            if (subject != null) {
+                subjectSnapshots.put(subject.id, snapshot(subject));
+            }
+        }
+        current.groupSnapshots = groupSnapshots;
+        current.subjectSnapshots = subjectSnapshots;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public GroupStats getGroup(String group) {
+        GroupSnapshot snapshot = index.groupSnapshots.get(group);
+        return snapshot != null ? snapshot.stats() : null;
+    }
+
+    public StudentRank getStudentRank(String group, int studentId) {
+        GroupSnapshot snapshot = index.groupSnapshots.get(group);
+        return snapshot != null ? snapshot.byStudent().get(studentId) : null;
+    }
+
+    public SubjectStats getSubject(int subjectId) {
+        return index.subjectSnapshots.get(subjectId);
+    }
+
+    private static void register(Index target, StudentEntry student) {
+        target.students.put(student.id, student);
+        if (student.group != null) {
+            target.groups.computeIfAbsent(student.group, GroupState::new).students.put(student.id, student);
+        }
+    }
+
+    private static void add(Index target, int gradeId, int studentId, int subjectId, int value) {
+        target.grades.put(gradeId, new int[]{studentId, subjectId, value});
+        StudentEntry student = target.students.get(studentId);
+        if (student != null) {
+            student.sum += value;
+            student.count++;
+            if (student.group != null) {
+                target.groups.get(student.group).grades.add(value);
+            }
+        }
+        SubjectState subject = target.subjects.get(subjectId);
+        if (subject != null) {
+            subject.grades.add(value);
+        }
+    }
+
+    private static void remove(Index target, int gradeId) {
+        int[] grade = target.grades.remove(gradeId);
+        if (grade == null) {
+            return;
+        }
+        StudentEntry student = target.students.get(grade[0]);
+        if (student != null) {
+            student.sum -= grade[2];
+            student.count--;
+            if (student.group != null) {
+                target.groups.get(student.group).grades.remove(grade[2]);
+            }
+        }
+        SubjectState subject = target.subjects.get(grade[1]);
+        if (subject != null) {
+            subject.grades.remove(grade[2]);
+        }
+    }
+
+    // Студент или предмет, созданные после построения сводок, дочитываем из БД
+    private void ensureStudent(Index target, int studentId) {
+        if (target.students.containsKey(studentId)) {
+            return;
+        }
+        jdbcTemplate.query("SELECT id, full_name, group_name FROM students WHERE id = ?", rs -> {
+            register(target, new StudentEntry(rs.getInt("id"), rs.getString("full_name"), rs.getString("group_name")));
+        }, studentId);
+    }
+
+    private void ensureSubject(Index target, int subjectId) {
+        if (target.subjects.containsKey(subjectId)) {
+            return;
+        }
+        jdbcTemplate.query("SELECT id, name FROM subjects WHERE id = ?", rs -> {
+            target.subjects.put(subjectId, new SubjectState(subjectId, rs.getString("name")));
+        }, subjectId);
+    }
+
+    private static GroupSnapshot snapshot(GroupState group) {
+        List<StudentEntry> ordered = new ArrayList<>(group.students.values());
+        ordered.sort(Comparator
+            .comparing(StudentEntry::average, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(student -> student.fullName, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        int size = ordered.size();
+        List<StudentRank> leaderboard = new ArrayList<>(size);
+        Map<Integer, StudentRank> byStudent = new HashMap<>();
+        Integer rank = null;
+        Double previous = null;
+        for (int i = 0; i < size; i++) {
+            StudentEntry student = ordered.get(i);
+            Double average = student.average();
+            if (average == null) {
+                rank = null;
+            } else if (!average.equals(previous)) {
+                rank = i + 1;
+            }
+            previous = average;
+            StudentRank entry = new StudentRank(rank, student.id, student.fullName, average, student.count, size);
+            leaderboard.add(entry);
+            byStudent.put(student.id, entry);
+        }
+
+        GroupStats stats = new GroupStats(group.name, size, group.grades.toStats(List.of()), List.copyOf(leaderboard));
+        return new GroupSnapshot(stats, byStudent);
+    }
+
+    private static SubjectStats snapshot(SubjectState subject) {
+        return new SubjectStats(subject.id, subject.name, subject.grades.toStats(List.of()),
+            subject.grades.distribution(DISTRIBUTION_WIDTH));
+    }
+}
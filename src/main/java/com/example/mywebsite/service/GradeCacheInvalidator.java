@@ -0,0 +1,42 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.event.GradeChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Сбрасывает кэши оценок студента сразу под обоими ключами: email и 'userid:<id>'
+@Component
+public class GradeCacheInvalidator {
+
+    static final List<String> STUDENT_CACHES = List.of("grades", "average", "student", "dashboard");
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @EventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        System.out.println("CACHE EVICT: " + event.type() + " оценки " + event.gradeId()
+            + " студента " + event.studentId());
+        evictStudent(event.userId(), event.userEmail());
+    }
+
+    public void evictStudent(Integer userId, String email) {
+        for (String cacheName : STUDENT_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            if (email != null) {
+                cache.evict(email);
+            }
+            if (userId != null) {
+                cache.evict("userid:" + userId);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.mywebsite.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.support.NullValue;
+
+// Загрузчик для refresh-ahead кэшей оценок. Ключи те же, что у @Cacheable
+// в GradeService: email пользователя или 'userid:<id>'
+public class GradeCacheLoader implements CacheLoader<Object, Object> {
+
+    private static final String USER_ID_PREFIX = "userid:";
+
+    private final String cacheName;
+    private final ObjectProvider<GradeService> gradeService;
+
+    public GradeCacheLoader(String cacheName, ObjectProvider<GradeService> gradeService) {
+        this.cacheName = cacheName;
+        this.gradeService = gradeService;
+    }
+
+    public static boolean supports(String cacheName) {
+        return GradeCacheInvalidator.STUDENT_CACHES.contains(cacheName);
+    }
+
+    @Override
+    public Object load(Object key) {
+        String keyString = key.toString();
+        GradeService service = gradeService.getObject();
+        Object value;
+
+        if (keyString.startsWith(USER_ID_PREFIX)) {
+            Integer userId = Integer.valueOf(keyString.substring(USER_ID_PREFIX.length()));
+            value = switch (cacheName) {
+                case "grades" -> service.loadStudentGrades(userId);
+                case "average" -> service.loadAverageGrade(userId);
+                case "student" -> service.loadStudentInfo(userId);
+                default -> throw new IllegalArgumentException("Кэш " + cacheName + " не поддерживает ключ " + key);
+            };
+        } else {
+            value = switch (cacheName) {
+                case "grades" -> service.loadStudentGrades(keyString);
+                case "average" -> service.loadAverageGrade(keyString);
+                case "student" -> service.loadStudentInfo(keyString);
+                case "dashboard" -> service.loadStudentDashboard(keyString);
+                default -> throw new IllegalArgumentException("Неизвестный кэш: " + cacheName);
+            };
+        }
+
+        // Spring хранит null как NullValue; без этого обновление удалило бы запись
+        return value != null ? value : NullValue.INSTANCE;
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.mywebsite.service;
 
+import com.example.mywebsite.dto.GradeRecord;
+import com.example.mywebsite.dto.GradeRow;
+import com.example.mywebsite.dto.StudentDashboard;
+import com.example.mywebsite.dto.StudentInfo;
+import com.example.mywebsite.event.GradeChangedEvent;
+import com.example.mywebsite.mapper.GradeRowMapper;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -17,9 +25,33 @@ public class GradeService {
     @Autowired
     private DatabaseService databaseService;
 
+    @Autowired
+    private GradeCacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final GradeRowMapper gradeRowMapper = new GradeRowMapper();
+
+    // Все данные для страницы оценок и экспорта одним запросом и одной записью кэша
+    @Cacheable(value = "dashboard", key = "#userEmail", sync = true)
+    public StudentDashboard getStudentDashboard(String userEmail) {
+        return loadStudentDashboard(userEmail);
+    }
+
+    // Методы load* читают из БД в обход кэша: их вызывают @Cacheable-методы
+    // и фоновое обновление кэша (GradeCacheLoader)
+    public StudentDashboard loadStudentDashboard(String userEmail) {
+        return databaseService.getStudentDashboardByUserEmail(userEmail);
+    }
+
     // Получаем оценки студента по email пользователя
-    @Cacheable(value = "grades", key = "#userEmail")
-    public List<Map<String, Object>> getStudentGrades(String userEmail) {
+    @Cacheable(value = "grades", key = "#userEmail", sync = true)
+    public List<GradeRow> getStudentGrades(String userEmail) {
+        return loadStudentGrades(userEmail);
+    }
+
+    public List<GradeRow> loadStudentGrades(String userEmail) {
         try {
             System.out.println("Получение оценок для пользователя: " + userEmail);
             
@@ -38,17 +70,14 @@ public class GradeService {
                     s.name as subject_name,
                     s.description,
                     g.grade,
-                    g.exam_date,
-                    st.full_name,
-                    st.group_name
+                    g.exam_date
                 FROM grades g
-                JOIN students st ON g.student_id = st.id
                 JOIN subjects s ON g.subject_id = s.id
-                WHERE st.id = ?
+                WHERE g.student_id = ?
                 ORDER BY g.exam_date DESC
             """;
             
-            List<Map<String, Object>> grades = jdbcTemplate.queryForList(sql, studentId);
+            List<GradeRow> grades = jdbcTemplate.query(sql, gradeRowMapper, studentId);
             System.out.println("Найдено оценок: " + grades.size() + " для студента ID: " + studentId);
             
             return grades;
@@ -60,45 +89,47 @@ public class GradeService {
     }
 
     // Получаем средний балл по email пользователя
-    @Cacheable(value = "average", key = "#userEmail")
+    @Cacheable(value = "average", key = "#userEmail", sync = true)
     public Double getAverageGrade(String userEmail) {
-        try {
-            Integer studentId = databaseService.getStudentIdByUserEmail(userEmail);
-            if (studentId == null) return 0.0;
-            
-            String sql = """
-                SELECT AVG(g.grade) as average_grade
-                FROM grades g
-                WHERE g.student_id = ?
-            """;
-            
-            return jdbcTemplate.queryForObject(sql, Double.class, studentId);
-        } catch (Exception e) {
-            System.err.println("Ошибка при расчете среднего балла: " + e.getMessage());
-            return 0.0;
-        }
+        return loadAverageGrade(userEmail);
+    }
+
+    // Среднее берется из той же статистики, что и на странице оценок
+    // (AVG по целому столбцу в SQL Server отбрасывал дробную часть)
+    public Double loadAverageGrade(String userEmail) {
+        StudentDashboard dashboard = loadStudentDashboard(userEmail);
+        if (dashboard.studentInfo() == null) return 0.0;
+        return dashboard.stats().mean();
     }
 
     // Получаем информацию о студенте по email пользователя
-    @Cacheable(value = "student", key = "#userEmail")
-    public Map<String, Object> getStudentInfo(String userEmail) {
+    @Cacheable(value = "student", key = "#userEmail", sync = true)
+    public StudentInfo getStudentInfo(String userEmail) {
+        return loadStudentInfo(userEmail);
+    }
+
+    public StudentInfo loadStudentInfo(String userEmail) {
         return databaseService.getStudentInfoByUserEmail(userEmail);
     }
 
     // Новый метод: получаем оценки по userId
-    @Cacheable(value = "grades", key = "'userid:' + #userId")
-    public List<Map<String, Object>> getStudentGrades(Integer userId) {
+    @Cacheable(value = "grades", key = "'userid:' + #userId", sync = true)
+    public List<GradeRow> getStudentGrades(Integer userId) {
+        return loadStudentGrades(userId);
+    }
+
+    public List<GradeRow> loadStudentGrades(Integer userId) {
         try {
             // Получаем email пользователя по ID
-            List<Map<String, Object>> userResults = jdbcTemplate.queryForList(
-                "SELECT email FROM users WHERE id = ?", userId);
+            List<String> userResults = jdbcTemplate.queryForList(
+                "SELECT email FROM users WHERE id = ?", String.class, userId);
             
             if (userResults.isEmpty()) {
                 return List.of();
             }
             
-            String email = (String) userResults.get(0).get("email");
-            return getStudentGrades(email);
+            String email = userResults.get(0);
+            return loadStudentGrades(email);
             
         } catch (Exception e) {
             System.err.println("Ошибка при получении оценок по userId: " + e.getMessage());
@@ -107,18 +138,22 @@ public class GradeService {
     }
 
     // Новый метод: получаем средний балл по userId
-    @Cacheable(value = "average", key = "'userid:' + #userId")
+    @Cacheable(value = "average", key = "'userid:' + #userId", sync = true)
     public Double getAverageGrade(Integer userId) {
+        return loadAverageGrade(userId);
+    }
+
+    public Double loadAverageGrade(Integer userId) {
         try {
-            List<Map<String, Object>> userResults = jdbcTemplate.queryForList(
-                "SELECT email FROM users WHERE id = ?", userId);
+            List<String> userResults = jdbcTemplate.queryForList(
+                "SELECT email FROM users WHERE id = ?", String.class, userId);
             
             if (userResults.isEmpty()) {
                 return 0.0;
             }
             
-            String email = (String) userResults.get(0).get("email");
-            return getAverageGrade(email);
+            String email = userResults.get(0);
+            return loadAverageGrade(email);
             
         } catch (Exception e) {
             System.err.println("Ошибка при расчете среднего балла по userId: " + e.getMessage());
@@ -127,18 +162,22 @@ public class GradeService {
     }
 
     // Новый метод: получаем информацию о студенте по userId
-    @Cacheable(value = "student", key = "'userid:' + #userId")
-    public Map<String, Object> getStudentInfo(Integer userId) {
+    @Cacheable(value = "student", key = "'userid:' + #userId", sync = true)
+    public StudentInfo getStudentInfo(Integer userId) {
+        return loadStudentInfo(userId);
+    }
+
+    public StudentInfo loadStudentInfo(Integer userId) {
         try {
-            List<Map<String, Object>> userResults = jdbcTemplate.queryForList(
-                "SELECT email FROM users WHERE id = ?", userId);
+            List<String> userResults = jdbcTemplate.queryForList(
+                "SELECT email FROM users WHERE id = ?", String.class, userId);
             
             if (userResults.isEmpty()) {
                 return null;
             }
             
-            String email = (String) userResults.get(0).get("email");
-            return getStudentInfo(email);
+            String email = userResults.get(0);
+            return loadStudentInfo(email);
             
         } catch (Exception e) {
             System.err.println("Ошибка при получении информации о студенте по userId: " + e.getMessage());
@@ -146,18 +185,71 @@ public class GradeService {
         }
     }
 
-    @CacheEvict(value = {"grades", "average"}, key = "#userEmail")
+    // Добавляем оценку и сбрасываем кэши студента через событие
+    public GradeRecord createGrade(int studentId, int subjectId, int grade, LocalDate examDate) {
+        validateGrade(grade);
+        
+        Integer gradeId = databaseService.insertGrade(studentId, subjectId, grade, examDate);
+        GradeRecord created = gradeId != null ? databaseService.findGradeById(gradeId) : null;
+        if (created == null) {
+            throw new IllegalStateException("Не удалось сохранить оценку");
+        }
+        
+        eventPublisher.publishEvent(new GradeChangedEvent(GradeChangedEvent.Type.CREATED,
+            created.id(), created.studentId(), created.subjectId(), null, created.grade(),
+            created.userId(), created.userEmail(), created.groupName()));
+        return created;
+    }
+
+    // Изменяем оценку; null если оценка не найдена
+    public GradeRecord updateGrade(int gradeId, int grade, LocalDate examDate) {
+        validateGrade(grade);
+        
+        GradeRecord before = databaseService.findGradeById(gradeId);
+        if (before == null || !databaseService.updateGrade(gradeId, grade, examDate)) {
+            return null;
+        }
+        GradeRecord after = databaseService.findGradeById(gradeId);
+        
+        eventPublisher.publishEvent(new GradeChangedEvent(GradeChangedEvent.Type.UPDATED,
+            gradeId, before.studentId(), before.subjectId(), before.grade(), grade,
+            before.userId(), before.userEmail(), before.groupName()));
+        return after;
+    }
+
+    // Удаляем оценку; false если оценка не найдена
+    public boolean deleteGrade(int gradeId) {
+        GradeRecord before = databaseService.findGradeById(gradeId);
+        if (before == null || !databaseService.deleteGrade(gradeId)) {
+            return false;
+        }
+        
+        eventPublisher.publishEvent(new GradeChangedEvent(GradeChangedEvent.Type.DELETED,
+            gradeId, before.studentId(), before.subjectId(), before.grade(), null,
+            before.userId(), before.userEmail(), before.groupName()));
+        return true;
+    }
+
+    private void validateGrade(int grade) {
+        if (grade < 0 || grade > 100) {
+            throw new IllegalArgumentException("Оценка должна быть от 0 до 100: " + grade);
+        }
+    }
+
+    // Сбрасываем кэши студента под обоими ключами (email и 'userid:')
     public void clearStudentCache(String userEmail) {
         System.out.println("CACHE EVICT: Clearing cache for " + userEmail);
-        // Просто очищаем кэш, тело метода может быть пустым
+        cacheInvalidator.evictStudent(databaseService.getUserIdByEmail(userEmail), userEmail);
     }
 
-    @CacheEvict(value = {"grades", "average", "student"}, key = "'userid:' + #userId")
     public void clearStudentCache(Integer userId) {
         System.out.println("CACHE EVICT: Clearing cache for user ID " + userId);
+        List<String> emails = jdbcTemplate.queryForList(
+            "SELECT email FROM users WHERE id = ?", String.class, userId);
+        cacheInvalidator.evictStudent(userId, emails.isEmpty() ? null : emails.get(0));
     }
 
-    @CacheEvict(value = {"grades", "average", "student", "exports"}, allEntries = true)
+    @CacheEvict(value = {"grades", "average", "student", "dashboard", "exports"}, allEntries = true)
     public void clearAllCaches() {
         System.out.println("CACHE EVICT: Clearing ALL caches");
     }
@@ -0,0 +1,210 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.dto.GradeRow;
+import com.example.mywebsite.dto.GradeStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Единый расчет статистики оценок: количество, среднее, медиана, стандартное отклонение,
+// категории 90/75/60 и динамика по предметам. Всё считается за один проход по int[].
+// Медиана берется из гистограммы 0..100, поэтому Accumulator можно пополнять,
+// уменьшать и объединять (агрегаты по группам и предметам) без хранения самих оценок
+public final class GradeStatistics {
+
+    public static final int MAX_GRADE = 100;
+
+    private GradeStatistics() {
+    }
+
+    // Статистика студента; строки упорядочены по exam_date DESC (как в выборке дашборда)
+    public static GradeStats compute(List<GradeRow> rows) {
+        int n = rows.size();
+        if (n == 0) {
+            return GradeStats.EMPTY;
+        }
+
+        int[] grades = new int[n];
+        int[] subjectIndex = new int[n];
+        Map<String, Integer> subjectIds = new HashMap<>();
+        List<String> subjectNames = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            GradeRow row = rows.get(i);
+            grades[i] = row.grade();
+            String subject = row.subjectName() != null ? row.subjectName() : "";
+            Integer id = subjectIds.get(subject);
+            if (id == null) {
+                id = subjectNames.size();
+                subjectIds.put(subject, id);
+                subjectNames.add(subject);
+            }
+            subjectIndex[i] = id;
+        }
+
+        // Один проход: общая гистограмма и суммы по предметам
+        int subjects = subjectNames.size();
+        long[] subjectSum = new long[subjects];
+        int[] subjectCount = new int[subjects];
+        int[] subjectLatest = new int[subjects];
+        int[] subjectFirst = new int[subjects];
+        Accumulator total = new Accumulator();
+        for (int i = 0; i < n; i++) {
+            int grade = grades[i];
+            int s = subjectIndex[i];
+            total.add(grade);
+            if (subjectCount[s] == 0) {
+                // Первая встреченная строка — самая поздняя по дате
+                subjectLatest[s] = grade;
+            }
+            subjectFirst[s] = grade;
+            subjectSum[s] += grade;
+            subjectCount[s]++;
+        }
+
+        List<GradeStats.SubjectTrend> trends = new ArrayList<>(subjects);
+        for (int s = 0; s < subjects; s++) {
+            trends.add(new GradeStats.SubjectTrend(subjectNames.get(s), subjectCount[s],
+                (double) subjectSum[s] / subjectCount[s], subjectFirst[s], subjectLatest[s]));
+        }
+        trends.sort(Comparator.comparing(GradeStats.SubjectTrend::subject));
+        return total.toStats(trends);
+    }
+
+    // Статистика без разбивки по предметам
+    public static GradeStats compute(int[] grades) {
+        Accumulator accumulator = new Accumulator();
+        for (int grade : grades) {
+            accumulator.add(grade);
+        }
+        return accumulator.toStats(List.of());
+    }
+
+    public static int bucket(int grade) {
+        if (grade >= 90) {
+            return 0;
+        } else if (grade >= 75) {
+            return 1;
+        } else if (grade >= 60) {
+            return 2;
+        }
+        return 3;
+    }
+
+    // Накопитель по гистограмме оценок. Не потокобезопасен
+    public static final class Accumulator {
+        private final int[] histogram = new int[MAX_GRADE + 1];
+        private int count;
+        private long sum;
+        private long sumSquares;
+
+        public void add(int grade) {
+            histogram[clamp(grade)]++;
+            count++;
+            sum += grade;
+            sumSquares += (long) grade * grade;
+        }
+
+        public void remove(int grade) {
+            int index = clamp(grade);
+            if (histogram[index] == 0) {
+                return;
+            }
+            histogram[index]--;
+            count--;
+            sum -= grade;
+            sumSquares -= (long) grade * grade;
+        }
+
+        public void merge(Accumulator other) {
+            for (int i = 0; i <= MAX_GRADE; i++) {
+                histogram[i] += other.histogram[i];
+            }
+            count += other.count;
+            sum += other.sum;
+            sumSquares += other.sumSquares;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public Double mean() {
+            return count > 0 ? (double) sum / count : null;
+        }
+
+        // Сколько оценок строго выше заданной (для места в рейтинге)
+        public int countAbove(int grade) {
+            int above = 0;
+            for (int i = clamp(grade) + 1; i <= MAX_GRADE; i++) {
+                above += histogram[i];
+            }
+            return above;
+        }
+
+        // Распределение по интервалам шириной width (0-9, 10-19, ..., последний включает 100)
+        public List<Integer> distribution(int width) {
+            int bins = (MAX_GRADE + width - 1) / width;
+            Integer[] counts = new Integer[bins];
+            Arrays.fill(counts, 0);
+            for (int grade = 0; grade <= MAX_GRADE; grade++) {
+                counts[Math.min(grade / width, bins - 1)] += histogram[grade];
+            }
+            return List.of(counts);
+        }
+
+        public Accumulator copy() {
+            Accumulator copy = new Accumulator();
+            copy.merge(this);
+            return copy;
+        }
+
+        public GradeStats toStats(List<GradeStats.SubjectTrend> subjects) {
+            if (count == 0) {
+                return new GradeStats(0, null, null, null, null, null, 0, 0, 0, 0, subjects);
+            }
+            int[] buckets = new int[4];
+            int min = -1;
+            int max = 0;
+            for (int grade = 0; grade <= MAX_GRADE; grade++) {
+                int c = histogram[grade];
+                if (c > 0) {
+                    if (min < 0) {
+                        min = grade;
+                    }
+                    max = grade;
+                    buckets[bucket(grade)] += c;
+                }
+            }
+            double mean = (double) sum / count;
+            double variance = Math.max(0, (double) sumSquares / count - mean * mean);
+            return new GradeStats(count, mean, median(), Math.sqrt(variance), min, max,
+                buckets[0], buckets[1], buckets[2], buckets[3], subjects);
+        }
+
+        private double median() {
+            int lowerRank = (count - 1) / 2;
+            int upperRank = count / 2;
+            int lower = -1;
+            int seen = 0;
+            for (int grade = 0; grade <= MAX_GRADE; grade++) {
+                seen += histogram[grade];
+                if (lower < 0 && seen > lowerRank) {
+                    lower = grade;
+                }
+                if (seen > upperRank) {
+                    return (lower + grade) / 2.0;
+                }
+            }
+            return lower;
+        }
+
+        // Оценки вне 0..100 (их не пропускает проверка при сохранении) попадают в крайние столбцы
+        private static int clamp(int grade) {
+            return Math.max(0, Math.min(MAX_GRADE, grade));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.config.CacheProperties;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Кэш готовых PDF по отпечатку данных (см. PdfExportService.fingerprint).
+// Первый уровень — память, ограниченная суммарным размером в байтах;
+// второй (необязательный) — файлы <ключ>.pdf в app.cache.pdf.disk-directory,
+// переживают перезапуск. Отпечаток меняется вместе с данными, поэтому
+// записи не нужно сбрасывать при изменении оценок: старые просто вытесняются.
+// Файлы на диске чистятся по возрасту и суммарному размеру при запуске и по таймеру
+@Component
+public class PdfArtifactCache {
+
+    @Autowired
+    private CacheProperties cacheProperties;
+
+    @Autowired
+    @Qualifier("pdfDiskCleanupScheduler")
+    private ScheduledExecutorService cleanupScheduler;
+
+    // Значение — будущий PDF: отрисовка идет вне блокировки кэша, а одновременные
+    // запросы того же ключа ждут ее результат
+    private AsyncCache<String, byte[]> memory;
+    private Path diskDirectory;
+
+    @PostConstruct
+    public void init() {
+        CacheProperties.Pdf pdf = cacheProperties.getPdf();
+        memory = Caffeine.newBuilder()
+            .maximumWeight(pdf.getMaxBytes())
+            .weigher((String key, byte[] content) -> content.length)
+            .expireAfterAccess(pdf.getExpireAfterAccess())
+            .recordStats()
+            .buildAsync();
+
+        if (pdf.getDiskDirectory() != null && !pdf.getDiskDirectory().isBlank()) {
+            try {
+                diskDirectory = Files.createDirectories(Path.of(pdf.getDiskDirectory()));
+                cleanDisk();
+            } catch (IOException e) {
+                System.err.println("Каталог кэша PDF недоступен, используется только память: " + e.getMessage());
+                diskDirectory = null;
+                return;
+            }
+            long interval = pdf.getDiskCleanupInterval().toMillis();
+            cleanupScheduler.scheduleWithFixedDelay(() -> {
+                // Исключение остановило бы повторы, поэтому ошибка только логируется
+                try {
+                    cleanDisk();
+                } catch (Exception e) {
+                    System.err.println("Ошибка при очистке кэша PDF на диске: " + e.getMessage());
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // PDF из кэша или новый. Одновременные запросы одного ключа ждут одну отрисовку.
+    // Внутри compute кэша только кладется незавершенный future: чтение с диска и отрисовка
+    // идут в потоке запроса и не блокируют другие ключи. Пустой результат (ошибка
+    // отрисовки) не кэшируется — future, завершенный null, Caffeine удаляет сам
+    public byte[] get(String key, Supplier<byte[]> renderer) {
+        CompletableFuture<byte[]> loading = new CompletableFuture<>();
+        CompletableFuture<byte[]> content = memory.get(key, (k, executor) -> loading);
+        if (content == loading) {
+            try {
+                loading.complete(load(key, renderer));
+            } catch (RuntimeException | Error e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        byte[] result = content.join();
+        return result != null ? result : new byte[0];
+    }
+
+    public long size() {
+        return memory.synchronous().estimatedSize();
+    }
+
+    private byte[] load(String key, Supplier<byte[]> renderer) {
+        byte[] stored = readFromDisk(key);
+        if (stored != null) {
+            return stored;
+        }
+        byte[] rendered = renderer.get();
+        if (rendered == null || rendered.length == 0) {
+            return null;
+        }
+        writeToDisk(key, rendered);
+        return rendered;
+    }
+
+    private byte[] readFromDisk(String key) {
+        if (diskDirectory == null) {
+            return null;
+        }
+        Path file = diskDirectory.resolve(key + ".pdf");
+        try {
+            return Files.exists(file) ? Files.readAllBytes(file) : null;
+        } catch (IOException e) {
+            System.err.println("Ошибка при чтении PDF из кэша: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Пишем во временный файл и переименовываем, чтобы не прочитать недописанный PDF
+    private void writeToDisk(String key, byte[] content) {
+        if (diskDirectory == null) {
+            return;
+        }
+        try {
+            Path temp = Files.createTempFile(diskDirectory, key, ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, diskDirectory.resolve(key + ".pdf"),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Ошибка при сохранении PDF в кэш: " + e.getMessage());
+        }
+    }
+
+    private record DiskFile(Path path, FileTime modified, long size) {}
+
+    // Удаляет файлы старше disk-max-age, затем самые старые, пока каталог не уложится
+    // в disk-max-bytes. Файл, удаленный во время чтения, просто отрисуется заново
+    void cleanDisk() throws IOException {
+        CacheProperties.Pdf pdf = cacheProperties.getPdf();
+        FileTime threshold = FileTime.from(Instant.now().minus(pdf.getDiskMaxAge()));
+        List<DiskFile> kept = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> files = Files.list(diskDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                try {
+                    FileTime modified = Files.getLastModifiedTime(file);
+                    if (modified.compareTo(threshold) < 0) {
+                        Files.delete(file);
+                    } else if (file.getFileName().toString().endsWith(".pdf")) {
+                        long size = Files.size(file);
+                        kept.add(new DiskFile(file, modified, size));
+                        total += size;
+                    }
+                } catch (IOException e) {
+                    System.err.println("Не удалось удалить " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        if (pdf.getDiskMaxBytes() <= 0 || total <= pdf.getDiskMaxBytes()) {
+            return;
+        }
+
+        kept.sort(Comparator.comparing(DiskFile::modified));
+        for (DiskFile file : kept) {
+            if (total <= pdf.getDiskMaxBytes()) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(file.path());
+                total -= file.size();
+            } catch (IOException e) {
+                System.err.println("Не удалось удалить " + file.path() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package com.example.mywebsite.service;
 
+import com.example.mywebsite.dto.GradeRow;
+import com.example.mywebsite.dto.GradeStats;
+import com.example.mywebsite.dto.StudentDashboard;
+import com.example.mywebsite.dto.StudentInfo;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Map;
 
 @Service
 public class PdfExportService {
@@ -19,36 +25,90 @@ public class PdfExportService {
     
     @Autowired
     private DatabaseService databaseService;
+
+    @Autowired
+    private PdfArtifactCache pdfCache;
+
+    // Меняется при любом изменении оформления PDF, чтобы не отдавать из кэша старый вид
+    static final int TEMPLATE_VERSION = 3;
     
-    // Создаем PDF с оценками и диаграммой
+    // Создаем PDF с оценками и диаграммой (из кэша, если данные не менялись)
     public byte[] createGradesPdf(String email) {
+        // Получаем данные (одна запись кэша на студента)
+        StudentDashboard dashboard = gradeService.getStudentDashboard(email);
+        return getGradesPdf(dashboard, email, fingerprint(dashboard, email));
+    }
+
+    public byte[] getGradesPdf(StudentDashboard dashboard, String email, String fingerprint) {
+        return pdfCache.get(fingerprint, () -> renderGradesPdf(dashboard, email));
+    }
+
+    // Отпечаток всего, что попадает в PDF: SHA-256 от версии шаблона, даты выгрузки,
+    // данных студента и строк оценок. Он же служит ETag при скачивании
+    public String fingerprint(StudentDashboard dashboard, String email) {
+        MessageDigest digest = sha256();
+        update(digest, String.valueOf(TEMPLATE_VERSION));
+        update(digest, LocalDate.now().toString());
+        update(digest, email);
+        StudentInfo studentInfo = dashboard.studentInfo();
+        if (studentInfo != null) {
+            update(digest, studentInfo.fullName());
+            update(digest, studentInfo.groupName());
+        }
+        for (GradeRow grade : dashboard.grades()) {
+            update(digest, grade.subjectName());
+            update(digest, grade.description());
+            update(digest, String.valueOf(grade.grade()));
+            update(digest, String.valueOf(grade.examDate()));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        // Разделитель, чтобы ("ab", "c") и ("a", "bc") давали разные отпечатки
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // PDF по уже загруженным данным без кэша: используется для массовой выгрузки,
+    // где данные студентов читаются одним запросом и каждый PDF нужен один раз
+    // (чтобы не вытеснять из кэша PDF, которые скачивают сами студенты).
+    // Безопасен для вызова из нескольких потоков
+    public byte[] renderGradesPdf(StudentDashboard dashboard, String email) {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         
         try {
-            // Получаем данные
-            List<Map<String, Object>> grades = gradeService.getStudentGrades(email);
-            Double averageGrade = gradeService.getAverageGrade(email);
-            Map<String, Object> studentInfo = gradeService.getStudentInfo(email);
-            Map<String, Object> chartData = prepareChartData(grades);
+            List<GradeRow> grades = dashboard.grades();
+            GradeStats stats = dashboard.stats();
+            StudentInfo studentInfo = dashboard.studentInfo();
             
             // Создаем документ
             Document document = new Document(PageSize.A4);
             PdfWriter writer = PdfWriter.getInstance(document, baos);
             
+            // Только дата: PDF с теми же данными кэшируется в пределах дня
+            String exportDate = LocalDate.now().format(PdfStyles.DATE_FORMAT);
+            
             // Добавляем обработчик для колонтитулов
-            writer.setPageEvent(new PdfPageEvent());
+            writer.setPageEvent(new PdfPageEvent(exportDate));
             
             document.open();
             
-            // Шрифты (используем стандартные)
-            Font titleFont = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
-            Font headerFont = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD);
-            Font normalFont = new Font(Font.FontFamily.HELVETICA, 10);
-            Font smallFont = new Font(Font.FontFamily.HELVETICA, 9);
-            Font gradeFont = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD, new BaseColor(76, 175, 80));
+            // Шрифты и цвета общие для всех документов (PdfStyles)
+            Font headerFont = PdfStyles.HEADER;
+            Font normalFont = PdfStyles.NORMAL;
+            Font smallFont = PdfStyles.SMALL;
             
             // Заголовок
-            Paragraph title = new Paragraph("Зачетная книжка студента", titleFont);
+            Paragraph title = new Paragraph("Зачетная книжка студента", PdfStyles.TITLE);
             title.setAlignment(Element.ALIGN_CENTER);
             title.setSpacingAfter(20);
             document.add(title);
@@ -57,21 +117,18 @@ public class PdfExportService {
             if (studentInfo != null) {
                 Paragraph studentInfoPara = new Paragraph();
                 studentInfoPara.add(new Chunk("ФИО: ", headerFont));
-                studentInfoPara.add(new Chunk(studentInfo.get("full_name") != null ? 
-                    studentInfo.get("full_name").toString() : "Не указано", normalFont));
+                studentInfoPara.add(new Chunk(studentInfo.fullName() != null ? 
+                    studentInfo.fullName() : "Не указано", normalFont));
                 studentInfoPara.add(Chunk.NEWLINE);
                 studentInfoPara.add(new Chunk("Группа: ", headerFont));
-                studentInfoPara.add(new Chunk(studentInfo.get("group_name") != null ? 
-                    studentInfo.get("group_name").toString() : "Не указано", normalFont));
+                studentInfoPara.add(new Chunk(studentInfo.groupName() != null ? 
+                    studentInfo.groupName() : "Не указано", normalFont));
                 studentInfoPara.add(Chunk.NEWLINE);
                 studentInfoPara.add(new Chunk("Email: ", headerFont));
                 studentInfoPara.add(new Chunk(email, normalFont));
                 studentInfoPara.add(Chunk.NEWLINE);
                 studentInfoPara.add(new Chunk("Дата выгрузки: ", headerFont));
-                studentInfoPara.add(new Chunk(
-                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")), 
-                    normalFont
-                ));
+                studentInfoPara.add(new Chunk(exportDate, normalFont));
                 studentInfoPara.setSpacingAfter(15);
                 document.add(studentInfoPara);
             }
@@ -80,10 +137,10 @@ public class PdfExportService {
             document.add(new Paragraph(" "));
             PdfPTable separator = new PdfPTable(1);
             separator.setWidthPercentage(100);
-            PdfPCell cell = new PdfPCell(new Phrase(" ", normalFont));
+            PdfPCell cell = new PdfPCell(PdfStyles.phrase(" ", normalFont));
             cell.setFixedHeight(1);
             cell.setBorder(PdfPCell.NO_BORDER);
-            cell.setBackgroundColor(new BaseColor(220, 220, 220));
+            cell.setBackgroundColor(PdfStyles.LIGHT_GRAY);
             separator.addCell(cell);
             document.add(separator);
             document.add(new Paragraph(" "));
@@ -98,10 +155,14 @@ public class PdfExportService {
             statsTable.setWidthPercentage(60);
             statsTable.setHorizontalAlignment(Element.ALIGN_LEFT);
             
-            addStatRow(statsTable, "Количество оценок:", String.valueOf(grades.size()), normalFont);
+            addStatRow(statsTable, "Количество оценок:", String.valueOf(stats.count()), normalFont);
             addStatRow(statsTable, "Средний балл:", 
-                averageGrade != null ? String.format("%.2f", averageGrade) : "Нет данных", 
+                stats.mean() != null ? String.format("%.2f", stats.mean()) : "Нет данных", 
                 normalFont);
+            if (stats.count() > 0) {
+                addStatRow(statsTable, "Медиана:", String.format("%.1f", stats.median()), normalFont);
+                addStatRow(statsTable, "Стандартное отклонение:", String.format("%.2f", stats.stddev()), normalFont);
+            }
             
             document.add(statsTable);
             document.add(new Paragraph(" "));
@@ -116,24 +177,24 @@ public class PdfExportService {
             categoryTable.setHorizontalAlignment(Element.ALIGN_LEFT);
             
             addCategoryRow(categoryTable, "Отлично (90-100)", 
-                chartData.get("excellent").toString(), 
-                chartData.get("percentageExcellent").toString() + "%", 
-                new BaseColor(76, 175, 80), normalFont);
+                String.valueOf(stats.excellent()), 
+                stats.percentageExcellent() + "%", 
+                PdfStyles.EXCELLENT_ROW, normalFont);
             
             addCategoryRow(categoryTable, "Хорошо (75-89)", 
-                chartData.get("good").toString(), 
-                chartData.get("percentageGood").toString() + "%", 
-                new BaseColor(255, 193, 7), normalFont);
+                String.valueOf(stats.good()), 
+                stats.percentageGood() + "%", 
+                PdfStyles.GOOD_ROW, normalFont);
             
             addCategoryRow(categoryTable, "Удовлетворительно (60-74)", 
-                chartData.get("satisfactory").toString(), 
-                chartData.get("percentageSatisfactory").toString() + "%", 
-                new BaseColor(255, 152, 0), normalFont);
+                String.valueOf(stats.satisfactory()), 
+                stats.percentageSatisfactory() + "%", 
+                PdfStyles.SATISFACTORY_ROW, normalFont);
             
             addCategoryRow(categoryTable, "Неудовлетворительно (<60)", 
-                chartData.get("unsatisfactory").toString(), 
-                chartData.get("percentageUnsatisfactory").toString() + "%", 
-                new BaseColor(244, 67, 54), normalFont);
+                String.valueOf(stats.unsatisfactory()), 
+                stats.percentageUnsatisfactory() + "%", 
+                PdfStyles.UNSATISFACTORY_ROW, normalFont);
             
             document.add(categoryTable);
             document.add(new Paragraph(" "));
@@ -153,50 +214,37 @@ public class PdfExportService {
                 gradesTable.setWidthPercentage(100);
                 gradesTable.setWidths(new float[]{50, 30, 20, 30});
                 
+                // Ячейки-строки таблица копирует с defaultCell: оформление задаем один раз
+                PdfPCell rowCell = gradesTable.getDefaultCell();
+                rowCell.setPadding(5);
+                rowCell.setBorderWidth(1);
+                rowCell.setBorderColor(PdfStyles.LIGHT_GRAY);
+                
                 // Заголовки таблицы
-                addTableHeader(gradesTable, "Предмет", headerFont);
-                addTableHeader(gradesTable, "Описание", headerFont);
-                addTableHeader(gradesTable, "Оценка", headerFont);
-                addTableHeader(gradesTable, "Дата экзамена", headerFont);
+                addTableHeader(gradesTable, "Предмет");
+                addTableHeader(gradesTable, "Описание");
+                addTableHeader(gradesTable, "Оценка");
+                addTableHeader(gradesTable, "Дата экзамена");
                 
                 // Данные оценок
-                for (Map<String, Object> grade : grades) {
-                    String subjectName = grade.get("subject_name") != null ? 
-                        grade.get("subject_name").toString() : "";
-                    String description = grade.get("description") != null ? 
-                        grade.get("description").toString() : "";
-                    String gradeValue = grade.get("grade") != null ? 
-                        grade.get("grade").toString() : "";
-                    String examDate = grade.get("exam_date") != null ? 
-                        grade.get("exam_date").toString() : "";
+                for (GradeRow grade : grades) {
+                    String subjectName = grade.subjectName() != null ? grade.subjectName() : "";
+                    String description = grade.description() != null ? grade.description() : "";
+                    // Формат как у даты выгрузки: dd.MM.yyyy
+                    String examDate = grade.examDate() != null ? grade.examDate().format(PdfStyles.DATE_FORMAT) : "";
+                    int gradeInt = grade.grade();
                     
-                    addTableRow(gradesTable, subjectName, normalFont);
-                    addTableRow(gradesTable, description, smallFont);
+                    gradesTable.addCell(PdfStyles.phrase(subjectName, normalFont));
+                    gradesTable.addCell(PdfStyles.phrase(description, smallFont));
                     
                     // Оценка с цветом в зависимости от значения
-                    PdfPCell gradeCell = new PdfPCell(new Phrase(gradeValue, normalFont));
+                    PdfPCell gradeCell = new PdfPCell(PdfStyles.phrase(String.valueOf(gradeInt), normalFont));
                     gradeCell.setHorizontalAlignment(Element.ALIGN_CENTER);
                     gradeCell.setPadding(5);
-                    
-                    if (!gradeValue.isEmpty()) {
-                        try {
-                            int gradeInt = Integer.parseInt(gradeValue);
-                            if (gradeInt >= 90) {
-                                gradeCell.setBackgroundColor(new BaseColor(76, 175, 80, 50));
-                            } else if (gradeInt >= 75) {
-                                gradeCell.setBackgroundColor(new BaseColor(255, 193, 7, 50));
-                            } else if (gradeInt >= 60) {
-                                gradeCell.setBackgroundColor(new BaseColor(255, 152, 0, 50));
-                            } else {
-                                gradeCell.setBackgroundColor(new BaseColor(244, 67, 54, 50));
-                            }
-                        } catch (NumberFormatException e) {
-                            // Если оценка не число, оставляем без цвета
-                        }
-                    }
+                    gradeCell.setBackgroundColor(PdfStyles.gradeCellColor(gradeInt));
                     
                     gradesTable.addCell(gradeCell);
-                    addTableRow(gradesTable, examDate, normalFont);
+                    gradesTable.addCell(PdfStyles.phrase(examDate, normalFont));
                 }
                 
                 document.add(gradesTable);
@@ -207,6 +255,38 @@ public class PdfExportService {
                 document.add(noGrades);
             }
             
+            // Динамика по предметам, где оценок больше одной
+            List<GradeStats.SubjectTrend> trends = stats.subjects().stream()
+                .filter(trend -> trend.count() > 1)
+                .toList();
+            if (!trends.isEmpty()) {
+                document.add(new Paragraph(" "));
+                Paragraph trendsTitle = new Paragraph("Динамика по предметам", headerFont);
+                trendsTitle.setSpacingAfter(10);
+                document.add(trendsTitle);
+                
+                PdfPTable trendsTable = new PdfPTable(4);
+                trendsTable.setWidthPercentage(100);
+                trendsTable.setWidths(new float[]{50, 15, 20, 25});
+                PdfPCell trendCell = trendsTable.getDefaultCell();
+                trendCell.setPadding(5);
+                trendCell.setBorderWidth(1);
+                trendCell.setBorderColor(PdfStyles.LIGHT_GRAY);
+                
+                addTableHeader(trendsTable, "Предмет");
+                addTableHeader(trendsTable, "Оценок");
+                addTableHeader(trendsTable, "Средний");
+                addTableHeader(trendsTable, "Изменение");
+                
+                for (GradeStats.SubjectTrend trend : trends) {
+                    trendsTable.addCell(PdfStyles.phrase(trend.subject(), normalFont));
+                    trendsTable.addCell(PdfStyles.phrase(String.valueOf(trend.count()), normalFont));
+                    trendsTable.addCell(PdfStyles.phrase(String.format("%.1f", trend.mean()), normalFont));
+                    trendsTable.addCell(PdfStyles.phrase(String.format("%+d", trend.change()), normalFont));
+                }
+                document.add(trendsTable);
+            }
+            
             // Добавим "диаграмму" в виде текстового представления
             document.add(new Paragraph(" "));
             document.add(separator);
@@ -217,31 +297,31 @@ public class PdfExportService {
             document.add(diagramTitle);
             
             // Создаем текстовую диаграмму
-            int excellent = Integer.parseInt(chartData.get("excellent").toString());
-            int good = Integer.parseInt(chartData.get("good").toString());
-            int satisfactory = Integer.parseInt(chartData.get("satisfactory").toString());
-            int unsatisfactory = Integer.parseInt(chartData.get("unsatisfactory").toString());
+            int excellent = stats.excellent();
+            int good = stats.good();
+            int satisfactory = stats.satisfactory();
+            int unsatisfactory = stats.unsatisfactory();
             int total = excellent + good + satisfactory + unsatisfactory;
             
             if (total > 0) {
                 // Создаем простую текстовую диаграмму
                 String diagram = createTextDiagram(excellent, good, satisfactory, unsatisfactory);
-                Paragraph diagramPara = new Paragraph(diagram, new Font(Font.FontFamily.COURIER, 9));
+                Paragraph diagramPara = new Paragraph(diagram, PdfStyles.DIAGRAM);
                 diagramPara.setSpacingBefore(10);
                 document.add(diagramPara);
                 
                 // Легенда
                 Paragraph legend = new Paragraph();
-                legend.add(new Chunk("█ ", new Font(Font.FontFamily.HELVETICA, 10, Font.NORMAL, new BaseColor(76, 175, 80))));
+                legend.add(new Chunk("█ ", PdfStyles.LEGEND_EXCELLENT));
                 legend.add(new Chunk("Отлично (" + excellent + ")", smallFont));
                 legend.add(Chunk.TABBING);
-                legend.add(new Chunk("█ ", new Font(Font.FontFamily.HELVETICA, 10, Font.NORMAL, new BaseColor(255, 193, 7))));
+                legend.add(new Chunk("█ ", PdfStyles.LEGEND_GOOD));
                 legend.add(new Chunk("Хорошо (" + good + ")", smallFont));
                 legend.add(Chunk.NEWLINE);
-                legend.add(new Chunk("█ ", new Font(Font.FontFamily.HELVETICA, 10, Font.NORMAL, new BaseColor(255, 152, 0))));
+                legend.add(new Chunk("█ ", PdfStyles.LEGEND_SATISFACTORY));
                 legend.add(new Chunk("Удовлетворительно (" + satisfactory + ")", smallFont));
                 legend.add(Chunk.TABBING);
-                legend.add(new Chunk("█ ", new Font(Font.FontFamily.HELVETICA, 10, Font.NORMAL, new BaseColor(244, 67, 54))));
+                legend.add(new Chunk("█ ", PdfStyles.LEGEND_UNSATISFACTORY));
                 legend.add(new Chunk("Неудовлетворительно (" + unsatisfactory + ")", smallFont));
                 legend.setSpacingBefore(10);
                 document.add(legend);
@@ -326,63 +406,13 @@ public class PdfExportService {
         return diagram.toString();
     }
     
-    // Подготовка данных для диаграммы
-    private Map<String, Object> prepareChartData(List<Map<String, Object>> grades) {
-        Map<String, Object> chartData = new java.util.HashMap<>();
-        
-        int excellent = 0;
-        int good = 0;
-        int satisfactory = 0;
-        int unsatisfactory = 0;
-        
-        for (Map<String, Object> grade : grades) {
-            Object gradeObj = grade.get("grade");
-            if (gradeObj != null) {
-                try {
-                    int gradeValue = ((Number) gradeObj).intValue();
-                    if (gradeValue >= 90) {
-                        excellent++;
-                    } else if (gradeValue >= 75) {
-                        good++;
-                    } else if (gradeValue >= 60) {
-                        satisfactory++;
-                    } else {
-                        unsatisfactory++;
-                    }
-                } catch (Exception e) {
-                    // Пропускаем некорректные данные
-                }
-            }
-        }
-        
-        chartData.put("excellent", excellent);
-        chartData.put("good", good);
-        chartData.put("satisfactory", satisfactory);
-        chartData.put("unsatisfactory", unsatisfactory);
-        
-        int total = excellent + good + satisfactory + unsatisfactory;
-        if (total > 0) {
-            chartData.put("percentageExcellent", String.format("%.1f", (excellent * 100.0 / total)));
-            chartData.put("percentageGood", String.format("%.1f", (good * 100.0 / total)));
-            chartData.put("percentageSatisfactory", String.format("%.1f", (satisfactory * 100.0 / total)));
-            chartData.put("percentageUnsatisfactory", String.format("%.1f", (unsatisfactory * 100.0 / total)));
-        } else {
-            chartData.put("percentageExcellent", "0.0");
-            chartData.put("percentageGood", "0.0");
-            chartData.put("percentageSatisfactory", "0.0");
-            chartData.put("percentageUnsatisfactory", "0.0");
-        }
-        
-        return chartData;
-    }
-    
     // Вспомогательные методы для создания таблиц
     private void addStatRow(PdfPTable table, String label, String value, Font font) {
-        PdfPCell labelCell = new PdfPCell(new Phrase(label, font));
+        PdfPCell labelCell = new PdfPCell(PdfStyles.phrase(label, font));
         labelCell.setBorder(PdfPCell.NO_BORDER);
         labelCell.setPadding(5);
         
-        PdfPCell valueCell = new PdfPCell(new Phrase(value, font));
+        PdfPCell valueCell = new PdfPCell(PdfStyles.phrase(value, font));
         valueCell.setBorder(PdfPCell.NO_BORDER);
         valueCell.setPadding(5);
         
@@ -391,19 +421,18 @@ public class PdfExportService {
     }
     
     private void addCategoryRow(PdfPTable table, String category, String count, 
-                              String percentage, BaseColor color, Font font) {
-        PdfPCell categoryCell = new PdfPCell(new Phrase(category, font));
+                              String percentage, BaseColor background, Font font) {
+        PdfPCell categoryCell = new PdfPCell(PdfStyles.phrase(category, font));
         categoryCell.setBorder(PdfPCell.NO_BORDER);
         categoryCell.setPadding(5);
-        categoryCell.setBackgroundColor(new BaseColor(color.getRed(), color.getGreen(), 
-            color.getBlue(), 20));
+        categoryCell.setBackgroundColor(background);
         
-        PdfPCell countCell = new PdfPCell(new Phrase(count, font));
+        PdfPCell countCell = new PdfPCell(PdfStyles.phrase(count, font));
         countCell.setBorder(PdfPCell.NO_BORDER);
         countCell.setPadding(5);
         countCell.setHorizontalAlignment(Element.ALIGN_CENTER);
         
-        PdfPCell percentCell = new PdfPCell(new Phrase(percentage, font));
+        PdfPCell percentCell = new PdfPCell(PdfStyles.phrase(percentage, font));
         percentCell.setBorder(PdfPCell.NO_BORDER);
         percentCell.setPadding(5);
         percentCell.setHorizontalAlignment(Element.ALIGN_CENTER);
@@ -413,63 +442,36 @@ public class PdfExportService {
         table.addCell(percentCell);
     }
     
-    private void addTableHeader(PdfPTable table, String text, Font font) {
-        PdfPCell cell = new PdfPCell(new Phrase(text, font));
+    private void addTableHeader(PdfPTable table, String text) {
+        PdfPCell cell = new PdfPCell(PdfStyles.phrase(text, PdfStyles.TABLE_HEADER_TEXT));
         cell.setHorizontalAlignment(Element.ALIGN_CENTER);
         cell.setPadding(5);
-        cell.setBackgroundColor(new BaseColor(102, 126, 234));
+        cell.setBackgroundColor(PdfStyles.TABLE_HEADER);
         cell.setBorderWidth(1);
         cell.setBorderColor(BaseColor.WHITE);
-        cell.setPhrase(new Phrase(text, new Font(font.getBaseFont(), font.getSize(), Font.NORMAL, BaseColor.WHITE)));
-        table.addCell(cell);
-    }
-    
-    private void addTableRow(PdfPTable table, String text, Font font) {
-        PdfPCell cell = new PdfPCell(new Phrase(text, font));
-        cell.setPadding(5);
-        cell.setBorderWidth(1);
-        cell.setBorderColor(new BaseColor(220, 220, 220));
         table.addCell(cell);
     }
     
-    // Класс для колонтитулов PDF
-    private class PdfPageEvent extends PdfPageEventHelper {
-        private Phrase header;
+    // Класс для колонтитулов PDF. Название и дата не меняются от страницы к странице:
+    // на каждой странице создается только фраза с номером
+    private static class PdfPageEvent extends PdfPageEventHelper {
+        private final Phrase date;
         
-        @Override
-        public void onOpenDocument(PdfWriter writer, Document document) {
-            header = new Phrase("Университетская система оценок", 
-                new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, BaseColor.GRAY));
+        PdfPageEvent(String exportDate) {
+            date = new Phrase(exportDate, PdfStyles.FOOTER);
         }
         
         @Override
         public void onEndPage(PdfWriter writer, Document document) {
-            PdfPTable table = new PdfPTable(3);
-            table.setTotalWidth(document.getPageSize().getWidth() - document.leftMargin() - document.rightMargin());
-            
-            PdfPCell leftCell = new PdfPCell(header);
-            leftCell.setBorder(PdfPCell.NO_BORDER);
-            leftCell.setHorizontalAlignment(Element.ALIGN_LEFT);
-            
-            PdfPCell centerCell = new PdfPCell(new Phrase("Страница " + writer.getPageNumber(), 
-                new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, BaseColor.GRAY)));
-            centerCell.setBorder(PdfPCell.NO_BORDER);
-            centerCell.setHorizontalAlignment(Element.ALIGN_CENTER);
-            
-            PdfPCell rightCell = new PdfPCell(new Phrase(
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")),
-                new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, BaseColor.GRAY)));
-            rightCell.setBorder(PdfPCell.NO_BORDER);
-            rightCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
-            
-            table.addCell(leftCell);
-            table.addCell(centerCell);
-            table.addCell(rightCell);
-            
-            table.writeSelectedRows(0, -1, 
-                document.leftMargin(), 
-                document.bottomMargin() - 10, 
-                writer.getDirectContent());
+            PdfContentByte canvas = writer.getDirectContent();
+            float left = document.left() + 2;
+            float right = document.right() - 2;
+            float y = document.bottomMargin() - 24;
+            
+            ColumnText.showTextAligned(canvas, Element.ALIGN_LEFT, PdfStyles.FOOTER_TITLE, left, y, 0);
+            ColumnText.showTextAligned(canvas, Element.ALIGN_CENTER,
+                new Phrase("Страница " + writer.getPageNumber(), PdfStyles.FOOTER), (left + right) / 2, y, 0);
+            ColumnText.showTextAligned(canvas, Element.ALIGN_RIGHT, date, right, y, 0);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,190 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.config.PdfRenderProperties;
+import com.example.mywebsite.dto.RenderReport;
+import com.example.mywebsite.dto.StudentDashboard;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Параллельная отрисовка PDF для массовых выгрузок.
+// Документ iText однопоточный, поэтому каждый PDF целиком рисуется в одном потоке пула,
+// а параллельно идут разные студенты. Общий на все выгрузки семафор ограничивает число
+// PDF, которые рисуются или ждут потока отрисовки: разрешение возвращается по окончании
+// отрисовки. Когда он исчерпан, submit блокируется и чтение курсора ждет.
+// Готовые PDF отдаются получателю (ZIP, очередь загрузки) в потоке вызывающего
+// и в порядке отправки; готовых, но не отданных PDF в одной выгрузке не больше
+// maxInFlight — окно inFlight
+@Service
+public class PdfRenderingEngine {
+
+    private static final int HISTORY_SIZE = 20;
+
+    @Autowired
+    private PdfExportService pdfExportService;
+
+    @Autowired
+    private PdfRenderProperties properties;
+
+    @Autowired
+    @Qualifier("pdfRenderExecutor")
+    private ThreadPoolExecutor executor;
+
+    private Semaphore permits;
+
+    private final Deque<RenderReport> history = new ArrayDeque<>();
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(properties.getMaxInFlight());
+    }
+
+    // Получатель готовых PDF
+    @FunctionalInterface
+    public interface PdfSink {
+        void accept(RenderedPdf pdf) throws IOException;
+    }
+
+    public record RenderedPdf(String fileName, String email, byte[] content) {
+    }
+
+    // cached = true: PDF берется из кэша и кладется в него (для последующей загрузки
+    // на Drive теми же данными); false — рисуется без кэша, чтобы не вытеснять PDF студентов
+    public Batch newBatch(String name, boolean cached, PdfSink sink) {
+        return new Batch(name, cached, sink);
+    }
+
+    // Последние отчеты о выгрузках, новые первыми
+    public List<RenderReport> getRecentReports() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    // Одна выгрузка. Не потокобезопасна: submit и finish вызываются из одного потока
+    public final class Batch implements AutoCloseable {
+        private final String name;
+        private final boolean cached;
+        private final PdfSink sink;
+        private final Deque<CompletableFuture<RenderedPdf>> inFlight = new ArrayDeque<>();
+        private final AtomicBoolean aborted = new AtomicBoolean();
+        private final AtomicLong renderNanos = new AtomicLong();
+        private final long startedAt = System.nanoTime();
+        private int documents;
+        private int failed;
+        private long bytes;
+        private boolean finished;
+
+        private Batch(String name, boolean cached, PdfSink sink) {
+            this.name = name;
+            this.cached = cached;
+            this.sink = sink;
+        }
+
+        public void submit(String fileName, StudentDashboard dashboard, String email) throws IOException {
+            // Готовые PDF из начала очереди отдаем сразу, не дожидаясь остальных
+            while (!inFlight.isEmpty() && inFlight.peekFirst().isDone()) {
+                deliver(inFlight.removeFirst());
+            }
+            // Окно выгрузки заполнено: ждем самый старый PDF
+            while (inFlight.size() >= properties.getMaxInFlight()) {
+                deliver(inFlight.removeFirst());
+            }
+
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Выгрузка прервана", e);
+            }
+            try {
+                inFlight.addLast(CompletableFuture.supplyAsync(() -> render(fileName, dashboard, email), executor));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw new IOException("Пул отрисовки PDF остановлен", e);
+            }
+        }
+
+        // Дожидаемся оставшихся PDF и возвращаем отчет
+        public RenderReport finish() throws IOException {
+            while (!inFlight.isEmpty()) {
+                deliver(inFlight.removeFirst());
+            }
+            finished = true;
+
+            long elapsedMs = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+            RenderReport report = new RenderReport(name, documents, failed, bytes, elapsedMs,
+                renderNanos.get() / 1_000_000, documents * 1000.0 / elapsedMs, LocalDateTime.now());
+            synchronized (history) {
+                history.addFirst(report);
+                while (history.size() > HISTORY_SIZE) {
+                    history.removeLast();
+                }
+            }
+            System.out.println(String.format("Отрисовка PDF \"%s\": %d документов (%d с ошибкой), %d КБ за %d мс, %.1f PDF/с",
+                name, documents, failed, bytes / 1024, elapsedMs, report.documentsPerSecond()));
+            return report;
+        }
+
+        // Выгрузка прервана (ошибка записи, клиент отключился): неначатые PDF не рисуем
+        @Override
+        public void close() {
+            if (!finished) {
+                aborted.set(true);
+                inFlight.clear();
+            }
+        }
+
+        private RenderedPdf render(String fileName, StudentDashboard dashboard, String email) {
+            try {
+                if (aborted.get()) {
+                    return new RenderedPdf(fileName, email, new byte[0]);
+                }
+                long start = System.nanoTime();
+                byte[] content = cached
+                    ? pdfExportService.getGradesPdf(dashboard, email, pdfExportService.fingerprint(dashboard, email))
+                    : pdfExportService.renderGradesPdf(dashboard, email);
+                renderNanos.addAndGet(System.nanoTime() - start);
+                return new RenderedPdf(fileName, email, content);
+            } finally {
+                permits.release();
+            }
+        }
+
+        private void deliver(CompletableFuture<RenderedPdf> future) throws IOException {
+            RenderedPdf pdf;
+            try {
+                pdf = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Выгрузка прервана", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Ошибка при создании PDF: " + e.getCause().getMessage(), e.getCause());
+            }
+
+            // renderGradesPdf сам логирует ошибку и возвращает пустой массив
+            if (pdf.content().length == 0) {
+                failed++;
+                return;
+            }
+            documents++;
+            bytes += pdf.content().length;
+            sink.accept(pdf);
+        }
+    }
+}
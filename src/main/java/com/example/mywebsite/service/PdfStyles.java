@@ -0,0 +1,97 @@
+package com.example.mywebsite.service;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Chunk;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.SplitCharacter;
+
+import java.time.format.DateTimeFormatter;
+
+// Шрифты, цвета и постоянные фразы PDF с оценками. Создаются один раз и только читаются,
+// поэтому общие для всех документов и потоков отрисовки. Нельзя вызывать у них setXxx
+final class PdfStyles {
+
+    static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    // Цвета категорий оценок (90/75/60)
+    static final BaseColor EXCELLENT = new BaseColor(76, 175, 80);
+    static final BaseColor GOOD = new BaseColor(255, 193, 7);
+    static final BaseColor SATISFACTORY = new BaseColor(255, 152, 0);
+    static final BaseColor UNSATISFACTORY = new BaseColor(244, 67, 54);
+
+    // Фон ячейки оценки
+    static final BaseColor EXCELLENT_CELL = withAlpha(EXCELLENT, 50);
+    static final BaseColor GOOD_CELL = withAlpha(GOOD, 50);
+    static final BaseColor SATISFACTORY_CELL = withAlpha(SATISFACTORY, 50);
+    static final BaseColor UNSATISFACTORY_CELL = withAlpha(UNSATISFACTORY, 50);
+
+    // Фон строки в таблице распределения
+    static final BaseColor EXCELLENT_ROW = withAlpha(EXCELLENT, 20);
+    static final BaseColor GOOD_ROW = withAlpha(GOOD, 20);
+    static final BaseColor SATISFACTORY_ROW = withAlpha(SATISFACTORY, 20);
+    static final BaseColor UNSATISFACTORY_ROW = withAlpha(UNSATISFACTORY, 20);
+
+    static final BaseColor TABLE_HEADER = new BaseColor(102, 126, 234);
+    static final BaseColor LIGHT_GRAY = new BaseColor(220, 220, 220);
+
+    static final Font TITLE = new Font(Font.FontFamily.HELVETICA, 18, Font.BOLD);
+    static final Font HEADER = new Font(Font.FontFamily.HELVETICA, 12, Font.BOLD);
+    static final Font NORMAL = new Font(Font.FontFamily.HELVETICA, 10);
+    static final Font SMALL = new Font(Font.FontFamily.HELVETICA, 9);
+    static final Font TABLE_HEADER_TEXT = new Font(Font.FontFamily.HELVETICA, 12, Font.NORMAL, BaseColor.WHITE);
+    static final Font DIAGRAM = new Font(Font.FontFamily.COURIER, 9);
+    static final Font FOOTER = new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, BaseColor.GRAY);
+
+    static final Font LEGEND_EXCELLENT = legend(EXCELLENT);
+    static final Font LEGEND_GOOD = legend(GOOD);
+    static final Font LEGEND_SATISFACTORY = legend(SATISFACTORY);
+    static final Font LEGEND_UNSATISFACTORY = legend(UNSATISFACTORY);
+
+    static final Phrase FOOTER_TITLE = new Phrase("Университетская система оценок", FOOTER);
+
+    // Переносы строк как у DefaultSplitCharacter, но без его проверки дат: в iText 5.5.13
+    // она на каждом символе копирует весь текст строки в String и компилирует регулярное
+    // выражение — это большая часть выделений при верстке таблицы оценок
+    static final SplitCharacter SPLIT = (start, current, end, cc, ck) -> {
+        char c = ck == null ? cc[current]
+            : (char) ck[Math.min(current, ck.length - 1)].getUnicodeEquivalent(cc[current]);
+        return c <= ' ' || c == '-' || c == '\u2010'
+            || (c >= '\u2002' && c <= '\u200b')
+            || (c >= '\u2e80' && c < '\ud7a0')
+            || (c >= '\uf900' && c < '\ufb00')
+            || (c >= '\ufe30' && c < '\ufe50')
+            || (c >= '\uff61' && c < '\uffa0');
+    };
+
+    private PdfStyles() {
+    }
+
+    // Фраза для ячейки таблицы с переносами по SPLIT. Пустую строку Phrase не добавляет
+    // как фрагмент, здесь так же — высота пустой ячейки не меняется
+    static Phrase phrase(String text, Font font) {
+        if (text.isEmpty()) {
+            return new Phrase(text, font);
+        }
+        return new Phrase(new Chunk(text, font).setSplitCharacter(SPLIT));
+    }
+
+    static BaseColor gradeCellColor(int grade) {
+        if (grade >= 90) {
+            return EXCELLENT_CELL;
+        } else if (grade >= 75) {
+            return GOOD_CELL;
+        } else if (grade >= 60) {
+            return SATISFACTORY_CELL;
+        }
+        return UNSATISFACTORY_CELL;
+    }
+
+    private static BaseColor withAlpha(BaseColor color, int alpha) {
+        return new BaseColor(color.getRed(), color.getGreen(), color.getBlue(), alpha);
+    }
+
+    private static Font legend(BaseColor color) {
+        return new Font(Font.FontFamily.HELVETICA, 10, Font.NORMAL, color);
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.config.ScheduleLiveProperties;
+import com.example.mywebsite.dto.ScheduleNow;
+import com.example.mywebsite.dto.ScheduleSlot;
+import com.example.mywebsite.event.ScheduleChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Живое "сейчас и дальше" для открытых вкладок (SSE). Подписки группируются по группе,
+// один таймер просыпается только на ближайшей границе занятия среди всех групп
+// (или для heartbeat), пересчитывает состояние из снимка расписания в памяти
+// и рассылает событие тем группам, у которых сменилось текущее или следующее занятие
+@Service
+public class ScheduleLiveService {
+
+    // Тик приходит чуть позже границы, чтобы минута уже сменилась
+    private static final long BOUNDARY_MARGIN_MILLIS = 200;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private ScheduleLiveProperties properties;
+
+    @Autowired
+    @Qualifier("scheduleLiveScheduler")
+    private ScheduledExecutorService scheduler;
+
+    // Ключ — группа в нижнем регистре, "" — все группы
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    // Меняются только в потоке таймера
+    private ScheduledFuture<?> nextTick;
+    private LocalDateTime nextHeartbeat;
+
+    private static final class Channel {
+        private final String group;
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        // Последнее разосланное состояние; null — канал еще не обработан таймером
+        private volatile ScheduleNow last;
+
+        private Channel(String group) {
+            this.group = group;
+        }
+    }
+
+    // Подписка на группу (null или пустая строка — все группы). Текущее состояние
+    // отправляется сразу, дальше — только при смене занятия или изменении расписания.
+    // IllegalStateException — превышен лимит соединений
+    public SseEmitter subscribe(String group) {
+        if (subscribers.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscribers.decrementAndGet();
+            throw new IllegalStateException("Превышено число подписок на расписание: " + properties.getMaxSubscribers());
+        }
+        String key = group != null ? group.trim().toLowerCase(Locale.ROOT) : "";
+        SseEmitter emitter = new SseEmitter(properties.getEmitterTimeout().toMillis());
+        // Добавление внутри compute: таймер не удалит канал между созданием и подпиской
+        Channel channel = channels.compute(key, (k, existing) -> {
+            Channel target = existing != null ? existing : new Channel(k.isEmpty() ? null : group.trim());
+            target.emitters.add(emitter);
+            return target;
+        });
+        emitter.onCompletion(() -> drop(channel, emitter));
+        emitter.onTimeout(() -> drop(channel, emitter));
+        emitter.onError(e -> drop(channel, emitter));
+
+        ScheduleNow state = scheduleService.getNowAndNext(channel.group, LocalDateTime.now());
+        send(channel, emitter, state);
+        if (channel.last == null) {
+            // Новый канал: его граница может быть раньше запланированного тика
+            channel.last = state;
+            scheduler.execute(() -> tick(false));
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    // Расписание изменилось: всем каналам новое состояние, даже если id занятий те же
+    @EventListener
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (!channels.isEmpty()) {
+            scheduler.execute(() -> tick(true));
+        }
+    }
+
+    private void tick(boolean force) {
+        if (nextTick != null) {
+            nextTick.cancel(false);
+            nextTick = null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime wakeAt = null;
+        try {
+            if (nextHeartbeat == null) {
+                nextHeartbeat = now.plus(properties.getHeartbeat());
+            }
+            boolean heartbeat = !now.isBefore(nextHeartbeat);
+            if (heartbeat) {
+                nextHeartbeat = now.plus(properties.getHeartbeat());
+            }
+
+            for (Map.Entry<String, Channel> entry : channels.entrySet()) {
+                Channel channel = channels.computeIfPresent(entry.getKey(),
+                    (k, c) -> c.emitters.isEmpty() ? null : c);
+                if (channel == null) {
+                    continue;
+                }
+                ScheduleNow state = scheduleService.getNowAndNext(channel.group, now);
+                if (force || !sameLessons(channel.last, state)) {
+                    channel.last = state;
+                    for (SseEmitter emitter : channel.emitters) {
+                        send(channel, emitter, state);
+                    }
+                } else if (heartbeat) {
+                    for (SseEmitter emitter : channel.emitters) {
+                        sendHeartbeat(channel, emitter);
+                    }
+                }
+                LocalDateTime boundary = nextBoundary(state, now);
+                if (boundary != null && (wakeAt == null || boundary.isBefore(wakeAt))) {
+                    wakeAt = boundary;
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Ошибка при обновлении живого расписания: " + e.getMessage());
+        }
+
+        if (channels.isEmpty()) {
+            // Подписчиков нет — таймер спит до следующей подписки
+            nextHeartbeat = null;
+            return;
+        }
+        if (wakeAt == null || wakeAt.isAfter(nextHeartbeat)) {
+            wakeAt = nextHeartbeat;
+        }
+        long delay = Math.max(0, ChronoUnit.MILLIS.between(now, wakeAt)) + BOUNDARY_MARGIN_MILLIS;
+        nextTick = scheduler.schedule(() -> tick(false), delay, TimeUnit.MILLISECONDS);
+    }
+
+    // Ближайшая смена состояния: конец текущего занятия или начало следующего
+    private static LocalDateTime nextBoundary(ScheduleNow state, LocalDateTime now) {
+        Integer minutes = state.minutesUntilNext();
+        ScheduleSlot current = state.current();
+        if (current != null) {
+            int untilEnd = current.endMinute() - (now.getHour() * 60 + now.getMinute());
+            minutes = minutes != null ? Math.min(minutes, untilEnd) : untilEnd;
+        }
+        return minutes != null ? now.truncatedTo(ChronoUnit.MINUTES).plusMinutes(minutes) : null;
+    }
+
+    private static boolean sameLessons(ScheduleNow previous, ScheduleNow state) {
+        return previous != null
+            && Objects.equals(id(previous.current()), id(state.current()))
+            && Objects.equals(id(previous.next()), id(state.next()))
+            && Objects.equals(previous.nextDay(), state.nextDay());
+    }
+
+    private static Integer id(ScheduleSlot slot) {
+        return slot != null ? slot.id() : null;
+    }
+
+    private void send(Channel channel, SseEmitter emitter, ScheduleNow state) {
+        try {
+            emitter.send(SseEmitter.event().name("schedule").data(state, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Вкладка закрыта: соединение больше не нужно
+            drop(channel, emitter);
+        }
+    }
+
+    // Комментарий без данных: проверяет соединение и не дает прокси его закрыть
+    private void sendHeartbeat(Channel channel, SseEmitter emitter) {
+        try {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        } catch (IOException | IllegalStateException e) {
+            drop(channel, emitter);
+        }
+    }
+
+    private void drop(Channel channel, SseEmitter emitter) {
+        if (channel.emitters.remove(emitter)) {
+            subscribers.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        for (Channel channel : channels.values()) {
+            for (SseEmitter emitter : channel.emitters) {
+                emitter.complete();
+            }
+        }
+        channels.clear();
+    }
+}
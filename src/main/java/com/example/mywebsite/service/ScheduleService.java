@@ -1,41 +1,50 @@
 package com.example.mywebsite.service;
 
+import com.example.mywebsite.dto.ScheduleClash;
+import com.example.mywebsite.dto.ScheduleNow;
+import com.example.mywebsite.dto.ScheduleSlot;
+import com.example.mywebsite.dto.TimeSlot;
+import com.example.mywebsite.event.ScheduleChangedEvent;
+import com.example.mywebsite.mapper.ScheduleSlotMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.WeekFields;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+// Расписание меняется редко, поэтому читается одним запросом в ScheduleSnapshot
+// и отдается из памяти до следующей записи через этот сервис
 @Service
 public class ScheduleService {
     
     @Autowired
     private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ScheduleSlotMapper scheduleSlotMapper = new ScheduleSlotMapper();
+
+    private static final String INSERT_SQL = """
+        INSERT INTO schedule (day_of_week, time_slot, subject_name, room, teacher, group_name,
+            iso_day, start_minute, end_minute)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
     
-    // Инициализация таблицы расписания
-    public void initScheduleTable() {
-        try {
-            jdbcTemplate.execute("""
-                IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='schedule' AND xtype='U')
-                CREATE TABLE schedule (
-                    id INT IDENTITY(1,1) PRIMARY KEY,
-                    day_of_week NVARCHAR(20) NOT NULL,
-                    time_slot NVARCHAR(20) NOT NULL,
-                    subject_name NVARCHAR(100) NOT NULL,
-                    room NVARCHAR(20),
-                    teacher NVARCHAR(100),
-                    group_name NVARCHAR(50),
-                    created_date DATETIME DEFAULT GETDATE()
-                )
-            """);
-            
-            // Добавляем тестовые данные если таблица пуста
-            if (isTableEmpty()) {
-                addSampleSchedule();
-            }
-            
-        } catch (Exception e) {
-            System.err.println("Ошибка при инициализации таблицы расписания: " + e.getMessage());
-        }
+    // Добавляем тестовые данные если таблица пуста; false — ошибка (уже залогирована)
+    public boolean initSampleSchedule() {
+        return !isTableEmpty() || addSampleSchedule();
     }
     
     private boolean isTableEmpty() {
@@ -48,7 +57,7 @@ public class ScheduleService {
         }
     }
     
-    private void addSampleSchedule() {
+    private boolean addSampleSchedule() {
         try {
             String[][] schedule = {
                 {"Понедельник", "9:00-10:30", "Математика", "А-101", "Иванова А.П.", "ИТ-21"},
@@ -64,134 +73,217 @@ public class ScheduleService {
                 {"Пятница", "10:45-12:15", "Проектная работа", "Б-210", "Петров С.М.", "ИТ-21"}
             };
             
+            List<Object[]> rows = new ArrayList<>(schedule.length);
             for (String[] row : schedule) {
-                jdbcTemplate.update(
-                    "INSERT INTO schedule (day_of_week, time_slot, subject_name, room, teacher, group_name) VALUES (?, ?, ?, ?, ?, ?)",
-                    row[0], row[1], row[2], row[3], row[4], row[5]
-                );
+                rows.add(insertArgs(normalize(0, row[0], row[1], row[2], row[3], row[4], row[5])));
             }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
             
+            invalidate();
             System.out.println("Добавлено тестовое расписание");
+            return true;
             
         } catch (Exception e) {
             System.err.println("Ошибка при добавлении тестового расписания: " + e.getMessage());
+            return false;
         }
     }
     
-    // Получаем расписание на неделю
-    public List<Map<String, Object>> getWeeklySchedule() {
-        try {
-            return jdbcTemplate.queryForList("""
-                SELECT * FROM schedule 
-                ORDER BY 
-                    CASE day_of_week
-                        WHEN 'Понедельник' THEN 1
-                        WHEN 'Вторник' THEN 2
-                        WHEN 'Среда' THEN 3
-                        WHEN 'Четверг' THEN 4
-                        WHEN 'Пятница' THEN 5
-                        WHEN 'Суббота' THEN 6
-                        WHEN 'Воскресенье' THEN 7
-                        ELSE 8
-                    END,
-                    time_slot
-            """);
-        } catch (Exception e) {
-            System.err.println("Ошибка при получении недельного расписания: " + e.getMessage());
-            return Collections.emptyList();
-        }
+    // Снимок расписания; null — не загружен или сброшен записью
+    private final AtomicReference<ScheduleSnapshot> snapshot = new AtomicReference<>();
+
+    // Растет при каждой записи: снимок, прочитанный до записи, не публикуется
+    private final AtomicLong generation = new AtomicLong();
+
+    // Получаем расписание на неделю: по дням, внутри дня по времени начала
+    public List<ScheduleSlot> getWeeklySchedule() {
+        return snapshot().slots();
     }
     
-    // Получаем расписание сгруппированное по дням
-    public Map<String, List<Map<String, Object>>> getGroupedSchedule() {
-        Map<String, List<Map<String, Object>>> result = new LinkedHashMap<>();
-        List<Map<String, Object>> schedule = getWeeklySchedule();
-        
-        // Порядок дней недели
-        String[] daysOrder = {"Понедельник", "Вторник", "Среда", "Четверг", "Пятница", "Суббота", "Воскресенье"};
-        
-        // Инициализация
-        for (String day : daysOrder) {
-            result.put(day, new ArrayList<>());
-        }
-        
-        // Группировка
-        for (Map<String, Object> lesson : schedule) {
-            String day = (String) lesson.get("day_of_week");
-            if (result.containsKey(day)) {
-                result.get(day).add(lesson);
-            }
-        }
-        
-        // Удаляем пустые дни
-        result.entrySet().removeIf(entry -> entry.getValue().isEmpty());
-        
-        return result;
+    // Получаем расписание сгруппированное по дням (пустые дни не включаются)
+    public Map<String, List<ScheduleSlot>> getGroupedSchedule() {
+        return snapshot().grouped();
+    }
+
+    public Map<String, List<ScheduleSlot>> getGroupedSchedule(String group) {
+        return snapshot().grouped(group);
     }
     
     // Получаем расписание на сегодня
-    public List<Map<String, Object>> getTodaysSchedule() {
-        try {
-            String today = getTodayInRussian();
-            return jdbcTemplate.queryForList(
-                "SELECT * FROM schedule WHERE day_of_week = ? ORDER BY time_slot",
-                today
-            );
-        } catch (Exception e) {
-            System.err.println("Ошибка при получении расписания на сегодня: " + e.getMessage());
-            return Collections.emptyList();
-        }
+    public List<ScheduleSlot> getTodaysSchedule() {
+        return snapshot().day(LocalDate.now().getDayOfWeek());
+    }
+
+    public List<ScheduleSlot> getTodaysSchedule(String group) {
+        return snapshot().day(group, LocalDate.now().getDayOfWeek());
     }
     
+    // Неделя по группе, преподавателю и/или аудитории; пустые параметры не фильтруют
+    public Map<String, List<ScheduleSlot>> findWeek(String group, String teacher, String room) {
+        return snapshot().find(group, teacher, room);
+    }
+
     // Получаем все группы
     public List<String> getAllGroups() {
-        try {
-            return jdbcTemplate.queryForList(
-                "SELECT DISTINCT group_name FROM schedule ORDER BY group_name",
-                String.class
-            );
-        } catch (Exception e) {
-            System.err.println("Ошибка при получении списка групп: " + e.getMessage());
-            return Arrays.asList("ИТ-21", "ИТ-22", "ИТ-23");
+        return snapshot().groups();
+    }
+
+    public boolean hasGroup(String group) {
+        return snapshot().hasGroup(group);
+    }
+
+    // Текущее и следующее занятие группы (group == null — всех групп) на момент now
+    public ScheduleNow getNowAndNext(String group, LocalDateTime now) {
+        ScheduleSnapshot current = snapshot();
+        String key = group != null && !group.isBlank() ? group : null;
+        DayOfWeek today = now.getDayOfWeek();
+        int minute = now.getHour() * 60 + now.getMinute();
+
+        ScheduleSlot lesson = current.current(key, today, minute);
+        ScheduleSlot next = current.next(key, today, minute);
+        Integer minutesUntilNext = null;
+        if (next != null) {
+            int days = (next.day().getValue() - today.getValue() + 7) % 7;
+            if (days == 0 && next.startMinute() <= minute) {
+                days = 7;
+            }
+            minutesUntilNext = days * TimeSlot.MINUTES_PER_DAY + next.startMinute() - minute;
         }
+        return new ScheduleNow(key, ScheduleSlot.dayName(today), TimeSlot.format(minute), lesson, next,
+            next != null ? next.dayOfWeek() : null, minutesUntilNext);
+    }
+
+    // Пересечения аудиторий и преподавателей, найденные при загрузке
+    public List<ScheduleClash> getClashes() {
+        return snapshot().clashes();
     }
     
     // Получаем статистику расписания
     public Map<String, Object> getScheduleStats() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        try {
-            Integer totalLessons = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM schedule", Integer.class);
-            Integer totalDays = jdbcTemplate.queryForObject(
-                "SELECT COUNT(DISTINCT day_of_week) FROM schedule", Integer.class);
-            Integer totalSubjects = jdbcTemplate.queryForObject(
-                "SELECT COUNT(DISTINCT subject_name) FROM schedule", Integer.class);
-            Integer totalTeachers = jdbcTemplate.queryForObject(
-                "SELECT COUNT(DISTINCT teacher) FROM schedule", Integer.class);
-            
-            stats.put("totalLessons", totalLessons != null ? totalLessons : 0);
-            stats.put("totalDays", totalDays != null ? totalDays : 0);
-            stats.put("totalSubjects", totalSubjects != null ? totalSubjects : 0);
-            stats.put("totalTeachers", totalTeachers != null ? totalTeachers : 0);
-            
-        } catch (Exception e) {
-            System.err.println("Ошибка при получении статистики: " + e.getMessage());
-            stats.put("totalLessons", 11);
-            stats.put("totalDays", 5);
-            stats.put("totalSubjects", 6);
-            stats.put("totalTeachers", 5);
+        return snapshot().stats();
+    }
+
+    public ScheduleSlot createSlot(String day, String timeSlot, String subjectName,
+                                   String room, String teacher, String groupName) {
+        ScheduleSlot slot = normalize(0, day, timeSlot, subjectName, room, teacher, groupName);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+            Object[] args = insertArgs(slot);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, keyHolder);
+
+        Number key = keyHolder.getKey();
+        int id = key != null ? key.intValue() : 0;
+        changed(ScheduleChangedEvent.Type.CREATED, id);
+        return ScheduleSlot.of(id, slot.dayOfWeek(), slot.timeSlot(),
+            slot.subjectName(), slot.room(), slot.teacher(), slot.groupName());
+    }
+
+    // null — занятие не найдено
+    public ScheduleSlot updateSlot(int id, String day, String timeSlot, String subjectName,
+                                   String room, String teacher, String groupName) {
+        ScheduleSlot slot = normalize(id, day, timeSlot, subjectName, room, teacher, groupName);
+        int updated = jdbcTemplate.update("""
+            UPDATE schedule SET day_of_week = ?, time_slot = ?, subject_name = ?, room = ?, teacher = ?, group_name = ?,
+                iso_day = ?, start_minute = ?, end_minute = ?
+            WHERE id = ?
+            """, slot.dayOfWeek(), slot.timeSlot(), slot.subjectName(), slot.room(), slot.teacher(), slot.groupName(),
+            slot.isoDay(), slot.startMinute(), slot.endMinute(), id);
+        if (updated == 0) {
+            return null;
         }
-        
-        return stats;
+        changed(ScheduleChangedEvent.Type.UPDATED, id);
+        return slot;
+    }
+
+    public boolean deleteSlot(int id) {
+        boolean deleted = jdbcTemplate.update("DELETE FROM schedule WHERE id = ?", id) > 0;
+        if (deleted) {
+            changed(ScheduleChangedEvent.Type.DELETED, id);
+        }
+        return deleted;
+    }
+
+    // Сброс снимка; следующее чтение загрузит расписание заново
+    public void invalidate() {
+        changed(ScheduleChangedEvent.Type.RELOADED, null);
+    }
+
+    // Событие публикуется после сброса: подписчики уже прочитают новый снимок
+    private void changed(ScheduleChangedEvent.Type type, Integer slotId) {
+        generation.incrementAndGet();
+        snapshot.set(null);
+        eventPublisher.publishEvent(new ScheduleChangedEvent(type, slotId));
+    }
+
+    private ScheduleSnapshot snapshot() {
+        ScheduleSnapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (snapshot) {
+            current = snapshot.get();
+            if (current != null) {
+                return current;
+            }
+            long loadedGeneration = generation.get();
+            try {
+                current = new ScheduleSnapshot(jdbcTemplate.query("""
+                    SELECT id, day_of_week, time_slot, subject_name, room, teacher, group_name,
+                        iso_day, start_minute, end_minute
+                    FROM schedule
+                    """, scheduleSlotMapper));
+            } catch (Exception e) {
+                // Пустой снимок не сохраняем: следующий запрос попробует снова
+                System.err.println("Ошибка при загрузке расписания: " + e.getMessage());
+                return ScheduleSnapshot.EMPTY;
+            }
+            for (ScheduleClash clash : current.clashes()) {
+                System.err.println("Пересечение в расписании (" + clash.type() + " " + clash.key() + ", " +
+                    clash.day() + "): " + clash.first().timeSlot() + " " + clash.first().subjectName() +
+                    " / " + clash.second().timeSlot() + " " + clash.second().subjectName());
+            }
+            // Запись во время загрузки: отдаем прочитанное, но не сохраняем
+            if (generation.get() == loadedGeneration) {
+                snapshot.compareAndSet(null, current);
+            }
+            return current;
+        }
+    }
+
+    // Проверка и приведение к единому виду: день — русское название, время — "9:00-10:30"
+    private static ScheduleSlot normalize(int id, String day, String timeSlot, String subjectName,
+                                          String room, String teacher, String groupName) {
+        DayOfWeek dayOfWeek = ScheduleSlot.parseDay(day);
+        if (dayOfWeek == null) {
+            throw new IllegalArgumentException("Неизвестный день недели: " + day);
+        }
+        if (timeSlot == null || timeSlot.isBlank()) {
+            throw new IllegalArgumentException("Не указано время занятия");
+        }
+        TimeSlot time = TimeSlot.parse(timeSlot);
+        if (subjectName == null || subjectName.isBlank()) {
+            throw new IllegalArgumentException("Не указан предмет");
+        }
+        return new ScheduleSlot(id, ScheduleSlot.dayName(dayOfWeek), time.format(), subjectName.trim(),
+            room, teacher, groupName, dayOfWeek.getValue(), time.startMinute(), time.endMinute());
+    }
+
+    private static Object[] insertArgs(ScheduleSlot slot) {
+        return new Object[]{slot.dayOfWeek(), slot.timeSlot(), slot.subjectName(), slot.room(), slot.teacher(),
+            slot.groupName(), slot.isoDay(), slot.startMinute(), slot.endMinute()};
     }
     
     // Получаем информацию о текущей неделе
     public Map<String, Object> getWeekInfo() {
         Map<String, Object> info = new HashMap<>();
         
-        java.time.LocalDate now = java.time.LocalDate.now();
-        info.put("weekNumber", now.get(java.time.temporal.WeekFields.of(Locale.getDefault()).weekOfWeekBasedYear()));
+        LocalDate now = LocalDate.now();
+        info.put("weekNumber", now.get(WeekFields.of(Locale.getDefault()).weekOfWeekBasedYear()));
         info.put("currentDay", getTodayInRussian());
         info.put("nextHoliday", "Новогодние каникулы");
         
@@ -200,19 +292,6 @@ public class ScheduleService {
     
     // Вспомогательный метод для получения сегодняшнего дня на русском
     private String getTodayInRussian() {
-        java.time.LocalDate today = java.time.LocalDate.now();
-        java.time.DayOfWeek dayOfWeek = today.getDayOfWeek();
-        
-        Map<java.time.DayOfWeek, String> daysMap = Map.of(
-            java.time.DayOfWeek.MONDAY, "Понедельник",
-            java.time.DayOfWeek.TUESDAY, "Вторник",
-            java.time.DayOfWeek.WEDNESDAY, "Среда",
-            java.time.DayOfWeek.THURSDAY, "Четверг",
-            java.time.DayOfWeek.FRIDAY, "Пятница",
-            java.time.DayOfWeek.SATURDAY, "Суббота",
-            java.time.DayOfWeek.SUNDAY, "Воскресенье"
-        );
-        
-        return daysMap.getOrDefault(dayOfWeek, "Понедельник");
+        return ScheduleSlot.dayName(LocalDate.now().getDayOfWeek());
     }
 }
\ No newline at end of file
@@ -0,0 +1,337 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.dto.ScheduleClash;
+import com.example.mywebsite.dto.ScheduleSlot;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+// Неизменяемый снимок расписания: занятия разложены по дням недели, отсортированы
+// по минуте начала и посчитаны один раз при загрузке. Текущее и следующее занятие
+// ищутся бинарным поиском по минуте начала. Обратные индексы (группа, преподаватель, аудитория -> занятия)
+// отвечают на запросы недели поиском в HashMap. Пересечения аудиторий и преподавателей
+// находятся здесь же, при загрузке. Общий для всех запросов до следующей записи
+final class ScheduleSnapshot {
+
+    private static final Comparator<ScheduleSlot> BY_TIME = Comparator
+        .comparingInt(ScheduleSnapshot::startKey)
+        .thenComparing(ScheduleSlot::timeSlot, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparingInt(ScheduleSlot::id);
+
+    static final ScheduleSnapshot EMPTY = new ScheduleSnapshot(List.of());
+
+    private final List<ScheduleSlot> slots;
+    private final Map<DayOfWeek, List<ScheduleSlot>> byDay;
+    private final Map<String, List<ScheduleSlot>> grouped;
+    private final SlotIndex byGroup;
+    private final SlotIndex byTeacher;
+    private final SlotIndex byRoom;
+    private final List<String> groups;
+    private final List<ScheduleClash> clashes;
+    private final Map<String, Object> stats;
+
+    // Занятия по ключу (группа, преподаватель или аудитория) в порядке недели.
+    // Ключ поиска без учета регистра и пробелов по краям
+    private static final class SlotIndex {
+        final Map<String, List<ScheduleSlot>> slots;
+        final Map<String, Map<DayOfWeek, List<ScheduleSlot>>> days;
+        final Map<String, Map<String, List<ScheduleSlot>>> week;
+
+        SlotIndex(List<ScheduleSlot> ordered, Function<ScheduleSlot, String> key) {
+            Map<String, List<ScheduleSlot>> postings = new HashMap<>();
+            for (ScheduleSlot slot : ordered) {
+                String value = normalize(key.apply(slot));
+                if (value != null) {
+                    postings.computeIfAbsent(value, k -> new ArrayList<>()).add(slot);
+                }
+            }
+            Map<String, List<ScheduleSlot>> frozen = new HashMap<>();
+            Map<String, Map<DayOfWeek, List<ScheduleSlot>>> frozenDays = new HashMap<>();
+            Map<String, Map<String, List<ScheduleSlot>>> frozenWeek = new HashMap<>();
+            postings.forEach((value, list) -> {
+                List<ScheduleSlot> copy = List.copyOf(list);
+                Map<DayOfWeek, List<ScheduleSlot>> perDay = splitByDay(copy);
+                frozen.put(value, copy);
+                frozenDays.put(value, perDay);
+                frozenWeek.put(value, byDayName(perDay));
+            });
+            this.slots = Collections.unmodifiableMap(frozen);
+            this.days = Collections.unmodifiableMap(frozenDays);
+            this.week = Collections.unmodifiableMap(frozenWeek);
+        }
+
+        // null — ключ не задан; пустой список — по ключу ничего нет
+        List<ScheduleSlot> get(String value) {
+            String key = normalize(value);
+            return key == null ? null : slots.getOrDefault(key, List.of());
+        }
+    }
+
+    ScheduleSnapshot(List<ScheduleSlot> loaded) {
+        Map<DayOfWeek, List<ScheduleSlot>> days = new EnumMap<>(DayOfWeek.class);
+        Set<String> groupNames = new TreeSet<>();
+        Set<String> subjects = new HashSet<>();
+        Set<String> teachers = new HashSet<>();
+
+        for (ScheduleSlot slot : loaded) {
+            DayOfWeek day = slot.day();
+            if (day == null) {
+                // Неизвестный день не попадал и в прежнее расписание по дням
+                continue;
+            }
+            days.computeIfAbsent(day, d -> new ArrayList<>()).add(slot);
+            if (slot.groupName() != null) {
+                groupNames.add(slot.groupName());
+            }
+            subjects.add(slot.subjectName());
+            if (slot.teacher() != null) {
+                teachers.add(slot.teacher());
+            }
+        }
+
+        Map<DayOfWeek, List<ScheduleSlot>> sorted = new EnumMap<>(DayOfWeek.class);
+        List<ScheduleSlot> ordered = new ArrayList<>(loaded.size());
+        days.forEach((day, lessons) -> {
+            lessons.sort(BY_TIME);
+            sorted.put(day, List.copyOf(lessons));
+            ordered.addAll(lessons);
+        });
+
+        this.slots = List.copyOf(ordered);
+        this.byDay = Collections.unmodifiableMap(sorted);
+        this.grouped = byDayName(byDay);
+        this.byGroup = new SlotIndex(slots, ScheduleSlot::groupName);
+        this.byTeacher = new SlotIndex(slots, ScheduleSlot::teacher);
+        this.byRoom = new SlotIndex(slots, ScheduleSlot::room);
+        this.groups = List.copyOf(groupNames);
+
+        List<ScheduleClash> found = new ArrayList<>();
+        findClashes(ScheduleClash.Type.ROOM, byRoom, found);
+        findClashes(ScheduleClash.Type.TEACHER, byTeacher, found);
+        found.sort(Comparator.comparing((ScheduleClash clash) -> clash.second().day())
+            .thenComparingInt(clash -> clash.second().startMinute())
+            .thenComparing(ScheduleClash::type)
+            .thenComparing(ScheduleClash::key));
+        this.clashes = List.copyOf(found);
+
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("totalLessons", slots.size());
+        counts.put("totalDays", byDay.size());
+        counts.put("totalSubjects", subjects.size());
+        counts.put("totalTeachers", teachers.size());
+        this.stats = Collections.unmodifiableMap(counts);
+    }
+
+    // Все занятия недели: по дням, внутри дня по времени начала
+    List<ScheduleSlot> slots() {
+        return slots;
+    }
+
+    List<ScheduleSlot> day(DayOfWeek day) {
+        return byDay.getOrDefault(day, List.of());
+    }
+
+    // Расписание по названиям дней, без пустых дней (как ожидают шаблоны)
+    Map<String, List<ScheduleSlot>> grouped() {
+        return grouped;
+    }
+
+    Map<String, List<ScheduleSlot>> grouped(String group) {
+        String key = normalize(group);
+        return key != null ? byGroup.week.getOrDefault(key, Map.of()) : Map.of();
+    }
+
+    List<ScheduleSlot> day(String group, DayOfWeek day) {
+        String key = normalize(group);
+        Map<DayOfWeek, List<ScheduleSlot>> groupByDay = key != null ? byGroup.days.get(key) : null;
+        return groupByDay != null ? groupByDay.getOrDefault(day, List.of()) : List.of();
+    }
+
+    // Неделя по любому сочетанию фильтров; null — фильтр не задан.
+    // Для одного фильтра — готовая неделя из индекса, для нескольких — пересечение,
+    // начиная с самого короткого списка
+    Map<String, List<ScheduleSlot>> find(String group, String teacher, String room) {
+        List<ScheduleSlot> byGroupSlots = byGroup.get(group);
+        List<ScheduleSlot> byTeacherSlots = byTeacher.get(teacher);
+        List<ScheduleSlot> byRoomSlots = byRoom.get(room);
+
+        List<ScheduleSlot> smallest = null;
+        int filters = 0;
+        for (List<ScheduleSlot> candidate : Arrays.asList(byGroupSlots, byTeacherSlots, byRoomSlots)) {
+            if (candidate == null) {
+                continue;
+            }
+            filters++;
+            if (smallest == null || candidate.size() < smallest.size()) {
+                smallest = candidate;
+            }
+        }
+        if (filters == 0) {
+            return grouped;
+        }
+        if (filters == 1) {
+            if (byGroupSlots != null) {
+                return byGroup.week.getOrDefault(normalize(group), Map.of());
+            }
+            if (byTeacherSlots != null) {
+                return byTeacher.week.getOrDefault(normalize(teacher), Map.of());
+            }
+            return byRoom.week.getOrDefault(normalize(room), Map.of());
+        }
+
+        List<ScheduleSlot> matched = new ArrayList<>();
+        for (ScheduleSlot slot : smallest) {
+            if (matches(group, slot.groupName()) && matches(teacher, slot.teacher()) && matches(room, slot.room())) {
+                matched.add(slot);
+            }
+        }
+        return byDayName(splitByDay(matched));
+    }
+
+    List<String> groups() {
+        return groups;
+    }
+
+    boolean hasGroup(String group) {
+        String key = normalize(group);
+        return key != null && byGroup.slots.containsKey(key);
+    }
+
+    List<ScheduleClash> clashes() {
+        return clashes;
+    }
+
+    Map<String, Object> stats() {
+        return stats;
+    }
+
+    boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    // Текущее занятие: последнее из начавшихся, которое еще не закончилось.
+    // group == null — по всем группам
+    ScheduleSlot current(String group, DayOfWeek day, int minute) {
+        List<ScheduleSlot> lessons = lessons(group, day);
+        for (int i = firstStartingAfter(lessons, minute) - 1; i >= 0; i--) {
+            ScheduleSlot lesson = lessons.get(i);
+            if (lesson.endMinute() > minute) {
+                return lesson;
+            }
+        }
+        return null;
+    }
+
+    // Ближайшее еще не начавшееся занятие: сегодня после minute или в один из следующих дней
+    // (включая этот же день через неделю)
+    ScheduleSlot next(String group, DayOfWeek day, int minute) {
+        for (int offset = 0; offset <= 7; offset++) {
+            List<ScheduleSlot> lessons = lessons(group, day.plus(offset));
+            int index = firstStartingAfter(lessons, offset == 0 ? minute : -1);
+            if (index < lessons.size() && lessons.get(index).hasTime()) {
+                return lessons.get(index);
+            }
+        }
+        return null;
+    }
+
+    private List<ScheduleSlot> lessons(String group, DayOfWeek day) {
+        return group == null ? day(day) : day(group, day);
+    }
+
+    // Бинарный поиск по времени начала: индекс первого занятия, начинающегося после minute
+    private static int firstStartingAfter(List<ScheduleSlot> lessons, int minute) {
+        int low = 0;
+        int high = lessons.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (startKey(lessons.get(mid)) <= minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Занятия без разобранного времени идут в конец дня
+    private static int startKey(ScheduleSlot slot) {
+        return slot.hasTime() ? slot.startMinute() : Integer.MAX_VALUE;
+    }
+
+    // Занятия каждого ключа уже идут по дням и времени, поэтому хватает одного прохода:
+    // очередное занятие сравниваем с тем, что в этот день заканчивается позже всех
+    private static void findClashes(ScheduleClash.Type type, SlotIndex index, List<ScheduleClash> found) {
+        index.slots.forEach((key, list) -> {
+            ScheduleSlot latest = null;
+            for (ScheduleSlot slot : list) {
+                if (!slot.hasTime()) {
+                    continue;
+                }
+                if (latest != null && latest.day() == slot.day() && slot.startMinute() < latest.endMinute()) {
+                    if (!isSharedLesson(type, latest, slot)) {
+                        found.add(new ScheduleClash(type, ScheduleSlot.dayName(slot.day()),
+                            type == ScheduleClash.Type.ROOM ? slot.room() : slot.teacher(), latest, slot));
+                    }
+                    if (slot.endMinute() <= latest.endMinute()) {
+                        continue;
+                    }
+                }
+                latest = slot;
+            }
+        });
+    }
+
+    // Общая лекция для нескольких групп: тот же предмет, а для аудитории — тот же преподаватель,
+    // для преподавателя — та же аудитория. Это не пересечение
+    private static boolean isSharedLesson(ScheduleClash.Type type, ScheduleSlot first, ScheduleSlot second) {
+        if (!Objects.equals(normalize(first.subjectName()), normalize(second.subjectName()))) {
+            return false;
+        }
+        return type == ScheduleClash.Type.ROOM
+            ? Objects.equals(normalize(first.teacher()), normalize(second.teacher()))
+            : Objects.equals(normalize(first.room()), normalize(second.room()));
+    }
+
+    private static boolean matches(String filter, String value) {
+        String key = normalize(filter);
+        return key == null || key.equals(normalize(value));
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Список уже в порядке недели
+    private static Map<DayOfWeek, List<ScheduleSlot>> splitByDay(List<ScheduleSlot> ordered) {
+        Map<DayOfWeek, List<ScheduleSlot>> perDay = new EnumMap<>(DayOfWeek.class);
+        for (ScheduleSlot slot : ordered) {
+            perDay.computeIfAbsent(slot.day(), d -> new ArrayList<>()).add(slot);
+        }
+        perDay.replaceAll((day, lessons) -> List.copyOf(lessons));
+        return Collections.unmodifiableMap(perDay);
+    }
+
+    private static Map<String, List<ScheduleSlot>> byDayName(Map<DayOfWeek, List<ScheduleSlot>> days) {
+        Map<String, List<ScheduleSlot>> named = new LinkedHashMap<>();
+        days.forEach((day, lessons) -> named.put(Objects.requireNonNull(ScheduleSlot.dayName(day)), lessons));
+        return Collections.unmodifiableMap(named);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.dto.StartupStep;
+import com.example.mywebsite.migration.SchemaMigrator;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+// Инициализация схемы и тестовых данных при запуске.
+// Сначала SchemaMigrator доводит схему до последней версии, затем независимые
+// шаги заполнения выполняются параллельно, а зависимые по внешним ключам
+// (users -> students -> grades) ждут своих предшественников.
+// Если в schema_version есть отметка о заполнении, проверки тестовых данных пропускаются
+@Service
+public class StartupOrchestrator {
+
+    // Отметка "тестовые данные готовы"; номера миграций начинаются с 1.
+    // Значение окончательное: строка с версией 1 от ранних сборок совпадает с V1 —
+    // это безопасно, V1 целиком из защищенных IF NOT EXISTS операторов
+    static final int SEED_MARKER_VERSION = 0;
+
+    private static final int THREADS = 4;
+
+    @Autowired
+    private SchemaMigrator schemaMigrator;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DatabaseService databaseService;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    private final List<StartupStep> steps = Collections.synchronizedList(new ArrayList<>());
+    private volatile long startedAt;
+    private volatile long totalMs;
+    private volatile boolean seedSkipped;
+
+    @PostConstruct
+    public void init() {
+        startedAt = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS, new CustomizableThreadFactory("startup-"));
+        try {
+            // Без схемы заполнять нечего: при ошибке миграции запуск прерывается
+            long migrateStart = System.currentTimeMillis();
+            List<Integer> applied = schemaMigrator.migrate();
+            record("migrations " + applied, migrateStart, "OK");
+
+            long markerStart = System.currentTimeMillis();
+            seedSkipped = isSeedMarked();
+            record("schema_version", markerStart, "OK");
+            boolean seed = !seedSkipped;
+
+            CompletableFuture<Void> schedule = CompletableFuture.runAsync(
+                seedStep("schedule.seed", seed, scheduleService::initSampleSchedule), executor);
+
+            // Тестовые данные: admin, его студент (user_id = 1), затем тестовые пользователи, студенты и оценки
+            CompletableFuture<Void> academic = CompletableFuture.runAsync(
+                seedStep("users.seed", seed, userService::createDefaultUser), executor)
+                .thenRunAsync(seedStep("academic.seed", seed, databaseService::addTestAcademicData), executor)
+                .thenRunAsync(seedStep("students.seed", seed, databaseService::initTestUsersAndStudents), executor);
+
+            CompletableFuture.allOf(schedule, academic).join();
+
+            // Отметку ставим только если все шаги прошли без ошибок
+            if (seed && !hasErrors()) {
+                timed("schema_version.mark", () ->
+                    schemaMigrator.markApplied(SEED_MARKER_VERSION, "Тестовые данные")).run();
+            }
+        } finally {
+            executor.shutdown();
+            totalMs = System.currentTimeMillis() - startedAt;
+        }
+
+        System.out.println("Инициализация при запуске завершена за " + totalMs + " мс" +
+            (seedSkipped ? " (тестовые данные уже есть, проверки пропущены)" : ""));
+    }
+
+    public Map<String, Object> getReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("totalMs", totalMs);
+        report.put("seedSkipped", seedSkipped);
+        synchronized (steps) {
+            report.put("steps", new ArrayList<>(steps));
+        }
+        return report;
+    }
+
+    private boolean isSeedMarked() {
+        try {
+            return schemaMigrator.isApplied(SEED_MARKER_VERSION);
+        } catch (Exception e) {
+            System.err.println("Ошибка при проверке schema_version: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Шаги заполнения сами ловят и логируют свои ошибки и возвращают false:
+    // такой шаг записывается как ошибка, и отметка о заполнении не ставится
+    private Runnable seedStep(String name, boolean enabled, BooleanSupplier action) {
+        if (!enabled) {
+            return () -> record(name, System.currentTimeMillis(), "SKIPPED");
+        }
+        return timed(name, () -> {
+            if (!action.getAsBoolean()) {
+                throw new IllegalStateException("шаг завершился с ошибкой");
+            }
+        });
+    }
+
+    // Ловим исключения, чтобы зависимые шаги всё равно выполнились,
+    // как это было при последовательном запуске
+    private Runnable timed(String name, Runnable action) {
+        return () -> {
+            long start = System.currentTimeMillis();
+            try {
+                action.run();
+                record(name, start, "OK");
+            } catch (Exception e) {
+                System.err.println("Ошибка на шаге запуска " + name + ": " + e.getMessage());
+                record(name, start, "ERROR: " + e.getMessage());
+            }
+        };
+    }
+
+    private boolean hasErrors() {
+        synchronized (steps) {
+            return steps.stream().anyMatch(step -> !"OK".equals(step.status()) && !"SKIPPED".equals(step.status()));
+        }
+    }
+
+    private void record(String name, long start, String status) {
+        long now = System.currentTimeMillis();
+        steps.add(new StartupStep(name, start - startedAt, now - start, status, Thread.currentThread().getName()));
+    }
+}
@@ -1,46 +1,48 @@
 package com.example.mywebsite.service;
 
+import com.example.mywebsite.config.AccessProperties;
 import com.example.mywebsite.entity.User;
+import com.example.mywebsite.mapper.UserMapper;
+import com.example.mywebsite.migration.SchemaMigrations;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+// Поиск пользователя при входе и на каждой странице идет через кэши:
+// "users" — email в нижнем регистре → профиль, "user-ids" — 'google:<id>' / 'github:<id>' → email.
+// Отсутствие пользователя тоже кэшируется, поэтому каждая запись в users
+// должна вызывать evictUser или evictAllUsers. Профиль из кэша общий — не изменять
 @Service
 public class UserService {
 
+    static final String USERS_CACHE = "users";
+    static final String USER_IDS_CACHE = "user-ids";
+
+    private static final String SELECT_USER = "SELECT id, email, password, google_id, github_id FROM users WHERE ";
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
-    @PostConstruct
-    public void init() {
-        createUsersTable();
-        createDefaultUser();
-    }
+    @Autowired
+    private CacheManager cacheManager;
 
-    private void createUsersTable() {
-        try {
-            jdbcTemplate.execute("""
-                IF NOT EXISTS (SELECT * FROM sysobjects WHERE name='users' AND xtype='U')
-                CREATE TABLE users (
-                    id INT IDENTITY(1,1) PRIMARY KEY,
-                    password NVARCHAR(100) NOT NULL,
-                    email NVARCHAR(100) NOT NULL UNIQUE,
-                    google_id NVARCHAR(100),
-                    github_id NVARCHAR(100),
-                    created_date DATETIME DEFAULT GETDATE()
-                )
-            """);
-            
-            System.out.println("Таблица users создана или уже существует");
-        } catch (Exception e) {
-            System.err.println("Ошибка при создании таблицы users: " + e.getMessage());
-        }
-    }
+    @Autowired
+    private AccessProperties accessProperties;
+
+    private final UserMapper userMapper = new UserMapper();
+
+    // Растет при каждом сбросе: результат запроса, начатого до записи, в кэш не кладется
+    private final AtomicLong writes = new AtomicLong();
 
-    private void createDefaultUser() {
+    // false — ошибка (уже залогирована)
+    public boolean createDefaultUser() {
         try {
             // Проверяем, есть ли уже пользователи
             Integer count = jdbcTemplate.queryForObject(
@@ -52,6 +54,7 @@ public class UserService {
                     "INSERT INTO users (password, email) VALUES (?, ?)",
                     "123", "admin@example.com"
                 );
+                evictUser("admin@example.com");
                 System.out.println("Создан пользователь по умолчанию: admin@example.com/123 (пароль без хэширования)");
             } else {
                 System.out.println("Пользователь admin@example.com уже существует");
@@ -64,8 +67,10 @@ public class UserService {
                     System.out.println("Текущий пароль в базе для admin@example.com: " + user.get("password"));
                 }
             }
+            return true;
         } catch (Exception e) {
             System.err.println("Ошибка при создании пользователя по умолчанию: " + e.getMessage());
+            return false;
         }
     }
 
@@ -89,37 +94,47 @@ public class UserService {
     }
 
     public User findByEmail(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        Cache users = cache(USERS_CACHE);
+        String key = emailKey(email);
+        Cache.ValueWrapper cached = users.get(key);
+        if (cached != null) {
+            return (User) cached.get();
+        }
+        long version = writes.get();
         try {
-            List<Map<String, Object>> results = jdbcTemplate.queryForList(
-                "SELECT * FROM users WHERE email = ?", email);
-            
-            if (!results.isEmpty()) {
-                Map<String, Object> row = results.get(0);
-                User user = new User();
-                user.setEmail((String) row.get("email"));
-                user.setPassword((String) row.get("password"));
-                user.setGoogleId((String) row.get("google_id"));
-                user.setGithubId((String) row.get("github_id"));
-                
-                System.out.println("Найден пользователь " + email + 
-                                ": google_id=" + user.getGoogleId() + 
-                                ", github_id=" + user.getGithubId());
-                
-                return user;
+            User user = queryUser("email", email);
+            if (writes.get() == version) {
+                users.put(key, user);
             }
-            return null;
+            return user;
         } catch (Exception e) {
             System.err.println("Ошибка при поиске пользователя: " + e.getMessage());
             return null;
         }
     }
 
+    // Email пользователя, вошедшего через OAuth под числовым ID; иначе имя без изменений
+    public String resolveEmail(String username) {
+        if (username == null || !username.matches("\\d+")) {
+            return username;
+        }
+        User user = findByGoogleId(username);
+        if (user == null) {
+            user = findByGithubId(username);
+        }
+        return user != null && user.getEmail() != null ? user.getEmail() : username;
+    }
+
     public boolean registerUser(String password, String email) {
         try {
             jdbcTemplate.update(
                 "INSERT INTO users (password, email) VALUES (?, ?)",
                 password, email
             );
+            evictUser(email);
             return true;
         } catch (Exception e) {
             System.err.println("Ошибка при регистрации пользователя: " + e.getMessage());
@@ -143,8 +158,11 @@ public class UserService {
             jdbcTemplate.execute("DROP TABLE IF EXISTS users");
             System.out.println("Таблица users удалена");
             
-            // Создаем заново
-            createUsersTable();
+            // Создаем заново вместе с индексами
+            jdbcTemplate.execute(SchemaMigrations.USERS_TABLE);
+            jdbcTemplate.execute(SchemaMigrations.USERS_GOOGLE_ID_INDEX);
+            jdbcTemplate.execute(SchemaMigrations.USERS_GITHUB_ID_INDEX);
+            evictAllUsers();
             createDefaultUser();
             System.out.println("Таблица users пересоздана");
         } catch (Exception e) {
@@ -153,47 +171,106 @@ public class UserService {
     }
 
     public User findByGoogleId(String googleId) {
-        try {
-            List<Map<String, Object>> results = jdbcTemplate.queryForList(
-                "SELECT * FROM users WHERE google_id = ?", googleId);
-            
-            if (!results.isEmpty()) {
-                Map<String, Object> row = results.get(0);
-                User user = new User();
-                user.setEmail((String) row.get("email"));
-                user.setPassword((String) row.get("password"));
-                user.setGoogleId((String) row.get("google_id"));
-                user.setGithubId((String) row.get("github_id"));
+        return findByProviderId("google", "google_id", googleId);
+    }
+
+    public User findByGithubId(String githubId) {
+        return findByProviderId("github", "github_id", githubId);
+    }
+
+    // ID провайдера → email → профиль. Привязку могли сменить после кэширования,
+    // поэтому профиль сверяется с ID, а устаревшая запись перечитывается
+    private User findByProviderId(String provider, String column, String providerId) {
+        if (providerId == null || providerId.isBlank()) {
+            return null;
+        }
+        Cache ids = cache(USER_IDS_CACHE);
+        String key = provider + ":" + providerId;
+        Cache.ValueWrapper cached = ids.get(key);
+        if (cached != null) {
+            String email = (String) cached.get();
+            if (email == null) {
+                return null;
+            }
+            User user = findByEmail(email);
+            if (user != null && providerId.equals("google".equals(provider) ? user.getGoogleId() : user.getGithubId())) {
                 return user;
             }
-            return null;
-        } catch (Exception e) {
-            System.err.println("Ошибка при поиске пользователя по Google ID: " + e.getMessage());
-            return null;
+            ids.evict(key);
         }
-    }
 
-    public User findByGithubId(String githubId) {
+        long version = writes.get();
         try {
-            List<Map<String, Object>> results = jdbcTemplate.queryForList(
-                "SELECT * FROM users WHERE github_id = ?", githubId);
-            
-            if (!results.isEmpty()) {
-                Map<String, Object> row = results.get(0);
-                User user = new User();
-                user.setEmail((String) row.get("email"));
-                user.setPassword((String) row.get("password"));
-                user.setGoogleId((String) row.get("google_id"));
-                user.setGithubId((String) row.get("github_id"));
-                return user;
+            User user = queryUser(column, providerId);
+            if (writes.get() == version) {
+                ids.put(key, user != null ? user.getEmail() : null);
+                if (user != null) {
+                    cache(USERS_CACHE).put(emailKey(user.getEmail()), user);
+                }
             }
-            return null;
+            return user;
         } catch (Exception e) {
-            System.err.println("Ошибка при поиске пользователя по GitHub ID: " + e.getMessage());
+            System.err.println("Ошибка при поиске пользователя по " + column + ": " + e.getMessage());
             return null;
         }
     }
 
+    // Роли без префикса ROLE_: USER у всех, TEACHER и ADMIN — по спискам app.access
+    public List<String> getRoles(String email) {
+        List<String> roles = new ArrayList<>(List.of("USER"));
+        if (email == null) {
+            return roles;
+        }
+        if (containsEmail(accessProperties.getTeachers(), email)) {
+            roles.add("TEACHER");
+        }
+        if (containsEmail(accessProperties.getAdmins(), email)) {
+            roles.add("ADMIN");
+        }
+        return roles;
+    }
+
+    private static boolean containsEmail(List<String> emails, String email) {
+        String key = emailKey(email);
+        return emails.stream().anyMatch(candidate -> emailKey(candidate).equals(key));
+    }
+
+    private User queryUser(String column, String value) {
+        List<User> users = jdbcTemplate.query(SELECT_USER + column + " = ?", userMapper, value);
+        return users.isEmpty() ? null : users.get(0);
+    }
+
+    // Сброс профиля по email и, если переданы, записей 'google:<id>' / 'github:<id>'
+    public void evictUser(String email, String... providerKeys) {
+        writes.incrementAndGet();
+        if (email != null) {
+            cache(USERS_CACHE).evict(emailKey(email));
+        }
+        Cache ids = cache(USER_IDS_CACHE);
+        for (String providerKey : providerKeys) {
+            ids.evict(providerKey);
+        }
+    }
+
+    // Массовые изменения (тестовые данные, чистка дублей): сбрасываем оба кэша
+    public void evictAllUsers() {
+        writes.incrementAndGet();
+        cache(USERS_CACHE).clear();
+        cache(USER_IDS_CACHE).clear();
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Кэш не настроен: " + name);
+        }
+        return cache;
+    }
+
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
     // Проверяем, привязан ли Google ID к другому пользователю
     public boolean isGoogleIdAlreadyUsed(String googleId, String currentUserEmail) {
         try {
@@ -243,6 +320,7 @@ public class UserService {
             );
             
             if (updated > 0) {
+                evictUser(email, "google:" + googleId);
                 System.out.println("Google ID успешно обновлен для " + email);
                 return "SUCCESS";
             } else {
@@ -259,6 +337,7 @@ public class UserService {
                 );
                 
                 if (updated > 0) {
+                    evictUser(email, "google:" + googleId);
                     System.out.println("Google ID успешно обновлен (camelCase)");
                     return "SUCCESS";
                 } else {
@@ -284,6 +363,7 @@ public class UserService {
             );
             
             if (updated > 0) {
+                evictUser(email, "github:" + githubId);
                 System.out.println("GitHub ID успешно обновлен для " + email);
                 return "SUCCESS";
             } else {
@@ -300,6 +380,7 @@ public class UserService {
                 );
                 
                 if (updated > 0) {
+                    evictUser(email, "github:" + githubId);
                     System.out.println("GitHub ID успешно обновлен (camelCase)");
                     return "SUCCESS";
                 } else {
@@ -321,6 +402,7 @@ public class UserService {
             );
             
             if (updated > 0) {
+                evictUser(email);
                 System.out.println("Google успешно отвязан от: " + email);
             } else {
                 System.out.println("Пользователь не найден: " + email);
@@ -340,6 +422,7 @@ public class UserService {
             );
             
             if (updated > 0) {
+                evictUser(email);
                 System.out.println("GitHub успешно отвязан от: " + email);
             } else {
                 System.out.println("Пользователь не найден: " + email);
@@ -0,0 +1,88 @@
+package com.example.mywebsite.config;
+
+import com.example.mywebsite.service.GradeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Пул обновления занят и очередь полна: промахи кэшей оценок все равно загружаются
+// в потоке запроса, а отклоненное фоновое обновление оставляет прежнее значение
+class CacheConfigTest {
+
+    private final CacheConfig config = new CacheConfig();
+    private final CacheProperties properties = new CacheProperties();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ThreadPoolExecutor executor;
+    private GradeService gradeService;
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void saturateRefreshPool() {
+        properties.getRefresh().setThreads(1);
+        properties.getRefresh().setQueueCapacity(1);
+        properties.getSpecs().get("average").setRefreshAfterWrite(Duration.ofMillis(1));
+        executor = config.cacheRefreshExecutor(properties);
+
+        // Единственный поток занят, единственное место в очереди тоже
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute(() -> { });
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+
+        gradeService = mock(GradeService.class);
+        ObjectProvider<GradeService> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(gradeService);
+        cacheManager = config.cacheManager(properties, executor, provider);
+    }
+
+    @AfterEach
+    void releasePool() throws InterruptedException {
+        release.countDown();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void coldMissLoadsOnCallerThread() {
+        when(gradeService.loadAverageGrade("student@example.com")).thenReturn(4.5);
+        Cache cache = cacheManager.getCache("average");
+
+        // @Cacheable(sync = true) идет через get(key, valueLoader)
+        assertEquals(4.5, cache.get("student@example.com", () -> gradeService.loadAverageGrade("student@example.com")));
+        // Обычное чтение промаха идет через загрузчик кэша
+        when(gradeService.loadAverageGrade("other@example.com")).thenReturn(3.0);
+        assertEquals(3.0, cache.get("other@example.com").get());
+    }
+
+    @Test
+    void rejectedRefreshKeepsStaleValue() throws InterruptedException {
+        when(gradeService.loadAverageGrade("student@example.com")).thenReturn(4.5, 2.0);
+        Cache cache = cacheManager.getCache("average");
+        assertEquals(4.5, cache.get("student@example.com").get());
+
+        Thread.sleep(20);
+        // Запись устарела, обновление отклонено пулом — отдаем прежнее значение без ошибки
+        assertEquals(4.5, cache.get("student@example.com").get());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.mywebsite.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Окно отрисовки без явного значения считается от итогового числа потоков,
+// а не от числа ядер на момент создания объекта
+class PdfRenderPropertiesTest {
+
+    private PdfRenderProperties bind(Map<String, String> values) {
+        Binder binder = new Binder(new MapConfigurationPropertySource(values));
+        return binder.bindOrCreate("app.pdf.render", PdfRenderProperties.class);
+    }
+
+    @Test
+    void windowFollowsOverriddenThreads() {
+        PdfRenderProperties properties = bind(Map.of("app.pdf.render.threads", "3"));
+
+        assertEquals(3, properties.getThreads());
+        assertEquals(6, properties.getMaxInFlight());
+    }
+
+    @Test
+    void explicitWindowWins() {
+        PdfRenderProperties properties = bind(Map.of(
+                "app.pdf.render.threads", "3",
+                "app.pdf.render.max-in-flight", "4"));
+
+        assertEquals(4, properties.getMaxInFlight());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.mywebsite.controller;
+
+import com.example.mywebsite.dto.GradeRecord;
+import com.example.mywebsite.event.GradeChangedEvent;
+import com.example.mywebsite.service.DatabaseService;
+import com.example.mywebsite.service.GradeCacheInvalidator;
+import com.example.mywebsite.service.GradeService;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// API записи оценок поверх настоящего GradeService; база заменена моком DatabaseService
+@ExtendWith(MockitoExtension.class)
+class GradeApiControllerTest {
+
+    private static final LocalDate EXAM_DATE = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DatabaseService databaseService;
+
+    @Mock
+    private GradeCacheInvalidator cacheInvalidator;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private GradeService gradeService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        GradeApiController controller = new GradeApiController();
+        ReflectionTestUtils.setField(controller, "gradeService", gradeService);
+        // Даты строкой ISO, как у ObjectMapper Spring Boot
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+            .setMessageConverters(new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build()))
+            .build();
+    }
+
+    @Test
+    void putWithoutExamDateKeepsStoredDate() throws Exception {
+        when(databaseService.findGradeById(5)).thenReturn(
+            record(70, EXAM_DATE), record(85, EXAM_DATE));
+        when(databaseService.updateGrade(5, 85, null)).thenReturn(true);
+
+        mockMvc.perform(put("/api/grades/5").param("grade", "85"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.grade").value(85))
+            .andExpect(jsonPath("$.examDate").value("2024-03-01"));
+
+        // null доходит до DatabaseService.updateGrade, где означает "дату не менять"
+        verify(databaseService).updateGrade(eq(5), eq(85), isNull());
+        ArgumentCaptor<GradeChangedEvent> event = ArgumentCaptor.forClass(GradeChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(GradeChangedEvent.Type.UPDATED, event.getValue().type());
+    }
+
+    @Test
+    void putWithExamDatePassesIt() throws Exception {
+        LocalDate newDate = LocalDate.of(2024, 4, 15);
+        when(databaseService.findGradeById(5)).thenReturn(record(70, EXAM_DATE), record(90, newDate));
+        when(databaseService.updateGrade(5, 90, newDate)).thenReturn(true);
+
+        mockMvc.perform(put("/api/grades/5").param("grade", "90").param("examDate", "2024-04-15"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.examDate").value("2024-04-15"));
+    }
+
+    @Test
+    void putRejectsGradeOutOfRange() throws Exception {
+        mockMvc.perform(put("/api/grades/5").param("grade", "101"))
+            .andExpect(status().isBadRequest());
+
+        verify(databaseService, never()).updateGrade(anyInt(), anyInt(), isNull());
+    }
+
+    @Test
+    void putUnknownGradeIsNotFound() throws Exception {
+        mockMvc.perform(put("/api/grades/404").param("grade", "80"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void deleteRemovesGrade() throws Exception {
+        when(databaseService.findGradeById(5)).thenReturn(record(70, EXAM_DATE));
+        when(databaseService.deleteGrade(5)).thenReturn(true);
+
+        mockMvc.perform(delete("/api/grades/5"))
+            .andExpect(status().isNoContent());
+
+        ArgumentCaptor<GradeChangedEvent> event = ArgumentCaptor.forClass(GradeChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertNull(event.getValue().newGrade());
+    }
+
+    private static GradeRecord record(int grade, LocalDate examDate) {
+        return new GradeRecord(5, 1, 2, grade, examDate, 3, "student@example.com", "ИТ-21");
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.mywebsite.mapper;
+
+import com.example.mywebsite.dto.GradeRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Сколько байт выделяет поток на N строк оценок: запись GradeRow через GradeRowMapper
+// против карты колонок, которую строит queryForList (ColumnMapRowMapper).
+// Строки читаются из CachedRowSet в памяти, оба пути получают одинаковые значения
+class GradeRowMapperAllocationTest {
+
+    private static final int ROWS = 20_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private ResultSet rs;
+
+    @BeforeEach
+    void singleGradeRow() throws SQLException {
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "JVM не считает выделенную память потока");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        RowSetMetaDataImpl meta = new RowSetMetaDataImpl();
+        meta.setColumnCount(4);
+        column(meta, 1, "subject_name", Types.VARCHAR);
+        column(meta, 2, "description", Types.VARCHAR);
+        column(meta, 3, "grade", Types.INTEGER);
+        column(meta, 4, "exam_date", Types.DATE);
+
+        CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        rowSet.setMetaData(meta);
+        rowSet.moveToInsertRow();
+        rowSet.updateString(1, "Математика");
+        rowSet.updateString(2, "Контрольная работа");
+        rowSet.updateInt(3, 85);
+        rowSet.updateDate(4, Date.valueOf("2024-03-01"));
+        rowSet.insertRow();
+        rowSet.moveToCurrentRow();
+        rowSet.beforeFirst();
+        rowSet.next();
+        rs = rowSet;
+    }
+
+    @Test
+    void recordAllocatesLessThanColumnMap() throws SQLException {
+        GradeRowMapper recordMapper = new GradeRowMapper();
+        ColumnMapRowMapper mapMapper = new ColumnMapRowMapper();
+
+        // Прогрев: JIT и ленивые структуры CachedRowSet не должны попасть в замер
+        for (int i = 0; i < 5; i++) {
+            allocatedBytes(recordMapper);
+            allocatedBytes(mapMapper);
+        }
+        long record = allocatedBytes(recordMapper);
+        long map = allocatedBytes(mapMapper);
+
+        System.out.println("Выделено на " + ROWS + " строк: GradeRow — " + record / 1024 +
+            " КБ (" + record / ROWS + " байт/строка), queryForList — " + map / 1024 +
+            " КБ (" + map / ROWS + " байт/строка)");
+        assertTrue(record < map, "GradeRow: " + record + " байт, карта колонок: " + map + " байт");
+    }
+
+    @Test
+    void bothPathsReadTheSameRow() throws SQLException {
+        GradeRow row = new GradeRowMapper().mapRow(rs, 0);
+        Map<String, Object> columns = new ColumnMapRowMapper().mapRow(rs, 0);
+
+        assertEquals(row.subjectName(), columns.get("SUBJECT_NAME"));
+        assertEquals(row.grade(), columns.get("grade"));
+        assertEquals(row.examDate(), ((Date) columns.get("exam_date")).toLocalDate());
+    }
+
+    // Результаты держим в списке, как кэш оценок, чтобы JIT не убрал выделения
+    private long allocatedBytes(RowMapper<?> mapper) throws SQLException {
+        List<Object> results = new ArrayList<>(ROWS);
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROWS; i++) {
+            results.add(mapper.mapRow(rs, i));
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertEquals(ROWS, results.size());
+        return allocated;
+    }
+
+    private static void column(RowSetMetaDataImpl meta, int index, String name, int type) throws SQLException {
+        meta.setColumnName(index, name);
+        meta.setColumnLabel(index, name);
+        meta.setColumnType(index, type);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.mywebsite.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvWriterTest {
+
+    @Test
+    void rowsEndWithCrlf() throws IOException {
+        assertEquals("id,name\r\n1,Иванов\r\n\r\n", write(csv -> csv
+            .writeRow("id", "name")
+            .writeRow(1, "Иванов")
+            .writeEmptyRow()));
+    }
+
+    @Test
+    void plainFieldsAreNotQuoted() throws IOException {
+        assertEquals("ИТ-21,4.5, с пробелами ,\r\n", write(csv -> csv.writeRow("ИТ-21", 4.5, " с пробелами ", "")));
+    }
+
+    @Test
+    void nullIsEmptyField() throws IOException {
+        assertEquals(",x,\r\n", write(csv -> csv.writeRow(null, "x", null)));
+    }
+
+    @Test
+    void quotesFieldsWithSeparatorsAndLineBreaks() throws IOException {
+        assertEquals("\"Иванов, Иван\",\"две\nстроки\",\"cr\rlf\"\r\n",
+            write(csv -> csv.writeRow("Иванов, Иван", "две\nстроки", "cr\rlf")));
+    }
+
+    @Test
+    void doublesQuotesInsideField() throws IOException {
+        assertEquals("\"Курс \"\"Основы\"\"\",\"\"\"\"\r\n",
+            write(csv -> csv.writeRow("Курс \"Основы\"", "\"")));
+    }
+
+    private interface Rows {
+        void write(CsvWriter csv) throws IOException;
+    }
+
+    private static String write(Rows rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvWriter csv = new CsvWriter(out)) {
+            rows.write(csv);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
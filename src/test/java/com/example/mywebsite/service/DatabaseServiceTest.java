@@ -0,0 +1,61 @@
+package com.example.mywebsite.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private DatabaseService databaseService;
+
+    @Test
+    void updateWithoutExamDateKeepsStoredDate() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        assertTrue(databaseService.updateGrade(5, 85, null));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(sql.capture(), args.capture());
+        assertTrue(sql.getValue().contains("exam_date = COALESCE(?, exam_date)"));
+        // Типизированный NULL: драйвер MSSQL не выводит тип параметра внутри COALESCE
+        SqlParameterValue date = (SqlParameterValue) args.getValue()[1];
+        assertEquals(Types.DATE, date.getSqlType());
+        assertNull(date.getValue());
+        assertEquals(85, args.getValue()[0]);
+        assertEquals(5, args.getValue()[2]);
+    }
+
+    @Test
+    void updateWithExamDateSetsIt() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        databaseService.updateGrade(5, 85, LocalDate.of(2024, 4, 15));
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(anyString(), args.capture());
+        assertEquals(Date.valueOf("2024-04-15"), ((SqlParameterValue) args.getValue()[1]).getValue());
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.config.DriveUploadProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Загрузка по частям против локальной заглушки Drive:
+// сервер подтверждает части не полностью и один раз отвечает 503
+class DriveResumableUploaderTest {
+
+    private static final int CHUNK = DriveUploadProperties.CHUNK_GRANULARITY;
+
+    private HttpServer server;
+    private String baseUrl;
+
+    private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+    private final List<String> contentRanges = new ArrayList<>();
+    private String metadata;
+    private String declaredLength;
+    private int putCount;
+    private boolean failOnce;
+    private boolean partialAck;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/upload", this::initiate);
+        server.createContext("/session", this::chunk);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void uploadsAllChunksInOrder() throws IOException {
+        byte[] file = randomBytes(3 * CHUNK + 1000);
+
+        String fileId = uploader(CHUNK).upload(baseUrl + "/upload", "token", "grades.pdf",
+            "application/pdf", new ByteArrayInputStream(file), file.length);
+
+        assertEquals("file-123", fileId);
+        assertArrayEquals(file, received.toByteArray());
+        assertEquals(String.valueOf(file.length), declaredLength);
+        assertTrue(metadata.contains("\"name\":\"grades.pdf\""));
+        assertEquals(List.of(
+            "bytes 0-262143/" + file.length,
+            "bytes 262144-524287/" + file.length,
+            "bytes 524288-786431/" + file.length,
+            "bytes 786432-787431/" + file.length), contentRanges);
+    }
+
+    @Test
+    void resumesFromAcknowledgedOffset() throws IOException {
+        partialAck = true;
+        failOnce = true;
+        byte[] file = randomBytes(2 * CHUNK + 10);
+
+        String fileId = uploader(CHUNK).upload(baseUrl + "/upload", "token", "grades.csv",
+            "text/csv", new ByteArrayInputStream(file), file.length);
+
+        assertEquals("file-123", fileId);
+        assertArrayEquals(file, received.toByteArray());
+        // После 503 клиент спросил позицию и продолжил с нее, а не с начала части
+        assertTrue(contentRanges.contains("bytes */" + file.length));
+    }
+
+    @Test
+    void uploadsStreamOfUnknownSize() throws IOException {
+        byte[] file = randomBytes(CHUNK + 5);
+
+        String fileId = uploader(100).upload(baseUrl + "/upload", "token", "grades.csv",
+            "text/csv", new ByteArrayInputStream(file), -1);
+
+        assertEquals("file-123", fileId);
+        assertArrayEquals(file, received.toByteArray());
+        assertEquals("bytes 0-262143/*", contentRanges.get(0));
+        assertEquals("bytes 262144-262148/" + file.length, contentRanges.get(1));
+    }
+
+    private DriveResumableUploader uploader(int chunkSize) {
+        DriveUploadProperties properties = new DriveUploadProperties();
+        properties.setChunkSize(chunkSize);
+        properties.setMaxChunkRetries(3);
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(
+            HttpClients.custom().disableRedirectHandling().build()));
+        return new DriveResumableUploader(restTemplate, properties, new ObjectMapper());
+    }
+
+    private void initiate(HttpExchange exchange) throws IOException {
+        metadata = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        declaredLength = exchange.getRequestHeaders().getFirst("X-Upload-Content-Length");
+        exchange.getResponseHeaders().set("Location", baseUrl + "/session?upload_id=1");
+        exchange.sendResponseHeaders(200, -1);
+        exchange.close();
+    }
+
+    private void chunk(HttpExchange exchange) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Content-Range");
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        contentRanges.add(range);
+        putCount++;
+
+        if (range.startsWith("bytes */")) {
+            respondIncomplete(exchange);
+            return;
+        }
+        if (failOnce && putCount == 2) {
+            // Часть потеряна по дороге
+            failOnce = false;
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+
+        long start = Long.parseLong(range.substring("bytes ".length(), range.indexOf('-')));
+        String total = range.substring(range.indexOf('/') + 1);
+        if (start != received.size()) {
+            exchange.sendResponseHeaders(400, -1);
+            exchange.close();
+            return;
+        }
+
+        // Первую часть принимаем только наполовину
+        int accepted = partialAck && putCount == 1 ? body.length / 2 : body.length;
+        received.write(body, 0, accepted);
+
+        if (!"*".equals(total) && received.size() == Long.parseLong(total)) {
+            byte[] json = "{\"id\":\"file-123\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, json.length);
+            exchange.getResponseBody().write(json);
+            exchange.close();
+            return;
+        }
+        respondIncomplete(exchange);
+    }
+
+    private void respondIncomplete(HttpExchange exchange) throws IOException {
+        if (received.size() > 0) {
+            exchange.getResponseHeaders().set("Range", "bytes=0-" + (received.size() - 1));
+        }
+        exchange.sendResponseHeaders(308, -1);
+        exchange.close();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.dto.GradeRow;
+import com.example.mywebsite.dto.GradeStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class GradeStatisticsTest {
+
+    private static final double EPS = 1e-9;
+
+    @Test
+    void medianOfOddCount() {
+        GradeStats stats = GradeStatistics.compute(new int[]{90, 60, 75});
+
+        assertEquals(75.0, stats.median(), EPS);
+        assertEquals(75.0, stats.mean(), EPS);
+        assertEquals(60, stats.min());
+        assertEquals(90, stats.max());
+    }
+
+    @Test
+    void medianOfEvenCountAveragesMiddlePair() {
+        assertEquals(77.5, GradeStatistics.compute(new int[]{100, 60, 80, 75}).median(), EPS);
+        // Обе средние оценки в одном столбце гистограммы
+        assertEquals(70.0, GradeStatistics.compute(new int[]{70, 70, 10, 99}).median(), EPS);
+    }
+
+    @Test
+    void populationStandardDeviation() {
+        // Среднее 5, дисперсия 4
+        GradeStats stats = GradeStatistics.compute(new int[]{2, 4, 4, 4, 5, 5, 7, 9});
+
+        assertEquals(5.0, stats.mean(), EPS);
+        assertEquals(2.0, stats.stddev(), EPS);
+        assertEquals(0.0, GradeStatistics.compute(new int[]{80, 80}).stddev(), EPS);
+    }
+
+    @Test
+    void bucketEdges() {
+        assertEquals(3, GradeStatistics.bucket(59));
+        assertEquals(2, GradeStatistics.bucket(60));
+        assertEquals(2, GradeStatistics.bucket(74));
+        assertEquals(1, GradeStatistics.bucket(75));
+        assertEquals(1, GradeStatistics.bucket(89));
+        assertEquals(0, GradeStatistics.bucket(90));
+
+        GradeStats stats = GradeStatistics.compute(new int[]{59, 60, 74, 75, 89, 90});
+        assertEquals(1, stats.excellent());
+        assertEquals(2, stats.good());
+        assertEquals(2, stats.satisfactory());
+        assertEquals(1, stats.unsatisfactory());
+    }
+
+    @Test
+    void emptyInput() {
+        assertSame(GradeStats.EMPTY, GradeStatistics.compute(List.<GradeRow>of()));
+        GradeStats stats = GradeStatistics.compute(new int[0]);
+        assertEquals(0, stats.count());
+        assertNull(stats.median());
+        assertNull(stats.mean());
+    }
+
+    @Test
+    void trendReadsRowsInExamDateDescendingOrder() {
+        List<GradeRow> rows = List.of(
+            row("Математика", 95, "2024-03-01"),
+            row("Физика", 70, "2024-02-20"),
+            row("Математика", 80, "2024-02-01"),
+            row("Математика", 60, "2024-01-10"));
+
+        GradeStats stats = GradeStatistics.compute(rows);
+
+        assertEquals(4, stats.count());
+        GradeStats.SubjectTrend math = stats.subjects().get(0);
+        assertEquals("Математика", math.subject());
+        assertEquals(3, math.count());
+        assertEquals(60, math.first());
+        assertEquals(95, math.latest());
+        assertEquals(35, math.change());
+        assertEquals(235 / 3.0, math.mean(), EPS);
+
+        GradeStats.SubjectTrend physics = stats.subjects().get(1);
+        assertEquals(70, physics.first());
+        assertEquals(70, physics.latest());
+    }
+
+    @Test
+    void removeUndoesAddAndIgnoresUnknownGrade() {
+        GradeStatistics.Accumulator accumulator = new GradeStatistics.Accumulator();
+        accumulator.add(70);
+        accumulator.add(90);
+        accumulator.add(50);
+        accumulator.remove(90);
+        accumulator.remove(42);
+
+        GradeStats stats = accumulator.toStats(List.of());
+        assertEquals(2, stats.count());
+        assertEquals(60.0, stats.mean(), EPS);
+        assertEquals(60.0, stats.median(), EPS);
+        assertEquals(70, stats.max());
+    }
+
+    @Test
+    void mergeEqualsSinglePass() {
+        GradeStatistics.Accumulator left = new GradeStatistics.Accumulator();
+        GradeStatistics.Accumulator right = new GradeStatistics.Accumulator();
+        left.add(55);
+        left.add(91);
+        right.add(76);
+        right.add(64);
+        right.add(100);
+        left.merge(right);
+
+        assertEquals(GradeStatistics.compute(new int[]{55, 91, 76, 64, 100}), left.toStats(List.of()));
+        assertEquals(3, left.countAbove(70));
+        assertEquals(List.of(0, 0, 0, 0, 0, 1, 1, 1, 0, 2), left.distribution(10));
+    }
+
+    private static GradeRow row(String subject, int grade, String examDate) {
+        return new GradeRow(subject, null, grade, LocalDate.parse(examDate));
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.config.CacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PdfArtifactCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Spy
+    private CacheProperties cacheProperties = new CacheProperties();
+
+    @Mock
+    private ScheduledExecutorService cleanupScheduler;
+
+    @InjectMocks
+    private PdfArtifactCache cache;
+
+    @BeforeEach
+    void diskLevel() {
+        cacheProperties.getPdf().setDiskDirectory(directory.toString());
+        cacheProperties.getPdf().setDiskMaxAge(Duration.ofDays(2));
+        cacheProperties.getPdf().setDiskCleanupInterval(Duration.ofMinutes(30));
+    }
+
+    @Test
+    void startupCleansDiskAndSchedulesPeriodicCleanup() throws IOException {
+        Path expired = file("expired.pdf", 10, Duration.ofDays(3));
+        Path fresh = file("fresh.pdf", 10, Duration.ofHours(1));
+
+        cache.init();
+
+        assertFalse(Files.exists(expired));
+        assertTrue(Files.exists(fresh));
+        long interval = Duration.ofMinutes(30).toMillis();
+        verify(cleanupScheduler).scheduleWithFixedDelay(any(Runnable.class), eq(interval), eq(interval), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void cleanupRemovesFilesThatExpiredWhileRunning() throws IOException {
+        cache.init();
+        // Файл, записанный давно и не удаленный при запуске, — удаляется очередной очисткой
+        Path stale = file("stale.pdf", 10, Duration.ofDays(5));
+        Path abandonedTemp = file("key123.tmp", 10, Duration.ofDays(5));
+
+        cache.cleanDisk();
+
+        assertFalse(Files.exists(stale));
+        assertFalse(Files.exists(abandonedTemp));
+    }
+
+    @Test
+    void sizeCapRemovesOldestFilesFirst() throws IOException {
+        cacheProperties.getPdf().setDiskMaxBytes(250);
+        cache.init();
+        Path oldest = file("a.pdf", 100, Duration.ofHours(3));
+        Path older = file("b.pdf", 100, Duration.ofHours(2));
+        Path newest = file("c.pdf", 100, Duration.ofHours(1));
+        // Недописанный файл моложе всех, в предел не входит и не удаляется
+        Path writing = file("d.tmp", 100, Duration.ZERO);
+
+        cache.cleanDisk();
+
+        assertFalse(Files.exists(oldest));
+        assertTrue(Files.exists(older));
+        assertTrue(Files.exists(newest));
+        assertTrue(Files.exists(writing));
+    }
+
+    @Test
+    void zeroCapKeepsEverythingFresh() throws IOException {
+        cacheProperties.getPdf().setDiskMaxBytes(0);
+        cache.init();
+        Path first = file("a.pdf", 1000, Duration.ofHours(3));
+        Path second = file("b.pdf", 1000, Duration.ofHours(2));
+
+        cache.cleanDisk();
+
+        assertTrue(Files.exists(first));
+        assertTrue(Files.exists(second));
+    }
+
+    @Test
+    void slowRenderDoesNotBlockOtherKeys() throws Exception {
+        cache.init();
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<byte[]> slow = pool.submit(() -> cache.get("slow", () -> {
+                rendering.countDown();
+                await(release);
+                return new byte[]{1};
+            }));
+            assertTrue(rendering.await(5, TimeUnit.SECONDS));
+
+            // Отрисовка "slow" еще идет, а другой ключ отдается сразу
+            assertArrayEquals(new byte[]{2}, cache.get("fast", () -> new byte[]{2}));
+
+            release.countDown();
+            assertArrayEquals(new byte[]{1}, slow.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentRequestsShareOneRender() throws Exception {
+        cache.init();
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<byte[]> renderer = () -> {
+            renders.incrementAndGet();
+            rendering.countDown();
+            await(release);
+            return new byte[]{7};
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> first = pool.submit(() -> cache.get("key", renderer));
+            assertTrue(rendering.await(5, TimeUnit.SECONDS));
+            Future<byte[]> second = pool.submit(() -> cache.get("key", renderer));
+
+            release.countDown();
+            assertArrayEquals(new byte[]{7}, first.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new byte[]{7}, second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, renders.get());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedRenderIsNotCached() {
+        cache.init();
+        AtomicInteger renders = new AtomicInteger();
+
+        assertEquals(0, cache.get("key", () -> { renders.incrementAndGet(); return new byte[0]; }).length);
+        assertThrows(IllegalStateException.class,
+            () -> cache.get("key", () -> { renders.incrementAndGet(); throw new IllegalStateException("iText"); }));
+        assertArrayEquals(new byte[]{3}, cache.get("key", () -> { renders.incrementAndGet(); return new byte[]{3}; }));
+        assertEquals(3, renders.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Path file(String name, int size, Duration age) throws IOException {
+        Path file = Files.write(directory.resolve(name), new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+        return file;
+    }
+}
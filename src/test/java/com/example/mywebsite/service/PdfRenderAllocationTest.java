@@ -0,0 +1,85 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.dto.GradeRow;
+import com.example.mywebsite.dto.StudentDashboard;
+import com.example.mywebsite.dto.StudentInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Скорость (документов в секунду) и байты, выделенные потоком на один PDF оценок,
+// для зачеток из 10, 100 и 1000 строк. Рендер идет через renderGradesPdf, без кэша
+class PdfRenderAllocationTest {
+
+    private static final int[] ROWS = {10, 100, 1000};
+    private static final long MAX_BYTES_PER_ROW = 150 * 1024;
+
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final PdfExportService pdfExportService = new PdfExportService();
+
+    @BeforeEach
+    void allocationCounter() {
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "JVM не считает выделенную память потока");
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void measuresDocumentsPerSecondAndBytesPerDocument() {
+        long[] bytesPerDocument = new long[ROWS.length];
+        for (int i = 0; i < ROWS.length; i++) {
+            StudentDashboard dashboard = dashboard(ROWS[i]);
+            // Меньше повторов для больших документов, чтобы тест шел секунды
+            int documents = Math.max(5, 2_000 / ROWS[i]);
+
+            // Прогрев: JIT и ленивые структуры iText не должны попасть в замер
+            render(dashboard, documents);
+
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long started = System.nanoTime();
+            long size = render(dashboard, documents);
+            long elapsed = System.nanoTime() - started;
+            long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+            bytesPerDocument[i] = allocated / documents;
+            System.out.printf("PDF на %d строк: %.1f док/с, выделено %d КБ на документ, размер PDF %d КБ%n",
+                ROWS[i], documents * 1e9 / elapsed, bytesPerDocument[i] / 1024, size / documents / 1024);
+        }
+
+        // Строка таблицы стоит около 55 КБ. С проверкой дат DefaultSplitCharacter на каждом
+        // символе было около 300 КБ: предел ловит возврат к ячейкам без PdfStyles.SPLIT
+        long perRow = (bytesPerDocument[2] - bytesPerDocument[1]) / (ROWS[2] - ROWS[1]);
+        assertTrue(perRow < MAX_BYTES_PER_ROW, "Выделено на строку таблицы: " + perRow + " байт");
+    }
+
+    // Суммарный размер документов; пустой PDF — ошибка рендера
+    private long render(StudentDashboard dashboard, int documents) {
+        long size = 0;
+        for (int i = 0; i < documents; i++) {
+            byte[] pdf = pdfExportService.renderGradesPdf(dashboard, "student@example.com");
+            assertTrue(pdf.length > 0, "PDF не отрисован");
+            size += pdf.length;
+        }
+        return size;
+    }
+
+    private static StudentDashboard dashboard(int rows) {
+        String[] subjects = {"Математика", "Физика", "Химия", "История", "Программирование", "Английский язык"};
+        List<GradeRow> grades = new ArrayList<>(rows);
+        LocalDate examDate = LocalDate.of(2024, 6, 1);
+        for (int i = 0; i < rows; i++) {
+            grades.add(new GradeRow(subjects[i % subjects.length], "Контрольная работа " + (i + 1),
+                50 + (i * 7) % 51, examDate.minusDays(i)));
+        }
+        return StudentDashboard.of(new StudentInfo("Иванов Иван Иванович", "ИТ-21", "student@example.com", rows), grades);
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.dto.ScheduleClash;
+import com.example.mywebsite.dto.ScheduleSlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleSnapshotTest {
+
+    @Test
+    void findsRoomAndTeacherClashes() {
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(List.of(
+            slot(1, "Понедельник", "9:00-10:30", "Математика", "А-101", "Иванова", "ИТ-21"),
+            slot(2, "Понедельник", "10:00-11:30", "Физика", "А-101", "Петров", "ИТ-22"),
+            slot(3, "Понедельник", "10:15-11:00", "Химия", "Б-205", "Иванова", "ИТ-23"),
+            // Та же аудитория в другой день — не пересечение
+            slot(4, "Вторник", "9:00-10:30", "Физика", "А-101", "Петров", "ИТ-22")));
+
+        List<ScheduleClash> clashes = snapshot.clashes();
+
+        assertEquals(2, clashes.size());
+        ScheduleClash room = clashes.stream().filter(c -> c.type() == ScheduleClash.Type.ROOM).findFirst().orElseThrow();
+        assertEquals("А-101", room.key());
+        assertEquals("Понедельник", room.day());
+        assertEquals(1, room.first().id());
+        assertEquals(2, room.second().id());
+        ScheduleClash teacher = clashes.stream().filter(c -> c.type() == ScheduleClash.Type.TEACHER).findFirst().orElseThrow();
+        assertEquals(1, teacher.first().id());
+        assertEquals(3, teacher.second().id());
+    }
+
+    @Test
+    void backToBackLessonsAndSharedLecturesAreNotClashes() {
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(List.of(
+            slot(1, "Среда", "9:00-10:30", "Математика", "А-101", "Иванова", "ИТ-21"),
+            slot(2, "Среда", "10:30-12:00", "Физика", "А-101", "Петров", "ИТ-21"),
+            // Общая лекция двух групп: тот же предмет, преподаватель и аудитория
+            slot(3, "Среда", "13:00-14:30", "История", "Актовый зал", "Смирнов", "ИТ-21"),
+            slot(4, "Среда", "13:00-14:30", "история", "актовый зал", "Смирнов", "ИТ-22")));
+
+        assertTrue(snapshot.clashes().isEmpty());
+    }
+
+    @Test
+    void longLessonClashesWithEveryLessonInsideIt() {
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(List.of(
+            slot(1, "Четверг", "9:00-13:00", "Практикум", "Лаб-1", "Иванова", "ИТ-21"),
+            slot(2, "Четверг", "9:30-10:00", "Физика", "Лаб-1", "Петров", "ИТ-22"),
+            slot(3, "Четверг", "11:00-12:00", "Химия", "Лаб-1", "Сидоров", "ИТ-23")));
+
+        List<ScheduleClash> clashes = snapshot.clashes();
+
+        assertEquals(2, clashes.size());
+        assertTrue(clashes.stream().allMatch(clash -> clash.first().id() == 1));
+    }
+
+    @Test
+    void findIntersectsFiltersIgnoringCase() {
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(List.of(
+            slot(1, "Понедельник", "9:00-10:30", "Математика", "А-101", "Иванова", "ИТ-21"),
+            slot(2, "Понедельник", "10:45-12:15", "Физика", "Б-205", "Иванова", "ИТ-21"),
+            slot(3, "Вторник", "9:00-10:30", "Математика", "А-101", "Иванова", "ИТ-22")));
+
+        Map<String, List<ScheduleSlot>> week = snapshot.find(" ит-21 ", "ИВАНОВА", null);
+        assertEquals(List.of("Понедельник"), List.copyOf(week.keySet()));
+        assertEquals(2, week.get("Понедельник").size());
+
+        Map<String, List<ScheduleSlot>> room = snapshot.find(null, "Иванова", "а-101");
+        assertEquals(2, room.size());
+        assertTrue(snapshot.find("ИТ-99", null, null).isEmpty());
+        assertTrue(snapshot.hasGroup("ит-22"));
+    }
+
+    @Test
+    void dayIsOrderedByStartMinute() {
+        ScheduleSnapshot snapshot = new ScheduleSnapshot(List.of(
+            slot(1, "Понедельник", "10:45-12:15", "Физика", "Б-205", "Петров", "ИТ-21"),
+            slot(2, "Понедельник", "9:00-10:30", "Математика", "А-101", "Иванова", "ИТ-21")));
+
+        List<ScheduleSlot> monday = snapshot.find("ИТ-21", null, null).get("Понедельник");
+        assertEquals(List.of(2, 1), monday.stream().map(ScheduleSlot::id).toList());
+    }
+
+    @Test
+    void currentIsLessonInProgress() {
+        ScheduleSnapshot snapshot = weekOfTwoDays();
+
+        assertEquals(1, snapshot.current("ИТ-21", DayOfWeek.MONDAY, 9 * 60).id());
+        assertEquals(1, snapshot.current("ИТ-21", DayOfWeek.MONDAY, 10 * 60 + 29).id());
+        // Перемена: первое занятие закончилось, второе еще не началось
+        assertNull(snapshot.current("ИТ-21", DayOfWeek.MONDAY, 10 * 60 + 30));
+        assertEquals(2, snapshot.current("ИТ-21", DayOfWeek.MONDAY, 11 * 60).id());
+        assertNull(snapshot.current("ИТ-22", DayOfWeek.MONDAY, 11 * 60));
+        assertEquals(3, snapshot.current(null, DayOfWeek.MONDAY, 9 * 60 + 15).id());
+    }
+
+    @Test
+    void nextIsLaterTodayThenFollowingDays() {
+        ScheduleSnapshot snapshot = weekOfTwoDays();
+
+        assertEquals(2, snapshot.next("ИТ-21", DayOfWeek.MONDAY, 9 * 60).id());
+        // Занятия уже начались — следующее в среду
+        assertEquals(4, snapshot.next("ИТ-21", DayOfWeek.MONDAY, 10 * 60 + 45).id());
+        // Со среды после занятий — через выходные на понедельник
+        assertEquals(1, snapshot.next("ИТ-21", DayOfWeek.WEDNESDAY, 12 * 60).id());
+        assertEquals(1, snapshot.next("ИТ-21", DayOfWeek.SUNDAY, 0).id());
+        assertNull(snapshot.next("ИТ-99", DayOfWeek.MONDAY, 0));
+    }
+
+    private static ScheduleSnapshot weekOfTwoDays() {
+        return new ScheduleSnapshot(List.of(
+            slot(1, "Понедельник", "9:00-10:30", "Математика", "А-101", "Иванова", "ИТ-21"),
+            slot(2, "Понедельник", "10:45-12:15", "Физика", "Б-205", "Петров", "ИТ-21"),
+            slot(3, "Понедельник", "9:10-10:40", "Химия", "Б-301", "Сидоров", "ИТ-22"),
+            slot(4, "Среда", "9:00-10:30", "История", "А-101", "Смирнов", "ИТ-21")));
+    }
+
+    static ScheduleSlot slot(int id, String day, String time, String subject, String room, String teacher, String group) {
+        return ScheduleSlot.of(id, day, time, subject, room, teacher, group);
+    }
+}
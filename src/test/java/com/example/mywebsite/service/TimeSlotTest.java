@@ -0,0 +1,73 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.dto.TimeSlot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeSlotTest {
+
+    @Test
+    void comparesByMinutesNotByText() {
+        // Строкой "10:45" меньше "9:00", в минутах — наоборот
+        TimeSlot late = TimeSlot.parse("10:45-12:15");
+        TimeSlot early = TimeSlot.parse("9:00-10:30");
+
+        assertEquals(645, late.startMinute());
+        assertEquals(735, late.endMinute());
+        assertEquals(540, early.startMinute());
+        assertTrue(early.startMinute() < late.startMinute());
+    }
+
+    @Test
+    void acceptsDashVariantsAndDotSeparator() {
+        TimeSlot expected = new TimeSlot(540, 630);
+
+        assertEquals(expected, TimeSlot.parse("9:00-10:30"));
+        assertEquals(expected, TimeSlot.parse("09:00 – 10:30"));
+        assertEquals(expected, TimeSlot.parse(" 9.00—10.30 "));
+        assertEquals("9:00-10:30", TimeSlot.parse("09.00 - 10.30").format());
+    }
+
+    @Test
+    void startOnlyIsStandardLessonCappedAtMidnight() {
+        assertEquals(new TimeSlot(540, 630), TimeSlot.parse("9:00"));
+        assertEquals(new TimeSlot(23 * 60, 24 * 60), TimeSlot.parse("23:00"));
+    }
+
+    @Test
+    void midnightIsValidOnlyAsEnd() {
+        assertEquals(new TimeSlot(22 * 60 + 30, 24 * 60), TimeSlot.parse("22:30-24:00"));
+        assertNull(TimeSlot.tryParse("22:30-24:30"));
+        assertNull(TimeSlot.tryParse("24:00-24:00"));
+        assertNull(TimeSlot.tryParse("25:00"));
+        assertNull(TimeSlot.tryParse("9:60-10:30"));
+    }
+
+    @Test
+    void rejectsEndNotAfterStart() {
+        assertThrows(IllegalArgumentException.class, () -> TimeSlot.parse("10:30-9:00"));
+        assertThrows(IllegalArgumentException.class, () -> TimeSlot.parse("9:00-9:00"));
+    }
+
+    @Test
+    void tryParseReturnsNullForGarbage() {
+        assertNull(TimeSlot.tryParse(null));
+        assertNull(TimeSlot.tryParse(""));
+        assertNull(TimeSlot.tryParse("утро"));
+        assertNull(TimeSlot.tryParse("9-10"));
+    }
+
+    @Test
+    void containsExcludesEnd() {
+        TimeSlot slot = TimeSlot.parse("9:00-10:30");
+
+        assertTrue(slot.contains(540));
+        assertTrue(slot.contains(629));
+        assertFalse(slot.contains(630));
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.mywebsite.service;
+
+import com.example.mywebsite.dto.UserStudentPage;
+import com.example.mywebsite.dto.UserStudentQuery;
+import com.example.mywebsite.dto.UserStudentRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserStudentQueryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private DatabaseService databaseService;
+
+    @Test
+    void cursorRoundTrip() {
+        UserStudentQuery.Cursor cursor = new UserStudentQuery.Cursor(
+            UserStudentQuery.Sort.EMAIL, true, 42, 7, "ivanova+test@example.com");
+
+        String encoded = cursor.encode();
+
+        // Безопасен для query string без экранирования
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+        assertEquals(cursor, UserStudentQuery.Cursor.decode(encoded));
+    }
+
+    @Test
+    void cursorWithoutValueDecodesToEmptyValue() {
+        UserStudentQuery.Cursor cursor = new UserStudentQuery.Cursor(UserStudentQuery.Sort.ID, false, 1, 0, null);
+
+        UserStudentQuery.Cursor decoded = UserStudentQuery.Cursor.decode(cursor.encode());
+
+        assertEquals(1, decoded.userId());
+        assertEquals(0, decoded.studentKey());
+        assertEquals("", decoded.value());
+    }
+
+    @Test
+    void brokenCursorIsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> UserStudentQuery.Cursor.decode("не base64"));
+        assertThrows(IllegalArgumentException.class, () -> UserStudentQuery.Cursor.decode(raw("ID\nasc\n1")));
+        assertThrows(IllegalArgumentException.class, () -> UserStudentQuery.Cursor.decode(raw("ID\nasc\nx\n0\n")));
+        assertThrows(IllegalArgumentException.class, () -> UserStudentQuery.Cursor.decode(raw("NAME\nasc\n1\n0\n")));
+    }
+
+    @Test
+    void cursorMustMatchSort() {
+        String byEmail = new UserStudentQuery.Cursor(UserStudentQuery.Sort.EMAIL, false, 1, 0, "a@b").encode();
+
+        assertThrows(IllegalArgumentException.class,
+            () -> UserStudentQuery.of("grades", "asc", null, null, null, byEmail, null));
+        assertThrows(IllegalArgumentException.class,
+            () -> UserStudentQuery.of("email", "desc", null, null, null, byEmail, null));
+        assertEquals(UserStudentQuery.Sort.EMAIL,
+            UserStudentQuery.of("email", "asc", null, null, null, byEmail, null).after().sort());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        answer(List.of(row(1, "a@example.com", 3, 0), row(2, "b@example.com", null, 0)));
+
+        UserStudentPage page = databaseService.getUsersWithStudents(query("id", "asc", null, 2));
+
+        assertEquals(2, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void nextCursorPointsAtLastRowOfPage() {
+        // Лишняя строка только сообщает, что страница не последняя
+        answer(List.of(row(5, "e@example.com", 11, 9), row(4, "d@example.com", null, 9), row(3, "c@example.com", 8, 9)));
+
+        UserStudentPage page = databaseService.getUsersWithStudents(query("grades", "desc", null, 2));
+
+        assertEquals(2, page.items().size());
+        UserStudentQuery.Cursor next = UserStudentQuery.Cursor.decode(page.nextCursor());
+        assertEquals(new UserStudentQuery.Cursor(UserStudentQuery.Sort.GRADES, true, 4, 0, "9"), next);
+    }
+
+    @Test
+    void gradesPageContinuesAfterCursorInDescendingKeyOrder() {
+        answer(List.of());
+        String after = new UserStudentQuery.Cursor(UserStudentQuery.Sort.GRADES, true, 4, 0, "9").encode();
+
+        databaseService.getUsersWithStudents(query("grades", "desc", after, 2));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), args.capture());
+        assertTrue(sql.getValue().contains(
+            "(grades_count < ? OR (grades_count = ? AND (user_id < ? OR (user_id = ? AND student_key < ?))))"));
+        assertTrue(sql.getValue().endsWith("ORDER BY grades_count DESC, user_id DESC, student_key DESC"));
+        assertEquals(List.of(3, 9, 9, 4, 4, 0), List.of(args.getValue()));
+    }
+
+    @Test
+    void emailPageContinuesAfterCursorInAscendingKeyOrder() {
+        answer(List.of());
+        String after = new UserStudentQuery.Cursor(UserStudentQuery.Sort.EMAIL, false, 4, 12, "d@example.com").encode();
+
+        databaseService.getUsersWithStudents(query("email", "asc", after, 10));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), args.capture());
+        assertTrue(sql.getValue().contains("(email > ? OR (email = ? AND student_key > ?))"));
+        assertTrue(sql.getValue().endsWith("ORDER BY email, student_key"));
+        assertEquals(List.of(11, "d@example.com", "d@example.com", 12), List.of(args.getValue()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void answer(List<UserStudentRow> rows) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(rows);
+    }
+
+    private static UserStudentQuery query(String sort, String direction, String after, int limit) {
+        return UserStudentQuery.of(sort, direction, null, null, null, after, limit);
+    }
+
+    private static String raw(String cursor) {
+        return Base64.getUrlEncoder().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static UserStudentRow row(int userId, String email, Integer studentId, int gradesCount) {
+        return new UserStudentRow(userId, email, null, studentId, null, null, gradesCount);
+    }
+}